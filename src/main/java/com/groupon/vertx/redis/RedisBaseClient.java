@@ -21,8 +21,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.json.JsonObject;
 
 /**
@@ -45,6 +48,52 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         this.replyTimeout = timeout;
     }
 
+    /**
+     * Converts the body of a reply message into the JsonObject returned to the caller.  Replies to commands
+     * sent with <code>RedisCommandBatchCodec</code> are <code>RedisReply</code> objects, while errors and
+     * replies to JSON commands are JsonObjects.
+     *
+     * @param body - The body of the reply message.
+     * @return - The reply as a JsonObject.
+     */
+    protected static JsonObject toJsonReply(Object body) {
+        if (body instanceof RedisReply) {
+            return ((RedisReply) body).toJson();
+        }
+        return (JsonObject) body;
+    }
+
+    /**
+     * Creates the exception used to fail a future when a command message could not be sent or timed out.
+     *
+     * @param cause - The cause of the failure, which may be null.
+     * @return - An exception whose message is a JsonObject error response.
+     */
+    protected static RedisCommandException createException(Throwable cause) {
+        RedisCommandException exception;
+        if (cause != null) {
+            String errorMessage;
+            if (cause instanceof ReplyException) {
+                errorMessage = createErrorJson(((ReplyException) cause).failureType().name());
+            } else {
+                errorMessage = createErrorJson(cause.getMessage());
+            }
+            exception = new RedisCommandException(errorMessage);
+            exception.addSuppressed(cause);
+        } else {
+            exception = new RedisCommandException(createErrorJson(HttpResponseStatus.INTERNAL_SERVER_ERROR.reasonPhrase()));
+        }
+        return exception;
+    }
+
+    protected static String createErrorJson(String message) {
+        return new JsonObject()
+                .put("status", "error")
+                .put("code", HttpResponseStatus.INTERNAL_SERVER_ERROR.code())
+                .put("message", message)
+                .encode();
+    }
+
     public Future<JsonObject> append(String key, String value) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -52,6 +101,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.APPEND, arguments));
     }
 
+    public Future<JsonObject> append(Buffer key, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.APPEND, arguments));
+    }
+
     public Future<JsonObject> bitcount(String key) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -138,6 +194,12 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return del(Arrays.asList(new String[]{key}));
     }
 
+    public Future<JsonObject> del(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.DEL, arguments));
+    }
+
     public Future<JsonObject> del(List<String> keys) {
         if (keys == null || keys.size() == 0) {
             throw new IllegalArgumentException("No keys provided for DEL");
@@ -163,6 +225,12 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.EXISTS, arguments));
     }
 
+    public Future<JsonObject> exists(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.EXISTS, arguments));
+    }
+
     public Future<JsonObject> expire(String key, int seconds) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -170,6 +238,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.EXPIRE, arguments));
     }
 
+    public Future<JsonObject> expire(Buffer key, int seconds) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(String.valueOf(seconds));
+        return sendCommand(new RedisCommand(RedisCommandType.EXPIRE, arguments));
+    }
+
     public Future<JsonObject> expireat(String key, long unixTimestamp) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -193,6 +268,12 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.GET, arguments));
     }
 
+    public Future<JsonObject> get(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.GET, arguments));
+    }
+
     public Future<JsonObject> getbit(String key, int offset) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -215,10 +296,24 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.GETSET, arguments));
     }
 
+    public Future<JsonObject> getset(Buffer key, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.GETSET, arguments));
+    }
+
     public Future<JsonObject> hdel(String key, String field) {
         return hdel(key, Arrays.asList(new String[]{field}));
     }
 
+    public Future<JsonObject> hdel(Buffer key, Buffer field) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(field);
+        return sendCommand(new RedisCommand(RedisCommandType.HDEL, arguments));
+    }
+
     public Future<JsonObject> hdel(String key, List<String> fields) {
         if (fields == null || fields.size() == 0) {
             throw new IllegalArgumentException("No fields provided for HDEL");
@@ -247,12 +342,25 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.HGET, arguments));
     }
 
+    public Future<JsonObject> hget(Buffer key, Buffer field) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(field);
+        return sendCommand(new RedisCommand(RedisCommandType.HGET, arguments));
+    }
+
     public Future<JsonObject> hgetall(String key) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
         return sendCommand(new RedisCommand(RedisCommandType.HGETALL, arguments));
     }
 
+    public Future<JsonObject> hgetall(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.HGETALL, arguments));
+    }
+
     public Future<JsonObject> hincrby(String key, String field, int increment) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -322,6 +430,14 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.HSET, arguments));
     }
 
+    public Future<JsonObject> hset(Buffer key, Buffer field, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(field);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.HSET, arguments));
+    }
+
     public Future<JsonObject> hsetnx(String key, String field, String value) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -330,6 +446,14 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.HSETNX, arguments));
     }
 
+    public Future<JsonObject> hsetnx(Buffer key, Buffer field, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(field);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.HSETNX, arguments));
+    }
+
     public Future<JsonObject> hvals(String key) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -399,10 +523,23 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.LPOP, arguments));
     }
 
+    public Future<JsonObject> lpop(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.LPOP, arguments));
+    }
+
     public Future<JsonObject> lpush(String key, String value) {
         return lpush(key, Arrays.asList(new String[]{value}));
     }
 
+    public Future<JsonObject> lpush(Buffer key, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.LPUSH, arguments));
+    }
+
     public Future<JsonObject> lpush(String key, List<String> values) {
         if (values == null || values.size() == 0) {
             throw new IllegalArgumentException("No values provided for LPUSH");
@@ -534,6 +671,14 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.PSETEX, arguments));
     }
 
+    public Future<JsonObject> psetex(Buffer key, int expiration, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(String.valueOf(expiration));
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.PSETEX, arguments));
+    }
+
     public Future<JsonObject> pttl(String key) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -565,6 +710,12 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.RPOP, arguments));
     }
 
+    public Future<JsonObject> rpop(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.RPOP, arguments));
+    }
+
     public Future<JsonObject> rpoplpush(String source, String destination) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(source);
@@ -576,6 +727,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return rpush(key, Arrays.asList(new String[]{value}));
     }
 
+    public Future<JsonObject> rpush(Buffer key, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.RPUSH, arguments));
+    }
+
     public Future<JsonObject> rpush(String key, List<String> values) {
         if (values == null || values.size() == 0) {
             throw new IllegalArgumentException("No values provided for RPUSH");
@@ -601,6 +759,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sadd(key, Arrays.asList(new String[]{member}));
     }
 
+    public Future<JsonObject> sadd(Buffer key, Buffer member) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(member);
+        return sendCommand(new RedisCommand(RedisCommandType.SADD, arguments));
+    }
+
     public Future<JsonObject> sadd(String key, List<String> members) {
         if (members == null || members.size() == 0) {
             throw new IllegalArgumentException("No members provided for SADD");
@@ -655,6 +820,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.SET, arguments));
     }
 
+    public Future<JsonObject> set(Buffer key, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.SET, arguments));
+    }
+
     public Future<JsonObject> setex(String key, int expiration, String value) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -663,6 +835,14 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.SETEX, arguments));
     }
 
+    public Future<JsonObject> setex(Buffer key, int expiration, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(String.valueOf(expiration));
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.SETEX, arguments));
+    }
+
     public Future<JsonObject> setnx(String key, String value) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -670,6 +850,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.SETNX, arguments));
     }
 
+    public Future<JsonObject> setnx(Buffer key, Buffer value) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(value);
+        return sendCommand(new RedisCommand(RedisCommandType.SETNX, arguments));
+    }
+
     public Future<JsonObject> setexnx(String key, int expiration, String value) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
@@ -722,12 +909,25 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.SISMEMBER, arguments));
     }
 
+    public Future<JsonObject> sismember(Buffer key, Buffer member) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(member);
+        return sendCommand(new RedisCommand(RedisCommandType.SISMEMBER, arguments));
+    }
+
     public Future<JsonObject> smembers(String key) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(key);
         return sendCommand(new RedisCommand(RedisCommandType.SMEMBERS, arguments));
     }
 
+    public Future<JsonObject> smembers(Buffer key) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        return sendCommand(new RedisCommand(RedisCommandType.SMEMBERS, arguments));
+    }
+
     public Future<JsonObject> smove(String source, String destination, String member) {
         ArrayList<String> arguments = new ArrayList<>();
         arguments.add(source);
@@ -803,6 +1003,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return srem(key, Arrays.asList(new String[]{member}));
     }
 
+    public Future<JsonObject> srem(Buffer key, Buffer member) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(member);
+        return sendCommand(new RedisCommand(RedisCommandType.SREM, arguments));
+    }
+
     public Future<JsonObject> srem(String key, List<String> members) {
         if (members == null || members.size() == 0) {
             throw new IllegalArgumentException("No members provided for SREM");
@@ -870,6 +1077,14 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.ZADD, arguments));
     }
 
+    public Future<JsonObject> zadd(Buffer key, double score, Buffer member) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(String.valueOf(score));
+        arguments.add(member);
+        return sendCommand(new RedisCommand(RedisCommandType.ZADD, arguments));
+    }
+
     public Future<JsonObject> zadd(String key, Map<Double, String> members) {
         if (members == null || members.size() == 0) {
             throw new IllegalArgumentException("No members or scores provided");
@@ -990,6 +1205,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return zrem(key, Arrays.asList(new String[]{message}));
     }
 
+    public Future<JsonObject> zrem(Buffer key, Buffer message) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(message);
+        return sendCommand(new RedisCommand(RedisCommandType.ZREM, arguments));
+    }
+
     public Future<JsonObject> zrem(String key, List<String> messages) {
         if (messages == null || messages.size() == 0) {
             throw new IllegalArgumentException("No messages provided for ZREM");
@@ -1091,6 +1313,13 @@ abstract class RedisBaseClient implements RedisBaseCommandClient {
         return sendCommand(new RedisCommand(RedisCommandType.ZSCORE, arguments));
     }
 
+    public Future<JsonObject> zscore(Buffer key, Buffer member) {
+        ArrayList<Object> arguments = new ArrayList<>();
+        arguments.add(key);
+        arguments.add(member);
+        return sendCommand(new RedisCommand(RedisCommandType.ZSCORE, arguments));
+    }
+
     public Future<JsonObject> zunionstore(String destination, int numKeys, List<String> unionKeys) {
         if (unionKeys == null || unionKeys.size() == 0) {
             throw new IllegalArgumentException("No union keys provided for ZUNIONSTORE");
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
 
@@ -39,6 +40,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> append(String key, String value);
 
+    /**
+     * If key already exists and is a string, this command appends the value at the end of the string. If key does not
+     * exist it is created and set as an empty string, so APPEND will be similar to SET in this special case.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> append(Buffer key, Buffer value);
+
     /**
      * Count the number of set bits (population counting) in a string.
      *
@@ -129,6 +140,14 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> del(String key);
 
+    /**
+     * Removes the specified key. The key is ignored if it does not exist.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> del(Buffer key);
+
     /**
      * Removes the specified keys. A key is ignored if it does not exist.
      *
@@ -153,6 +172,14 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> exists(String key);
 
+    /**
+     * Returns if key exists.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> exists(Buffer key);
+
     /**
      * Set a timeout on key.  After the timeout has expired, the key will automatically be deleted.
      *
@@ -162,6 +189,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> expire(String key, int seconds);
 
+    /**
+     * Set a timeout on key.  After the timeout has expired, the key will automatically be deleted.
+     *
+     * @param key - Buffer key
+     * @param seconds - Integer seconds
+     * @return Future result
+     */
+    Future<JsonObject> expire(Buffer key, int seconds);
+
     /**
      * EXPIREAT has the same effect and semantic as EXPIRE, but instead of specifying the number of seconds
      * representing the TTL (time to live), it takes an absolute Unix timestamp (seconds since January 1, 1970).
@@ -192,6 +228,14 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> get(String key);
 
+    /**
+     * Get the value of key.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> get(Buffer key);
+
     /**
      * Returns the bit value at offset in the string value stored at key.  When offset is beyond the string length,
      * the string is assumed to be a contiguous space with 0 bits. When key does not exist it is assumed to be an
@@ -225,6 +269,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> getset(String key, String value);
 
+    /**
+     * Atomically sets key to value and returns the old value stored at key. Returns an error when key exists but
+     * does not hold a string value.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> getset(Buffer key, Buffer value);
+
     /**
      * Removes the specified field from the hash stored at key.  If the specified field does not exist within this hash
      * it is ignored.  If key does not exist, it is treated as an empty hash and this command returns 0.
@@ -235,6 +289,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> hdel(String key, String field);
 
+    /**
+     * Removes the specified field from the hash stored at key.  If the specified field does not exist within this hash
+     * it is ignored.  If key does not exist, it is treated as an empty hash and this command returns 0.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @return Future result
+     */
+    Future<JsonObject> hdel(Buffer key, Buffer field);
+
     /**
      * Removes the specified fields from the hash stored at key.  Specified fields that do not exist within this hash
      * are ignored.  If key does not exist, it is treated as an empty hash and this command returns 0.
@@ -263,6 +327,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> hget(String key, String field);
 
+    /**
+     * Returns the value associated with field in the hash stored at key.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @return Future result
+     */
+    Future<JsonObject> hget(Buffer key, Buffer field);
+
     /**
      * Returns all fields and values of the hash stored at key.
      *
@@ -271,6 +344,14 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> hgetall(String key);
 
+    /**
+     * Returns all fields and values of the hash stored at key.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> hgetall(Buffer key);
+
     /**
      * Increments the number stored at field in the hash stored at key by increment.
      *
@@ -348,6 +429,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> hset(String key, String field, String value);
 
+    /**
+     * Sets field in the hash stored at key to value.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> hset(Buffer key, Buffer field, Buffer value);
+
     /**
      * Sets field in the hash stored at key to value, only if field does not yet exist.
      *
@@ -358,6 +449,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> hsetnx(String key, String field, String value);
 
+    /**
+     * Sets field in the hash stored at key to value, only if field does not yet exist.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> hsetnx(Buffer key, Buffer field, Buffer value);
+
     /**
      * Returns all values in the hash stored at key.
      *
@@ -447,6 +548,14 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> lpop(String key);
 
+    /**
+     * Removes and returns the first element of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> lpop(Buffer key);
+
     /**
      * Insert the specified value at the head of the list stored at key.
      *
@@ -456,6 +565,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> lpush(String key, String value);
 
+    /**
+     * Insert the specified value at the head of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> lpush(Buffer key, Buffer value);
+
     /**
      * Insert all the specified values at the head of the list stored at key.
      *
@@ -594,6 +712,17 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> psetex(String key, int expiration, String value);
 
+    /**
+     * PSETEX works exactly like SETEX with the sole difference that the expire time is specified in milliseconds
+     * instead of seconds.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @param expiration - Integer expiration
+     * @return Future result
+     */
+    Future<JsonObject> psetex(Buffer key, int expiration, Buffer value);
+
     /**
      * Like TTL this command returns the remaining time to live of a key that has an expire set, with the sole
      * difference that TTL returns the amount of remaining time in seconds while PTTL returns it in milliseconds.
@@ -635,6 +764,14 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> rpop(String key);
 
+    /**
+     * Removes and returns the last element of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> rpop(Buffer key);
+
     /**
      * Atomically returns and removes the last element (tail) of the list stored at source, and pushes the element at
      * the first element (head) of the list stored at destination.
@@ -654,6 +791,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> rpush(String key, String value);
 
+    /**
+     * Insert the specified value at the tail of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> rpush(Buffer key, Buffer value);
+
     /**
      * Insert all the specified values at the tail of the list stored at key.
      *
@@ -682,6 +828,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> sadd(String key, String member);
 
+    /**
+     * Add the specified member to the set stored at key.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future result
+     */
+    Future<JsonObject> sadd(Buffer key, Buffer member);
+
     /**
      * Add the specified members to the set stored at key.
      *
@@ -727,6 +882,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> set(String key, String value);
 
+    /**
+     * Set key to hold the string value.  If key already holds a value, it is overwritten, regardless of its type.
+     * Any previous time to live associated with the key is discarded on successful SET operation.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> set(Buffer key, Buffer value);
+
     /**
      * Set key to hold the string value and set key to timeout after a given number of seconds.
      *
@@ -737,6 +902,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> setex(String key, int expiration, String value);
 
+    /**
+     * Set key to hold the string value and set key to timeout after a given number of seconds.
+     *
+     * @param key - Buffer key
+     * @param expiration - Integer expiration
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> setex(Buffer key, int expiration, Buffer value);
+
     /**
      * Set key to hold string value if key does not exist.  In that case, it is equal to SET.  When key already holds
      * a value, no operation is performed.
@@ -747,6 +922,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> setnx(String key, String value);
 
+    /**
+     * Set key to hold string value if key does not exist.  In that case, it is equal to SET.  When key already holds
+     * a value, no operation is performed.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future result
+     */
+    Future<JsonObject> setnx(Buffer key, Buffer value);
+
     /**
      * Set key to hold string value and set key to timeout if key does not exist.
      *
@@ -794,6 +979,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> sismember(String key, String member);
 
+    /**
+     * Returns if member is a member of the set stored at key.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future result
+     */
+    Future<JsonObject> sismember(Buffer key, Buffer member);
+
     /**
      * Returns all the members of the set value stored at key.  This has the same effect as running SINTER with
      * one argument key.
@@ -803,6 +997,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> smembers(String key);
 
+    /**
+     * Returns all the members of the set value stored at key.  This has the same effect as running SINTER with
+     * one argument key.
+     *
+     * @param key - Buffer key
+     * @return Future result
+     */
+    Future<JsonObject> smembers(Buffer key);
+
     /**
      * Move member from the set at source to the set at destination.  This operation is atomic. In every given
      * moment the element will appear to be a member of source or destination for other clients.
@@ -888,6 +1091,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> srem(String key, String member);
 
+    /**
+     * Remove the specified member from the set stored at key.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future result
+     */
+    Future<JsonObject> srem(Buffer key, Buffer member);
+
     /**
      * Remove the specified members from the set stored at key.
      *
@@ -948,6 +1160,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> zadd(String key, double score, String member);
 
+    /**
+     * Adds the specified member with the specified score to the sorted set stored at key.
+     *
+     * @param key - Buffer key
+     * @param score - Double score
+     * @param member - Buffer member
+     * @return Future result
+     */
+    Future<JsonObject> zadd(Buffer key, double score, Buffer member);
+
     /**
      * Adds all the specified members with the specified scores to the sorted set stored at key.
      *
@@ -1084,6 +1306,15 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> zrem(String key, String message);
 
+    /**
+     * Removes the specified member from the sorted set stored at key. Non existing members are ignored.
+     *
+     * @param key - Buffer key
+     * @param message - Buffer message
+     * @return Future result
+     */
+    Future<JsonObject> zrem(Buffer key, Buffer message);
+
     /**
      * Removes the specified members from the sorted set stored at key. Non existing members are ignored.
      *
@@ -1206,6 +1437,16 @@ public interface RedisBaseCommandClient {
      */
     Future<JsonObject> zscore(String key, String member);
 
+    /**
+     * Returns the score of member in the sorted set at key.  If member does not exist in the sorted set, or key
+     * does not exist, nil is returned.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future result
+     */
+    Future<JsonObject> zscore(Buffer key, Buffer member);
+
     /**
      * Returns the score of member in the sorted set at key.  If member does not exist in the sorted set, or key
      * does not exist, nil is returned.
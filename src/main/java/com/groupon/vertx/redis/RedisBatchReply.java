@@ -0,0 +1,38 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.List;
+
+/**
+ * The replies to a non-transactional <code>RedisCommandBatch</code> of more than one command, sent back as a
+ * single message with <code>RedisBatchReplyCodec</code>.  The replies are in the order of the commands.  Each
+ * one is the <code>RedisReply</code> read from Redis, or the JsonObject error response if the command could
+ * not be completed, for example because the connection closed.
+ *
+ * @since 3.2.0
+ */
+public final class RedisBatchReply {
+    private final List<Object> replies;
+
+    public RedisBatchReply(List<Object> replies) {
+        this.replies = replies;
+    }
+
+    public List<Object> getReplies() {
+        return replies;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Codec for sending a <code>RedisBatchReply</code> across the event bus.  Local messages are passed by
+ * reference.  Clustered messages contain the number of replies followed by each reply, either a
+ * <code>RedisReply</code> in the <code>RedisReplyCodec</code> format or an encoded JsonObject error:
+ * <br>
+ * <code>
+ * int count
+ * byte kind   - 0 for a RedisReply, 1 for a JsonObject
+ * ...         - the RedisReply, or an int length followed by the UTF-8 encoded JsonObject
+ * </code>
+ *
+ * @since 3.2.0
+ */
+public class RedisBatchReplyCodec implements MessageCodec<RedisBatchReply, RedisBatchReply> {
+    public static final String CODEC_NAME = "redisBatchReply";
+    private static final Charset ENCODING = Charset.forName("UTF-8");
+    private static final byte REPLY = 0;
+    private static final byte JSON = 1;
+    private final RedisReplyCodec replyCodec = new RedisReplyCodec();
+
+    @Override
+    public void encodeToWire(Buffer buffer, RedisBatchReply batchReply) {
+        List<Object> replies = batchReply.getReplies();
+        buffer.appendInt(replies.size());
+        for (Object reply : replies) {
+            if (reply instanceof RedisReply) {
+                buffer.appendByte(REPLY);
+                replyCodec.encodeToWire(buffer, (RedisReply) reply);
+            } else {
+                byte[] bytes = ((JsonObject) reply).encode().getBytes(ENCODING);
+                buffer.appendByte(JSON);
+                buffer.appendInt(bytes.length);
+                buffer.appendBytes(bytes);
+            }
+        }
+    }
+
+    @Override
+    public RedisBatchReply decodeFromWire(int pos, Buffer buffer) {
+        int count = buffer.getInt(pos);
+        int[] position = new int[]{pos + 4};
+
+        List<Object> replies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte kind = buffer.getByte(position[0]);
+            position[0]++;
+            if (kind == REPLY) {
+                replies.add(replyCodec.decode(buffer, position));
+            } else {
+                int length = buffer.getInt(position[0]);
+                int start = position[0] + 4;
+                replies.add(new JsonObject(buffer.getString(start, start + length, ENCODING.name())));
+                position[0] = start + length;
+            }
+        }
+        return new RedisBatchReply(replies);
+    }
+
+    @Override
+    public RedisBatchReply transform(RedisBatchReply batchReply) {
+        return batchReply;
+    }
+
+    @Override
+    public String name() {
+        return CODEC_NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -15,14 +15,15 @@
  */
 package com.groupon.vertx.redis;
 
-import io.netty.handler.codec.http.HttpResponseStatus;
+import java.util.Collections;
+
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
-import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -32,51 +33,192 @@ import io.vertx.core.json.JsonObject;
  * @author Namrata Lele (nlele at groupon dot com)
  * @since 1.0.0
  */
-public final class RedisClient extends RedisBaseClient implements  RedisCommandClient {
+public final class RedisClient extends RedisBaseClient implements  RedisCommandClient, RedisReplySender {
+    private final Vertx vertx;
+    private final boolean useCodec;
+    private final long batchDelay;
+    private final boolean coalesceReads;
+    private RedisPipeline batch;
+    private RedisSingleFlightClient singleFlight;
+
     public RedisClient(EventBus eventBus, String eventBusAddress, long timeout) {
+        this(eventBus, eventBusAddress, timeout, false);
+    }
+
+    /**
+     * If useCodec is true the commands are sent as a <code>RedisCommandBatch</code> with
+     * <code>RedisCommandBatchCodec</code> instead of as JSON.  Locally delivered commands and replies are then
+     * passed by reference, and clustered ones use a compact binary format.  The codecs are registered with the
+     * event bus if they aren't already.
+     *
+     * @param eventBus - The event bus to send the commands on.
+     * @param eventBusAddress - The event bus address of the RedisVerticle.
+     * @param timeout - The number of milliseconds to wait for a reply.
+     * @param useCodec - If the commands are sent with the Redis codecs.
+     */
+    public RedisClient(EventBus eventBus, String eventBusAddress, long timeout, boolean useCodec) {
+        this(null, eventBus, eventBusAddress, timeout, useCodec, -1, false);
+    }
+
+    /**
+     * Creates a client which batches its commands automatically.  Commands are buffered for batchDelay
+     * milliseconds, or until the end of the current event loop tick if batchDelay is 0, and are then sent
+     * together in one message as if they had been sent with a pipeline.  Each future is still completed with
+     * the reply to its own command.
+     * <br>
+     * The buffered commands are not shared between threads, so the client must only be used from the
+     * context it was created on.
+     *
+     * @param vertx - The Vertx instance used to schedule sending the buffered commands.
+     * @param eventBusAddress - The event bus address of the RedisVerticle.
+     * @param timeout - The number of milliseconds to wait for a reply.
+     * @param useCodec - If the commands are sent with the Redis codecs.
+     * @param batchDelay - The number of milliseconds to buffer commands, 0 for the current event loop tick.
+     */
+    public RedisClient(Vertx vertx, String eventBusAddress, long timeout, boolean useCodec, long batchDelay) {
+        this(vertx, eventBusAddress, timeout, useCodec, batchDelay, false);
+    }
+
+    /**
+     * Creates a client which batches its commands automatically, as above.  If coalesceReads is true the GET
+     * commands in a batch are also sent as one MGET, and the HGET commands for the same hash as one HMGET, as
+     * long as they are not separated by other commands.  MGET returns nil rather than an error for a key
+     * holding a value of the wrong type.
+     *
+     * @param vertx - The Vertx instance used to schedule sending the buffered commands.
+     * @param eventBusAddress - The event bus address of the RedisVerticle.
+     * @param timeout - The number of milliseconds to wait for a reply.
+     * @param useCodec - If the commands are sent with the Redis codecs.
+     * @param batchDelay - The number of milliseconds to buffer commands, 0 for the current event loop tick.
+     * @param coalesceReads - If GET and HGET commands are merged into MGET and HMGET.
+     */
+    public RedisClient(Vertx vertx, String eventBusAddress, long timeout, boolean useCodec, long batchDelay, boolean coalesceReads) {
+        this(vertx, vertx.eventBus(), eventBusAddress, timeout, useCodec, batchDelay, coalesceReads);
+        if (batchDelay < 0) {
+            throw new IllegalArgumentException("Invalid batch delay");
+        }
+    }
+
+    private RedisClient(Vertx vertx, EventBus eventBus, String eventBusAddress, long timeout, boolean useCodec, long batchDelay,
+            boolean coalesceReads) {
         super(eventBus, eventBusAddress, timeout);
+        this.vertx = vertx;
+        this.useCodec = useCodec;
+        this.batchDelay = batchDelay;
+        this.coalesceReads = coalesceReads;
+        if (useCodec) {
+            RedisMessageCodecs.register(eventBus);
+        }
     }
 
     public RedisCommandTransaction multi() {
-        return new RedisTransaction(eventBus, eventBusAddress, replyTimeout);
+        return new RedisTransaction(eventBus, eventBusAddress, replyTimeout, useCodec);
+    }
+
+    public RedisCommandPipeline pipeline() {
+        return new RedisPipeline(eventBus, eventBusAddress, replyTimeout, useCodec);
+    }
+
+    /**
+     * The typed view always sends its commands with the Redis codecs, registering them with the event bus if
+     * they aren't already.
+     *
+     * @return - A RedisTypedCommandClient sending on this client's event bus address.
+     */
+    public RedisTypedCommandClient typed() {
+        if (!useCodec) {
+            RedisMessageCodecs.register(eventBus);
+        }
+        return new RedisTypedClient(this);
+    }
+
+    /**
+     * The single-flight view is created once and shared by every caller of this client.
+     *
+     * @return - A RedisBaseCommandClient sending through this client.
+     */
+    public RedisBaseCommandClient singleFlight() {
+        if (singleFlight == null) {
+            singleFlight = new RedisSingleFlightClient(this);
+        }
+        return singleFlight;
+    }
+
+    public RedisBaseCommandClient nearCache(RedisNearCache cache) {
+        return new RedisNearCacheClient(this, cache);
+    }
+
+    public Future<RedisReply> sendReplyCommand(RedisCommand command) {
+        final Future<RedisReply> finalResult = Future.future();
+        final DeliveryOptions deliveryOptions = new DeliveryOptions()
+                .setSendTimeout(replyTimeout)
+                .setCodecName(RedisCommandBatchCodec.CODEC_NAME);
+
+        eventBus.send(eventBusAddress, new RedisCommandBatch(Collections.singletonList(command), false), deliveryOptions,
+                new Handler<AsyncResult<Message<Object>>>() {
+                    @Override
+                    public void handle(AsyncResult<Message<Object>> messageAsyncResult) {
+                        if (messageAsyncResult.succeeded() && messageAsyncResult.result() != null) {
+                            Object body = messageAsyncResult.result().body();
+                            if (body instanceof RedisReply) {
+                                finalResult.complete((RedisReply) body);
+                            } else {
+                                finalResult.fail(new RedisCommandException(toJsonReply(body).encode()));
+                            }
+                        } else {
+                            finalResult.fail(createException(messageAsyncResult.cause()));
+                        }
+                    }
+                });
+        return finalResult;
     }
 
     @Override
     protected Future<JsonObject> sendCommand(RedisCommand command) {
+        if (vertx != null) {
+            return batchCommand(command);
+        }
+
         final Future<JsonObject> finalResult = Future.future();
         final DeliveryOptions deliveryOptions = new DeliveryOptions().setSendTimeout(replyTimeout);
-        eventBus.send(eventBusAddress, new JsonObject().put("commands", new JsonArray().add(command.toJson())), deliveryOptions, new Handler<AsyncResult<Message<JsonObject>>>() {
+        final Object message;
+        if (useCodec) {
+            deliveryOptions.setCodecName(RedisCommandBatchCodec.CODEC_NAME);
+            message = new RedisCommandBatch(Collections.singletonList(command), false);
+        } else {
+            message = new JsonObject().put("commands", new JsonArray().add(command.toJson()));
+        }
+
+        eventBus.send(eventBusAddress, message, deliveryOptions, new Handler<AsyncResult<Message<Object>>>() {
             @Override
-            public void handle(AsyncResult<Message<JsonObject>> messageAsyncResult) {
+            public void handle(AsyncResult<Message<Object>> messageAsyncResult) {
                 if (messageAsyncResult.succeeded() && messageAsyncResult.result() != null) {
-                    finalResult.complete(messageAsyncResult.result().body());
+                    finalResult.complete(toJsonReply(messageAsyncResult.result().body()));
                 } else {
-                    RedisCommandException exception;
-                    if (messageAsyncResult.cause() != null) {
-                        String errorMessage;
-                        final Throwable cause = messageAsyncResult.cause();
-                        if (cause instanceof ReplyException) {
-                            errorMessage = createErrorJson(((ReplyException) cause).failureType().name());
-                        } else {
-                            errorMessage = createErrorJson(cause.getMessage());
-                        }
-                        exception = new RedisCommandException(errorMessage);
-                        exception.addSuppressed(messageAsyncResult.cause());
-                    } else {
-                        exception = new RedisCommandException(createErrorJson(HttpResponseStatus.INTERNAL_SERVER_ERROR.reasonPhrase()));
-                    }
-                    finalResult.fail(exception);
+                    finalResult.fail(createException(messageAsyncResult.cause()));
                 }
             }
         });
         return finalResult;
     }
 
-    private String createErrorJson(String message) {
-        return new JsonObject()
-                .put("status", "error")
-                .put("code", HttpResponseStatus.INTERNAL_SERVER_ERROR.code())
-                .put("message", message)
-                .encode();
+    private Future<JsonObject> batchCommand(RedisCommand command) {
+        if (batch == null) {
+            final RedisPipeline pending = new RedisPipeline(eventBus, eventBusAddress, replyTimeout, useCodec, coalesceReads);
+            batch = pending;
+            if (batchDelay > 0) {
+                vertx.setTimer(batchDelay, id -> flushBatch(pending));
+            } else {
+                vertx.runOnContext(event -> flushBatch(pending));
+            }
+        }
+        return batch.sendCommand(command);
+    }
+
+    private void flushBatch(RedisPipeline pending) {
+        if (batch == pending) {
+            batch = null;
+        }
+        pending.flush();
     }
 }
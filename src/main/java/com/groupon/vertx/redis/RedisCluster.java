@@ -0,0 +1,431 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+
+import com.groupon.vertx.utils.Logger;
+
+/**
+ * The connections to the nodes of a Redis Cluster, registered under one event bus address.  The slot map is
+ * loaded with CLUSTER SLOTS from the configured seed node, and each node serving slots gets its own pool of
+ * connections.  Each command is sent to the node serving the slot of its first key, which is the CRC16 of
+ * the key, or of the part between the first <code>{</code> and the next <code>}</code> if it is not empty.
+ * <br>
+ * A MOVED reply updates the slot and resends the command to the node it names, while an ASK reply resends it
+ * once with ASKING.  Either reply, or a command failing because a node has no connection, reloads the slot
+ * map in the background.  Commands routed or redirected to a node which is still opening its first
+ * connection wait for it to open.
+ * <br>
+ * MGET, MSET, DEL and EXISTS commands with keys in several slots are split by slot, and the replies are
+ * merged in the order of the keys.  The commands of a transaction are all sent to the node of the first key
+ * in the transaction.  They are neither split nor redirected, so a transaction started during a slot
+ * migration fails and must be retried.
+ *
+ * @since 3.2.0
+ */
+public class RedisCluster extends RedisConnectionPool {
+    private static final Logger log = Logger.getLogger(RedisCluster.class);
+    private static final int SLOTS = 16384;
+    private static final int MAXIMUM_REDIRECTS = 5;
+    private final Vertx vertx;
+    private final RedisConfig config;
+    private final NetClient netClient;
+    private final RedisCommandHandler commandHandler;
+    private final Map<String, RedisConnectionPool> nodes = new HashMap<>();
+    private final RedisConnectionPool[] slots = new RedisConnectionPool[SLOTS];
+    private final String seedAddress;
+    private MessageConsumer<JsonObject> consumer;
+    private boolean refreshing;
+    private boolean registering;
+    private boolean closed;
+
+    /**
+     * Creates the cluster for the seed node in the config.  Nothing is connected until it is started.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config, whose host and port are the seed node.
+     * @param netClient - The client for connecting to the nodes.
+     */
+    public RedisCluster(Vertx vertx, RedisConfig config, NetClient netClient) {
+        super(vertx, config.getEventBusAddress());
+        this.vertx = vertx;
+        this.config = config;
+        this.netClient = netClient;
+        this.commandHandler = new RedisCommandHandler(this);
+        this.seedAddress = config.getHost() + ":" + config.getPort();
+    }
+
+    /**
+     * Connects to the seed node and loads the slot map.  The event bus consumer is registered once the slot
+     * map has been loaded and every node serving slots has an open connection.
+     */
+    public void start() {
+        getNode(seedAddress);
+        refresh();
+    }
+
+    /**
+     * Unregisters the event bus consumer and closes the connections to every node.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (consumer != null) {
+            consumer.unregister();
+            consumer = null;
+        }
+
+        for (String address : new ArrayList<>(nodes.keySet())) {
+            closeNode(address);
+        }
+    }
+
+    @Override
+    public void handle(Message<JsonObject> message) {
+        Object body = ((Message<?>) message).body();
+        if (body instanceof RedisCommandBatch) {
+            commandHandler.handleBatch(message, (RedisCommandBatch) body);
+        } else {
+            commandHandler.handle(message);
+        }
+    }
+
+    /**
+     * Sends each command to the node serving the slot of its key.  Commands without a key are sent to the
+     * seed node, and the commands of a transaction are all sent to the node of its first key.  Outside of a
+     * transaction, MGET, MSET, DEL and EXISTS commands whose keys are in several slots are split into one
+     * command for each slot, which are sent in parallel.  This must be called from the context of the cluster.
+     *
+     * @param commands - The list of Redis commands.
+     */
+    @Override
+    public void sendCommand(List<RedisCommand> commands) {
+        if (isTransaction(commands)) {
+            RedisConnectionPool node = null;
+            List<RedisCommand> routed = new ArrayList<>(commands.size());
+            for (RedisCommand command : commands) {
+                if (node == null && command.getKey() != null) {
+                    node = getSlotNode(getSlot(command.getKey()));
+                }
+                routed.add(new RoutedCommand(command, false, 0));
+            }
+            (node != null ? node : getDefaultNode()).sendCommand(routed);
+        } else {
+            Map<RedisConnectionPool, List<RedisCommand>> routed = new IdentityHashMap<>();
+            for (RedisCommand command : commands) {
+                List<RedisCommand> split = RedisCommandSplitter.split(command, RedisCluster::getSlot);
+                for (RedisCommand part : split != null ? split : Collections.singletonList(command)) {
+                    routed.computeIfAbsent(getCommandNode(part), node -> new ArrayList<>()).add(new RoutedCommand(part, true, 0));
+                }
+            }
+            for (Map.Entry<RedisConnectionPool, List<RedisCommand>> node : routed.entrySet()) {
+                node.getKey().sendCommand(node.getValue());
+            }
+        }
+    }
+
+    /**
+     * The number of nodes with at least one open connection.
+     *
+     * @return - The number of connected nodes.
+     */
+    @Override
+    public int size() {
+        int connected = 0;
+        for (RedisConnectionPool node : nodes.values()) {
+            if (node.size() > 0) {
+                connected++;
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * The cluster slot of a key, which is the CRC16 of the key modulo 16384.  If the key contains a
+     * non-empty hash tag between <code>{</code> and <code>}</code> only the hash tag is hashed, so keys with
+     * the same hash tag share a slot.
+     *
+     * @param key - The key as a String, byte[] or Buffer.
+     * @return - The slot of the key.
+     */
+    public static int getSlot(Object key) {
+        byte[] bytes = getHashedKey(key);
+        return crc16(bytes, 0, bytes.length) & (SLOTS - 1);
+    }
+
+    /**
+     * The bytes of the key which decide where it is stored, which are the non-empty hash tag between the first
+     * <code>{</code> and the next <code>}</code> if there is one, or else the whole key.
+     *
+     * @param key - The key as a String, byte[] or Buffer.
+     * @return - The bytes to hash.
+     */
+    static byte[] getHashedKey(Object key) {
+        byte[] bytes;
+        if (key instanceof byte[]) {
+            bytes = (byte[]) key;
+        } else if (key instanceof Buffer) {
+            bytes = ((Buffer) key).getBytes();
+        } else {
+            bytes = key.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '{') {
+                for (int j = i + 1; j < bytes.length; j++) {
+                    if (bytes[j] == '}') {
+                        return j > i + 1 ? Arrays.copyOfRange(bytes, i + 1, j) : bytes;
+                    }
+                }
+                return bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * The node which serves the slot, or the seed node if the slot is not in the slot map.
+     *
+     * @param slot - The cluster slot.
+     * @return - The pool of the node.
+     */
+    RedisConnectionPool getSlotNode(int slot) {
+        RedisConnectionPool node = slots[slot];
+        return node != null ? node : getDefaultNode();
+    }
+
+    /**
+     * Replaces the slot map with the reply to CLUSTER SLOTS.  Each entry of the reply is the first and last
+     * slot of a range followed by the host and port of the primary and then of each replica.  Nodes which no
+     * longer serve any slot are closed, except for the seed node.
+     *
+     * @param ranges - The CLUSTER SLOTS reply.
+     */
+    void updateSlots(List<?> ranges) {
+        RedisConnectionPool[] updated = new RedisConnectionPool[SLOTS];
+        Set<String> serving = new HashSet<>();
+        for (Object range : ranges) {
+            List<?> entry = (List<?>) range;
+            int first = ((Number) entry.get(0)).intValue();
+            int last = ((Number) entry.get(1)).intValue();
+            List<?> primary = (List<?>) entry.get(2);
+            String host = toString(primary.get(0));
+            String address = (host.isEmpty() ? config.getHost() : host) + ":" + ((Number) primary.get(1)).intValue();
+
+            serving.add(address);
+            RedisConnectionPool node = getNode(address);
+            for (int slot = first; slot <= last && slot < SLOTS; slot++) {
+                updated[slot] = node;
+            }
+        }
+        System.arraycopy(updated, 0, slots, 0, SLOTS);
+
+        for (String address : new ArrayList<>(nodes.keySet())) {
+            if (!serving.contains(address) && !seedAddress.equals(address)) {
+                closeNode(address);
+            }
+        }
+        log.info("updateSlots", "slotMapLoaded", new String[]{"eventBusAddress", "nodes"}, config.getEventBusAddress(), serving.size());
+    }
+
+    /**
+     * Reloads the slot map from a connected node unless a reload is already in progress.  A failed reload is
+     * retried after the retry interval.
+     */
+    void refresh() {
+        if (refreshing || closed) {
+            return;
+        }
+        refreshing = true;
+
+        RedisCommand command = new RedisCommand(RedisCommandType.CLUSTER_SLOTS, null);
+        Future<RedisReply> response = Future.future();
+        response.setHandler(result -> {
+            refreshing = false;
+            if (result.succeeded() && !result.result().isError() && result.result().getValue() instanceof List) {
+                updateSlots((List<?>) result.result().getValue());
+                registerConsumer();
+            } else if (!closed) {
+                log.warn("refresh", "failure", new String[]{"reason"},
+                        result.failed() ? result.cause().getMessage() : result.result().getValue());
+                vertx.setTimer(config.getRetryInterval(), id -> refresh());
+            }
+        });
+        command.replyResponse(response);
+        getDefaultNode().sendCommand(Arrays.<RedisCommand>asList(command));
+    }
+
+    private void registerConsumer() {
+        if (consumer != null || registering || closed) {
+            return;
+        }
+
+        for (RedisConnectionPool node : slots) {
+            if (node != null && node.size() == 0) {
+                registering = true;
+                vertx.setTimer(config.getRetryInterval(), id -> {
+                    registering = false;
+                    registerConsumer();
+                });
+                return;
+            }
+        }
+
+        log.trace("registerConsumer", "registerConsumer", new String[]{"eventBusAddress"}, config.getEventBusAddress());
+        consumer = vertx.eventBus().consumer(config.getEventBusAddress(), this);
+    }
+
+    private RedisConnectionPool getCommandNode(RedisCommand command) {
+        Object key = command.getKey();
+        return key != null ? getSlotNode(getSlot(key)) : getDefaultNode();
+    }
+
+    private RedisConnectionPool getDefaultNode() {
+        RedisConnectionPool seed = getNode(seedAddress);
+        if (seed.size() == 0) {
+            for (RedisConnectionPool node : nodes.values()) {
+                if (node.size() > 0) {
+                    return node;
+                }
+            }
+        }
+        return seed;
+    }
+
+    private RedisConnectionPool getNode(String address) {
+        RedisConnectionPool node = nodes.get(address);
+        if (node == null) {
+            log.info("getNode", "connectNode", new String[]{"eventBusAddress", "node"}, config.getEventBusAddress(), address);
+            int separator = address.lastIndexOf(':');
+            String host = address.substring(0, separator);
+            int port = Integer.parseInt(address.substring(separator + 1));
+
+            node = new RedisConnectionPool(vertx, null);
+            node.connect(config, netClient, host, port);
+            nodes.put(address, node);
+        }
+        return node;
+    }
+
+    private void closeNode(String address) {
+        log.info("closeNode", "closeNode", new String[]{"eventBusAddress", "node"}, config.getEventBusAddress(), address);
+        nodes.remove(address).close();
+    }
+
+    private void redirect(RoutedCommand command, String error) {
+        // The error is either "MOVED <slot> <host>:<port>" or "ASK <slot> <host>:<port>".
+        String[] parts = error.split(" ");
+        RedisConnectionPool node = getNode(parts[2]);
+        RoutedCommand redirected = new RoutedCommand(command.original, true, command.redirects + 1);
+        if (parts[0].equals("MOVED")) {
+            slots[Integer.parseInt(parts[1])] = node;
+            node.sendCommand(Arrays.<RedisCommand>asList(redirected));
+        } else {
+            RedisCommand asking = new RedisCommand(RedisCommandType.ASKING, null);
+            asking.commandResponse(Future.<JsonObject>future());
+            node.sendCommand(Arrays.asList(asking, redirected));
+        }
+        refresh();
+    }
+
+    private static boolean isTransaction(List<RedisCommand> commands) {
+        for (RedisCommand command : commands) {
+            if (command.getType() == RedisCommandType.MULTI) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRedirect(RedisReply reply) {
+        if (!reply.isError() || !(reply.getValue() instanceof String)) {
+            return false;
+        }
+        String error = (String) reply.getValue();
+        return error.startsWith("MOVED ") || error.startsWith("ASK ");
+    }
+
+    private static String toString(Object value) {
+        return value instanceof Buffer ? ((Buffer) value).toString(StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    private static int crc16(byte[] bytes, int start, int end) {
+        // CRC16-CCITT (XModem) as used by Redis Cluster.
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc ^= (bytes[i] & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+
+    /**
+     * A copy of a command sent to a node, which passes the reply on to the original command unless it is a
+     * redirect to another node.
+     */
+    private final class RoutedCommand extends RedisCommand {
+        private final RedisCommand original;
+        private final boolean redirect;
+        private final int redirects;
+
+        RoutedCommand(RedisCommand original, boolean redirect, int redirects) {
+            super(original.getType(), original.getArgumentValues());
+            this.original = original;
+            this.redirect = redirect;
+            this.redirects = redirects;
+        }
+
+        @Override
+        protected void setReply(RedisReply reply) {
+            if (isRedirect(reply)) {
+                if (redirect && redirects < MAXIMUM_REDIRECTS) {
+                    redirect(this, (String) reply.getValue());
+                    return;
+                }
+                refresh();
+            }
+            original.setReply(reply);
+        }
+
+        @Override
+        protected void setResponse(JsonObject response) {
+            if (!"success".equals(response.getString("status"))) {
+                refresh();
+            }
+            original.setResponse(response);
+        }
+    }
+}
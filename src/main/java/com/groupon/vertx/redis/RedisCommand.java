@@ -15,10 +15,12 @@
  */
 package com.groupon.vertx.redis;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
@@ -33,8 +35,9 @@ import com.groupon.vertx.utils.Logger;
 public class RedisCommand {
     private static final Logger log = Logger.getLogger(RedisCommand.class);
     private RedisCommandType type = null;
-    private List<String> arguments = new ArrayList<>();
+    private List<Object> arguments = new ArrayList<>();
     private Future<JsonObject> commandResponse = null;
+    private Future<RedisReply> replyResponse = null;
     private Future<JsonObject> clientCommandResponse = null;
 
     /**
@@ -47,12 +50,14 @@ public class RedisCommand {
      * }
      * </code>
      * <br>
-     * Then an exception will be thrown.
+     * Then an exception will be thrown.  Binary arguments are sent Base64 encoded with their positions
+     * listed in an optional 'binaryArguments' array.  An exception is also thrown if a position isn't an
+     * integer within the arguments or the argument at it isn't Base64.
      *
      * @param commandJson - The command to be created.
      */
     public RedisCommand(JsonObject commandJson) {
-        if (commandJson == null || commandJson.size() != 2) {
+        if (commandJson == null || commandJson.size() != (commandJson.containsKey("binaryArguments") ? 3 : 2)) {
             log.warn("initRedisCommand", "failure", new String[]{"reason"}, "Invalid command format");
             throw new IllegalArgumentException("Invalid command format");
         }
@@ -69,7 +74,7 @@ public class RedisCommand {
             if (objectArguments instanceof JsonArray) {
                 for (Object arg : (JsonArray) objectArguments) {
                     if (arg instanceof String) {
-                        arguments.add((String) arg);
+                        arguments.add(arg);
                     } else {
                         arguments.add(arg.toString());
                     }
@@ -78,9 +83,53 @@ public class RedisCommand {
                 arguments.add(objectArguments.toString());
             }
         }
+
+        Object binaryArguments = commandJson.getValue("binaryArguments");
+        if (binaryArguments != null) {
+            setBinaryArguments(binaryArguments, objectArguments);
+        }
     }
 
-    public RedisCommand(RedisCommandType type, List<String> arguments) {
+    private void setBinaryArguments(Object binaryArguments, Object objectArguments) {
+        if (!(binaryArguments instanceof JsonArray) || !(objectArguments instanceof JsonArray)) {
+            throw invalidBinaryArguments();
+        }
+
+        for (Object index : (JsonArray) binaryArguments) {
+            if (!(index instanceof Integer || index instanceof Long) || ((Number) index).longValue() < 0
+                    || ((Number) index).longValue() >= arguments.size()) {
+                throw invalidBinaryArguments();
+            }
+
+            int position = ((Number) index).intValue();
+            byte[] value;
+            try {
+                value = ((JsonArray) objectArguments).getBinary(position);
+            } catch (ClassCastException | IllegalArgumentException ex) {
+                throw invalidBinaryArguments();
+            }
+            if (value == null) {
+                throw invalidBinaryArguments();
+            }
+            arguments.set(position, value);
+        }
+    }
+
+    private static IllegalArgumentException invalidBinaryArguments() {
+        log.warn("initRedisCommand", "failure", new String[]{"reason"}, "Invalid binary arguments");
+        return new IllegalArgumentException("Invalid binary arguments");
+    }
+
+    /**
+     * Creates a command with the given arguments.  Each argument must be a String, a byte[] or a Buffer.
+     * Binary arguments are written to the socket as they are without any charset conversion.  A List of
+     * Strings is accepted as before.
+     *
+     * @param type - The type of the command.
+     * @param arguments - The list of arguments, which may be null.
+     */
+    @SuppressWarnings("unchecked")
+    public RedisCommand(RedisCommandType type, List<?> arguments) {
         if (type == null) {
             log.warn("initRedisCommand", "failure", new String[]{"reason"}, "Invalid command");
             throw new IllegalArgumentException("Invalid command");
@@ -89,7 +138,7 @@ public class RedisCommand {
         this.type = type;
 
         if (arguments != null) {
-            this.arguments = arguments;
+            this.arguments = (List<Object>) arguments;
         }
     }
 
@@ -112,15 +161,102 @@ public class RedisCommand {
     }
 
     /**
-     * The list of arguments for the command.  If no arguments are provided it will
-     * return an empty list.
+     * The list of arguments for the command as Strings.  If no arguments are provided it will
+     * return an empty list.  Binary arguments are decoded as UTF-8 into a copy of the list.
      *
      * @return - An List of arguments.
+     * @deprecated Binary arguments don't survive the decoding, use {@link #getArgumentValues()} instead.
      */
+    @Deprecated
+    @SuppressWarnings("unchecked")
     public List<String> getArguments() {
+        for (Object argument : arguments) {
+            if (!(argument instanceof String)) {
+                List<String> text = new ArrayList<>(arguments.size());
+                for (Object value : arguments) {
+                    text.add(toText(value));
+                }
+                return text;
+            }
+        }
+        return (List<String>) (List<?>) arguments;
+    }
+
+    /**
+     * The list of arguments for the command.  If no arguments are provided it will
+     * return an empty list.  Each argument is a String, a byte[] or a Buffer.
+     *
+     * @return - An List of arguments.
+     * @since 3.2.0
+     */
+    public List<Object> getArgumentValues() {
         return arguments;
     }
 
+    /**
+     * The first key of the command, which decides the cluster slot or the shard the command is sent to.
+     *
+     * @return - The key, or null if the command has no key.
+     */
+    public Object getKey() {
+        int index = type.getKeyIndex();
+        return index >= 0 && index < arguments.size() ? arguments.get(index) : null;
+    }
+
+    /**
+     * Every key of the command, in the order of the arguments.  This includes the destination of commands
+     * such as RENAME, SMOVE and SINTERSTORE, the STORE destination of SORT, and each key of the multi-key
+     * commands.
+     *
+     * @return - The keys, which are empty if the command has no key.
+     */
+    List<Object> getKeys() {
+        int size = arguments.size();
+        switch (type) {
+            case DEL:
+            case EXISTS:
+            case MGET:
+            case RENAME:
+            case RENAMENX:
+            case RPOPLPUSH:
+            case SDIFF:
+            case SDIFFSTORE:
+            case SINTER:
+            case SINTERSTORE:
+            case SUNION:
+            case SUNIONSTORE:
+                return arguments;
+            case MSET:
+            case MSETNX:
+                List<Object> pairs = new ArrayList<>(size / 2);
+                for (int i = 0; i < size; i += 2) {
+                    pairs.add(arguments.get(i));
+                }
+                return pairs;
+            case BITOP:
+                return size > 1 ? arguments.subList(1, size) : new ArrayList<>();
+            case BLPOP:
+            case BRPOP:
+                return size > 1 ? arguments.subList(0, size - 1) : new ArrayList<>();
+            case BRPOPLPUSH:
+            case SMOVE:
+                return arguments.subList(0, Math.min(2, size));
+            case ZINTERSTORE:
+            case ZUNIONSTORE:
+                return getStoreKeys();
+            case SORT:
+            case SORT_WITH_STORE:
+                return getSortKeys();
+            default:
+                Object key = getKey();
+                List<Object> keys = new ArrayList<>(1);
+                if (key != null) {
+                    keys.add(key);
+                }
+                return keys;
+        }
+    }
+
     /**
      * This specifies the type of reply we expect from the Redis server.  We store the
      * possible results in the RedisResponseType enum.
@@ -131,6 +267,53 @@ public class RedisCommand {
         return type.getResponseType();
     }
 
+    /**
+     * The destination and source keys of ZINTERSTORE and ZUNIONSTORE, which are followed by the number of
+     * source keys.  If the number can't be read every argument after it is treated as a key.
+     */
+    private List<Object> getStoreKeys() {
+        List<Object> keys = new ArrayList<>();
+        if (arguments.isEmpty()) {
+            return keys;
+        }
+
+        keys.add(arguments.get(0));
+        int end = arguments.size();
+        if (end > 1) {
+            try {
+                end = Math.min(end, 2 + Integer.parseInt(toText(arguments.get(1))));
+            } catch (NumberFormatException ex) {
+                log.warn("getStoreKeys", "invalidNumKeys", new String[]{"numKeys"}, arguments.get(1));
+            }
+        }
+        for (int i = 2; i < end; i++) {
+            keys.add(arguments.get(i));
+        }
+        return keys;
+    }
+
+    /**
+     * The key of SORT, followed by the destination following a STORE argument.
+     */
+    private List<Object> getSortKeys() {
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i == 0 || "STORE".equalsIgnoreCase(toText(arguments.get(i - 1)))) {
+                keys.add(arguments.get(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String toText(Object argument) {
+        if (argument instanceof byte[]) {
+            return new String((byte[]) argument, StandardCharsets.UTF_8);
+        } else if (argument instanceof Buffer) {
+            return ((Buffer) argument).toString(StandardCharsets.UTF_8);
+        }
+        return String.valueOf(argument);
+    }
+
     /**
      * Renders the command into a JsonObject for transport across the event bus.
      *
@@ -141,11 +324,24 @@ public class RedisCommand {
         jsonObject.put("command", type.getCommand());
 
         JsonArray arrayArgs = new JsonArray();
-        for (String arg : arguments) {
-            arrayArgs.add(arg);
+        JsonArray binaryArgs = null;
+        for (Object arg : arguments) {
+            if (arg instanceof Buffer || arg instanceof byte[]) {
+                if (binaryArgs == null) {
+                    binaryArgs = new JsonArray();
+                }
+                binaryArgs.add(arrayArgs.size());
+                arrayArgs.add(arg instanceof Buffer ? ((Buffer) arg).getBytes() : (byte[]) arg);
+            } else {
+                arrayArgs.add(arg.toString());
+            }
         }
         jsonObject.put("arguments", arrayArgs);
 
+        if (binaryArgs != null) {
+            jsonObject.put("binaryArguments", binaryArgs);
+        }
+
         return jsonObject;
     }
 
@@ -168,11 +364,38 @@ public class RedisCommand {
     protected void setResponse(JsonObject response) {
         if (commandResponse != null) {
             commandResponse.complete(response);
+        } else if (replyResponse != null) {
+            replyResponse.fail(new RedisCommandException(response.encode()));
         } else {
             log.warn("setResponse", "missingHandler", new String[]{"commandType"}, type.name());
         }
     }
 
+    /**
+     * Calling this method will complete the reply future if one was provided, otherwise the
+     * reply is rendered into a JsonObject and passed to the response handler.
+     *
+     * @param reply - The Redis reply for this command.
+     */
+    protected void setReply(RedisReply reply) {
+        if (replyResponse != null) {
+            replyResponse.complete(reply);
+        } else {
+            setResponse(reply.toJson());
+        }
+    }
+
+    /**
+     * This future will be completed with the reply as it was read from Redis, with bulk values
+     * delivered as Buffers instead of Strings.  When it is provided the JsonObject response is
+     * not built, and failures such as the socket closing fail the future.
+     *
+     * @param pReplyResponse - A future for the Redis reply.
+     */
+    public void replyResponse(Future<RedisReply> pReplyResponse) {
+        this.replyResponse = pReplyResponse;
+    }
+
     /**
      * This handler will be executed when the response has been received from Redis.
      *
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.List;
+
+/**
+ * A list of commands sent across the event bus with <code>RedisCommandBatchCodec</code> instead of as a
+ * JsonObject.  Within a Vert.x instance the batch is passed by reference, so the commands must not be
+ * changed by the sender once it has been sent.
+ *
+ * @since 3.2.0
+ */
+public final class RedisCommandBatch {
+    private final List<RedisCommand> commands;
+    private final boolean transaction;
+
+    public RedisCommandBatch(List<RedisCommand> commands, boolean transaction) {
+        this.commands = commands;
+        this.transaction = transaction;
+    }
+
+    public List<RedisCommand> getCommands() {
+        return commands;
+    }
+
+    /**
+     * True if the commands should be wrapped in MULTI and EXEC.
+     *
+     * @return - If the batch is a transaction.
+     */
+    public boolean isTransaction() {
+        return transaction;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Codec for sending a <code>RedisCommandBatch</code> across the event bus.  Local messages are passed by
+ * reference.  Clustered messages use a compact binary format:
+ * <br>
+ * <code>
+ * transaction      - byte, 1 for a transaction
+ * command count    - int
+ * for each command:
+ *   type           - byte length followed by the ASCII name of the RedisCommandType
+ *   argument count - int
+ *   for each argument:
+ *     kind         - byte, 0 for a String and 1 for binary data
+ *     value        - int length followed by the bytes, Strings are UTF-8 encoded
+ * </code>
+ *
+ * @since 3.2.0
+ */
+public class RedisCommandBatchCodec implements MessageCodec<RedisCommandBatch, RedisCommandBatch> {
+    public static final String CODEC_NAME = "redisCommandBatch";
+    private static final Charset ENCODING = Charset.forName("UTF-8");
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final byte STRING_ARGUMENT = 0;
+    private static final byte BINARY_ARGUMENT = 1;
+
+    @Override
+    public void encodeToWire(Buffer buffer, RedisCommandBatch batch) {
+        buffer.appendByte(batch.isTransaction() ? (byte) 1 : (byte) 0);
+        buffer.appendInt(batch.getCommands().size());
+
+        for (RedisCommand command : batch.getCommands()) {
+            byte[] name = command.getType().name().getBytes(ASCII);
+            buffer.appendByte((byte) name.length);
+            buffer.appendBytes(name);
+
+            List<Object> arguments = command.getArgumentValues();
+            buffer.appendInt(arguments.size());
+            for (Object arg : arguments) {
+                if (arg instanceof Buffer) {
+                    buffer.appendByte(BINARY_ARGUMENT);
+                    buffer.appendInt(((Buffer) arg).length());
+                    buffer.appendBuffer((Buffer) arg);
+                } else if (arg instanceof byte[]) {
+                    buffer.appendByte(BINARY_ARGUMENT);
+                    buffer.appendInt(((byte[]) arg).length);
+                    buffer.appendBytes((byte[]) arg);
+                } else {
+                    byte[] value = arg.toString().getBytes(ENCODING);
+                    buffer.appendByte(STRING_ARGUMENT);
+                    buffer.appendInt(value.length);
+                    buffer.appendBytes(value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public RedisCommandBatch decodeFromWire(int pos, Buffer buffer) {
+        int position = pos;
+        boolean transaction = buffer.getByte(position++) == 1;
+        int commandCount = buffer.getInt(position);
+        position += 4;
+
+        List<RedisCommand> commands = new ArrayList<>(commandCount);
+        for (int i = 0; i < commandCount; i++) {
+            int nameLength = buffer.getByte(position++);
+            RedisCommandType type = RedisCommandType.valueOf(buffer.getString(position, position + nameLength, ASCII.name()));
+            position += nameLength;
+
+            int argumentCount = buffer.getInt(position);
+            position += 4;
+
+            List<Object> arguments = new ArrayList<>(argumentCount);
+            for (int j = 0; j < argumentCount; j++) {
+                byte kind = buffer.getByte(position++);
+                int length = buffer.getInt(position);
+                position += 4;
+
+                if (kind == BINARY_ARGUMENT) {
+                    arguments.add(buffer.getBuffer(position, position + length));
+                } else {
+                    arguments.add(buffer.getString(position, position + length, ENCODING.name()));
+                }
+                position += length;
+            }
+
+            commands.add(new RedisCommand(type, arguments));
+        }
+
+        return new RedisCommandBatch(commands, transaction);
+    }
+
+    @Override
+    public RedisCommandBatch transform(RedisCommandBatch batch) {
+        return batch;
+    }
+
+    @Override
+    public String name() {
+        return CODEC_NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -17,6 +17,10 @@ package com.groupon.vertx.redis;
 
 /**
  * Interface for redis commands (supports transaction mode).
+ * <br>
+ * The views added after <code>multi</code> are default methods, so implementations written against earlier
+ * versions still compile.  They throw an <code>UnsupportedOperationException</code> unless overridden, as
+ * they are by <code>RedisClient</code> and <code>RedisDirectClient</code>.
  *
  * @author Namrata Lele (nlele at groupon dot com)
  * @since 1.0.0
@@ -28,4 +32,44 @@ public interface RedisCommandClient extends RedisBaseCommandClient {
      * @return A RedisCommandTransaction
      */
     RedisCommandTransaction multi();
+
+    /**
+     * Starts a pipeline, which sends several commands together without a transaction.
+     *
+     * @return A RedisCommandPipeline
+     */
+    default RedisCommandPipeline pipeline() {
+        throw new UnsupportedOperationException("pipeline");
+    }
+
+    /**
+     * A view of this client which sends a read-only command only once while an identical command is waiting
+     * for its reply.  Later callers are completed with a copy of the same response.  The view is shared by
+     * all callers of this client and must only be used from one context.
+     *
+     * @return A RedisBaseCommandClient
+     */
+    default RedisBaseCommandClient singleFlight() {
+        throw new UnsupportedOperationException("singleFlight");
+    }
+
+    /**
+     * A view of this client which serves single key reads from the near cache.  Writes sent through the view
+     * invalidate the cached responses for their keys.
+     *
+     * @param cache - The cache, which may be shared with other views.
+     * @return A RedisBaseCommandClient
+     */
+    default RedisBaseCommandClient nearCache(RedisNearCache cache) {
+        throw new UnsupportedOperationException("nearCache");
+    }
+
+    /**
+     * A view of this client whose futures are completed with the decoded replies instead of JsonObjects.
+     *
+     * @return A RedisTypedCommandClient
+     */
+    default RedisTypedCommandClient typed() {
+        throw new UnsupportedOperationException("typed");
+    }
 }
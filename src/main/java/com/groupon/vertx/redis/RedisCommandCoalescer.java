@@ -0,0 +1,131 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Rewrites the GET commands in a batch into a single MGET, and the HGET commands for the same hash into a
+ * single HMGET.  The client responses of the original commands are completed from the multi-bulk response
+ * of the command which replaced them.
+ * <br>
+ * Only reads which are not separated by any other command are merged, so a read never moves across a write
+ * it was batched with.  Unlike GET, MGET returns nil instead of an error for a key holding a value of the
+ * wrong type.  A value the MGET could not read, such as one on a failed cluster node, fails only the GET of
+ * that key.
+ *
+ * @since 3.2.0
+ */
+final class RedisCommandCoalescer {
+    private RedisCommandCoalescer() { }
+
+    /**
+     * Coalesces the reads in the commands.  Every command must have a client command response.
+     *
+     * @param commands - The batched commands in the order they were issued.
+     * @return - The commands to send, which is the original list if nothing was merged.
+     */
+    static List<RedisCommand> coalesce(List<RedisCommand> commands) {
+        List<RedisCommand> coalesced = new ArrayList<>(commands.size());
+        List<RedisCommand> gets = new ArrayList<>();
+        Map<Object, List<RedisCommand>> hgets = new LinkedHashMap<>();
+        boolean merged = false;
+
+        for (RedisCommand command : commands) {
+            List<Object> arguments = command.getArgumentValues();
+            if (command.getType() == RedisCommandType.GET && arguments.size() == 1) {
+                gets.add(command);
+            } else if (command.getType() == RedisCommandType.HGET && arguments.size() == 2) {
+                hgets.computeIfAbsent(arguments.get(0), key -> new ArrayList<>()).add(command);
+            } else {
+                merged |= flushReads(coalesced, gets, hgets);
+                coalesced.add(command);
+            }
+        }
+        merged |= flushReads(coalesced, gets, hgets);
+
+        return merged ? coalesced : commands;
+    }
+
+    private static boolean flushReads(List<RedisCommand> coalesced, List<RedisCommand> gets, Map<Object, List<RedisCommand>> hgets) {
+        boolean merged = false;
+        if (gets.size() > 1) {
+            List<Object> keys = new ArrayList<>(gets.size());
+            for (RedisCommand get : gets) {
+                keys.add(get.getArgumentValues().get(0));
+            }
+            coalesced.add(merge(RedisCommandType.MGET, keys, new ArrayList<>(gets)));
+            merged = true;
+        } else {
+            coalesced.addAll(gets);
+        }
+
+        for (Map.Entry<Object, List<RedisCommand>> hash : hgets.entrySet()) {
+            List<RedisCommand> fieldGets = hash.getValue();
+            if (fieldGets.size() > 1) {
+                List<Object> arguments = new ArrayList<>(fieldGets.size() + 1);
+                arguments.add(hash.getKey());
+                for (RedisCommand hget : fieldGets) {
+                    arguments.add(hget.getArgumentValues().get(1));
+                }
+                coalesced.add(merge(RedisCommandType.HMGET, arguments, fieldGets));
+                merged = true;
+            } else {
+                coalesced.addAll(fieldGets);
+            }
+        }
+
+        gets.clear();
+        hgets.clear();
+        return merged;
+    }
+
+    private static RedisCommand merge(RedisCommandType type, List<Object> arguments, final List<RedisCommand> originals) {
+        RedisCommand command = new RedisCommand(type, arguments);
+        final Future<JsonObject> response = Future.future();
+        response.setHandler(result -> {
+            if (result.failed()) {
+                for (RedisCommand original : originals) {
+                    original.getClientCommandResponse().tryFail(result.cause());
+                }
+                return;
+            }
+
+            JsonObject json = result.result();
+            Object data = json != null ? json.getValue("data") : null;
+            boolean split = "success".equals(json != null ? json.getString("status") : null)
+                    && data instanceof JsonArray && ((JsonArray) data).size() == originals.size();
+            for (int i = 0; i < originals.size(); i++) {
+                JsonObject originalResponse = json;
+                if (split) {
+                    Object value = ((JsonArray) data).getValue(i);
+                    originalResponse = value instanceof JsonObject ? (JsonObject) value
+                            : new JsonObject().put("status", "success").put("data", value);
+                }
+                originals.get(i).getClientCommandResponse().tryComplete(originalResponse);
+            }
+        });
+        command.setClientCommandResponse(response);
+        return command;
+    }
+}
@@ -15,13 +15,17 @@
  */
 package com.groupon.vertx.redis;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetSocket;
@@ -37,7 +41,12 @@ import com.groupon.vertx.utils.Logger;
  */
 public class RedisCommandHandler implements Handler<Message<JsonObject>> {
     private static final Logger log = Logger.getLogger(RedisCommandHandler.class);
+    private static final DeliveryOptions REPLY_OPTIONS = new DeliveryOptions().setCodecName(RedisReplyCodec.CODEC_NAME);
+    private static final DeliveryOptions BATCH_REPLY_OPTIONS = new DeliveryOptions().setCodecName(RedisBatchReplyCodec.CODEC_NAME);
     private final RedisSocket socket;
+    private final RedisCommandSender sender;
+    private final Vertx vertx;
+    private final RedisConfig config;
 
     /**
      * This handler listens for messages and sends commands to the Redis server.  The response
@@ -74,11 +83,59 @@ public class RedisCommandHandler implements Handler<Message<JsonObject>> {
      * @param socket - The NetSocket which is currently connected to the Redis server.
      */
     public RedisCommandHandler(NetSocket socket) {
-        this.socket = new RedisSocket(socket);
+        this(new RedisSocket(socket), null, null);
     }
 
     /**
-     * This handles the incoming Redis command JSON.
+     * Creates a handler which writes commands using the flush settings from the Redis config.  When the
+     * config uses RESP3 and a tracking mode, the invalidations pushed to the connection are published on
+     * the invalidation address, and every key is invalidated once the connection is finished.
+     *
+     * @param socket - The NetSocket which is currently connected to the Redis server.
+     * @param vertx - The Vertx instance used to schedule writes.
+     * @param config - The Redis config.
+     */
+    public RedisCommandHandler(NetSocket socket, Vertx vertx, RedisConfig config) {
+        this(new RedisSocket(socket, vertx, config), vertx, config);
+        if (isTrackingPushed()) {
+            this.socket.pushHandler(reply -> RedisInvalidationHandler.handlePush(vertx, config, reply));
+        }
+    }
+
+    /**
+     * Creates a handler which only turns messages into commands and sends them to the sender, such as a
+     * cluster which routes each command to a node.  It has no connection of its own.
+     *
+     * @param sender - The sender for the commands.
+     */
+    RedisCommandHandler(RedisCommandSender sender) {
+        this.socket = null;
+        this.sender = sender;
+        this.vertx = null;
+        this.config = null;
+    }
+
+    private RedisCommandHandler(RedisSocket socket, Vertx vertx, RedisConfig config) {
+        this.socket = socket;
+        this.sender = socket;
+        this.vertx = vertx;
+        this.config = config;
+    }
+
+    /**
+     * This handles the incoming Redis command JSON.  A message with several commands which is not a
+     * transaction is replied to once all of the commands have completed, with the response to each command
+     * in the order of the commands:
+     * <br>
+     * <code>
+     * {
+     *   'status': 'success',
+     *   'data': [
+     *     { 'status': 'success', 'data': 'somevalue' },
+     *     { 'status': 'error', 'message': 'A server error occured' }
+     *   ]
+     * }
+     * </code>
      *
      * @param command - The JsonObject containing the commands to send to Redis.
      */
@@ -107,22 +164,99 @@ public class RedisCommandHandler implements Handler<Message<JsonObject>> {
                 transactionRedisCommands.addFirst(new RedisCommand(RedisCommandType.MULTI, null));
                 transactionRedisCommands.addLast(new RedisCommand(RedisCommandType.EXEC, null));
                 setCommandResponseHandler(Collections.singletonList(transactionRedisCommands.getLast()), command, isMulti);
+            } else if (transactionRedisCommands.size() > 1) {
+                setBatchResponseHandler(transactionRedisCommands, command);
             } else {
                 setCommandResponseHandler(transactionRedisCommands, command, isMulti);
             }
-            socket.sendCommand(transactionRedisCommands);
+            sender.sendCommand(transactionRedisCommands);
         } else {
             log.warn("handleCommand", "failure", new String[]{"reason"}, "Missing commands");
             command.reply(buildReply("error", null, "Invalid message with no commands"));
         }
     }
 
+    /**
+     * This handles a <code>RedisCommandBatch</code> sent with its codec.  The reply is the
+     * <code>RedisReply</code> sent with <code>RedisReplyCodec</code>, while errors are still replied as
+     * JsonObjects.  A batch of several commands which is not a transaction is replied to once all of the
+     * commands have completed, with a <code>RedisBatchReply</code> containing the reply to each command.
+     *
+     * @param command - The message the batch was received in.
+     * @param batch - The commands to send to Redis.
+     */
+    public void handleBatch(final Message<?> command, RedisCommandBatch batch) {
+        if (batch.getCommands() == null || batch.getCommands().isEmpty()) {
+            log.warn("handleCommand", "failure", new String[]{"reason"}, "Missing commands");
+            command.reply(buildReply("error", null, "Invalid message with no commands"));
+            return;
+        }
+
+        LinkedList<RedisCommand> redisCommands = new LinkedList<>(batch.getCommands());
+        if (batch.isTransaction()) {
+            redisCommands.addFirst(new RedisCommand(RedisCommandType.MULTI, null));
+            redisCommands.addLast(new RedisCommand(RedisCommandType.EXEC, null));
+            setReplyHandler(Collections.singletonList(redisCommands.getLast()), command);
+        } else if (redisCommands.size() > 1) {
+            setBatchReplyHandler(redisCommands, command);
+        } else {
+            setReplyHandler(redisCommands, command);
+        }
+        sender.sendCommand(redisCommands);
+    }
+
+    /**
+     * Sends the commands directly to the socket, bypassing the event bus message format.
+     *
+     * @param commands - The list of Redis commands.
+     */
+    public void sendCommand(List<RedisCommand> commands) {
+        sender.sendCommand(commands);
+    }
+
+    /**
+     * The number of commands sent on this connection which are waiting for a reply.
+     *
+     * @return - The number of pending commands.
+     */
+    public int getPendingCommands() {
+        return socket.getPendingCommands();
+    }
+
+    /**
+     * True if the socket write queue is full.
+     *
+     * @return - If the write queue is full.
+     */
+    public boolean writeQueueFull() {
+        return socket.writeQueueFull();
+    }
+
+    /**
+     * Sets the handlers called when the socket write queue becomes full and once it has drained.
+     *
+     * @param fullHandler - The handler called when the write queue is full.
+     * @param drainHandler - The handler called when the write queue has drained.
+     */
+    public void writeQueueHandlers(Handler<Void> fullHandler, Handler<Void> drainHandler) {
+        socket.writeQueueFullHandler(fullHandler);
+        socket.drainHandler(drainHandler);
+    }
+
     public void finish() {
         try {
             socket.close();
         } catch (Exception ex) {
             log.error("reset", "exception", "closingSocket", ex);
         }
+
+        if (isTrackingPushed()) {
+            RedisInvalidationHandler.publish(vertx, config, null);
+        }
+    }
+
+    private boolean isTrackingPushed() {
+        return config != null && config.isResp3() && config.getTrackingMode() != null;
     }
 
     private JsonObject buildReply(String status, JsonObject data, String message) {
@@ -151,6 +285,72 @@ public class RedisCommandHandler implements Handler<Message<JsonObject>> {
         return redisCommand;
     }
 
+    private void setReplyHandler(final List<RedisCommand> redisCommands, final Message<?> command) {
+        for (final RedisCommand redisCommand : redisCommands) {
+            final Future<RedisReply> finalResult = Future.future();
+            finalResult.setHandler(reply -> {
+                if (reply.succeeded()) {
+                    command.reply(reply.result(), REPLY_OPTIONS);
+                } else {
+                    command.reply(buildErrorReply(reply.cause()));
+                }
+            });
+            redisCommand.replyResponse(finalResult);
+        }
+    }
+
+    private void setBatchReplyHandler(final List<RedisCommand> redisCommands, final Message<?> command) {
+        final Object[] replies = new Object[redisCommands.size()];
+        final int[] remaining = new int[]{replies.length};
+        for (int i = 0; i < replies.length; i++) {
+            final int index = i;
+            final Future<RedisReply> finalResult = Future.future();
+            finalResult.setHandler(reply -> {
+                replies[index] = reply.succeeded() ? reply.result() : buildErrorReply(reply.cause());
+                if (--remaining[0] == 0) {
+                    command.reply(new RedisBatchReply(Arrays.asList(replies)), BATCH_REPLY_OPTIONS);
+                }
+            });
+            redisCommands.get(i).replyResponse(finalResult);
+        }
+    }
+
+    private JsonObject buildErrorReply(Throwable cause) {
+        // Failures from the socket carry the JSend response as the exception message.
+        if (cause instanceof RedisCommandException) {
+            try {
+                return new JsonObject(cause.getMessage());
+            } catch (DecodeException ex) {
+                log.trace("buildErrorReply", "notJson", new String[]{"message"}, cause.getMessage());
+            }
+        }
+        return buildReply("error", null, cause != null ? cause.getMessage() : "unknown");
+    }
+
+    private void setBatchResponseHandler(final List<RedisCommand> redisCommands, final Message<JsonObject> command) {
+        final JsonObject[] responses = new JsonObject[redisCommands.size()];
+        final int[] remaining = new int[]{responses.length};
+        for (int i = 0; i < responses.length; i++) {
+            final int index = i;
+            final RedisCommand redisCommand = redisCommands.get(i);
+            final Future<JsonObject> finalResult = Future.future();
+            finalResult.setHandler(commandResponse -> {
+                log.trace("handleCommand", "batchReply", new String[]{"command", "response"}, redisCommand.toString(), commandResponse);
+                if (commandResponse.succeeded()) {
+                    responses[index] = commandResponse.result();
+                } else {
+                    String cause = commandResponse.cause() != null ? commandResponse.cause().getMessage() : "unknown";
+                    responses[index] = buildReply("error", null, cause);
+                }
+
+                if (--remaining[0] == 0) {
+                    command.reply(new JsonObject().put("status", "success").put("data", new JsonArray(Arrays.asList(responses))));
+                }
+            });
+            redisCommand.commandResponse(finalResult);
+        }
+    }
+
     private void setCommandResponseHandler(final List<RedisCommand> redisCommands, final Message<JsonObject> command, final boolean isMulti) {
         for (final RedisCommand redisCommand : redisCommands) {
             final Future<JsonObject> finalResult = Future.future();
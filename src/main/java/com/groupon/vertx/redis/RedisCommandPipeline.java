@@ -0,0 +1,35 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+/**
+ * Interface for redis commands which are buffered and sent together.  The commands are sent to Redis in one
+ * write without MULTI and EXEC, so other clients' commands may run between them, and the future returned by
+ * each command is completed with its own reply.
+ *
+ * @since 3.2.0
+ */
+public interface RedisCommandPipeline extends RedisBaseCommandClient {
+    /**
+     * Sends the buffered commands.  The pipeline may be reused for further commands afterwards.
+     */
+    void flush();
+
+    /**
+     * Discards the buffered commands without sending them.  Their futures are never completed.
+     */
+    void discard();
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.List;
+
+/**
+ * Something which sends commands to Redis, either a single connection or a pool of them.
+ *
+ * @since 3.2.0
+ */
+interface RedisCommandSender {
+    /**
+     * Sends the commands, completing the response of each command once its reply arrives.
+     *
+     * @param commands - The list of Redis commands.
+     */
+    void sendCommand(List<RedisCommand> commands);
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Splits the multi-key commands MGET, MSET, DEL and EXISTS into one command for each group of keys, such as
+ * the keys in one cluster slot, and merges the replies to the split commands into the reply to the original
+ * command.  MGET values are returned in the order of the original keys, while the DEL and EXISTS counts are
+ * added up.
+ * <br>
+ * When some of the split commands fail, the MGET reply holds an ERROR reply in place of each value which
+ * could not be read.  DEL, EXISTS and MSET are replied to with an error naming the keys which failed, and the
+ * writes to the other keys are not undone.
+ * <br>
+ * Commands without a key which apply to every group, such as FLUSHALL, can also be copied to each group.
+ *
+ * @since 3.2.0
+ */
+final class RedisCommandSplitter {
+    private RedisCommandSplitter() { }
+
+    /**
+     * Splits the command by the group of each key.
+     *
+     * @param command - The command to split.
+     * @param group - The function returning the group of a key.
+     * @return - The split commands, or null if the command can't be split or all of its keys are in one group.
+     */
+    static List<RedisCommand> split(RedisCommand command, Function<Object, ?> group) {
+        RedisCommandType type = command.getType();
+        if (type != RedisCommandType.MGET && type != RedisCommandType.MSET && type != RedisCommandType.DEL
+                && type != RedisCommandType.EXISTS) {
+            return null;
+        }
+
+        int step = type == RedisCommandType.MSET ? 2 : 1;
+        List<Object> arguments = command.getArgumentValues();
+        if (arguments.size() <= step) {
+            return null;
+        }
+
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i + step <= arguments.size(); i += step) {
+            groups.computeIfAbsent(group.apply(arguments.get(i)), key -> new ArrayList<>()).add(i);
+        }
+        if (groups.size() == 1) {
+            return null;
+        }
+
+        Gather gather = new Gather(command, arguments.size() / step, groups.size());
+        List<RedisCommand> commands = new ArrayList<>(groups.size());
+        for (List<Integer> positions : groups.values()) {
+            List<Object> splitArguments = new ArrayList<>(positions.size() * step);
+            for (int position : positions) {
+                splitArguments.addAll(arguments.subList(position, position + step));
+            }
+            commands.add(new SplitCommand(type, splitArguments, gather, positions, step));
+        }
+        return commands;
+    }
+
+    /**
+     * Copies a command without a key which must be sent to every group, such as FLUSHALL to every shard.
+     * FLUSHALL and FLUSHDB are replied to with OK once every copy has succeeded, and KEYS with the keys
+     * returned by all of the copies.  If a copy fails the command fails with its error.
+     *
+     * @param command - The command to copy.
+     * @param copies - The number of copies.
+     * @return - The copies.
+     */
+    static List<RedisCommand> broadcast(RedisCommand command, int copies) {
+        Gather gather = new Gather(command, 0, copies);
+        List<RedisCommand> commands = new ArrayList<>(copies);
+        for (int i = 0; i < copies; i++) {
+            commands.add(new SplitCommand(command.getType(), command.getArgumentValues(), gather, Collections.<Integer>emptyList(), 1));
+        }
+        return commands;
+    }
+
+    private static String decodeKey(Object key) {
+        if (key instanceof Buffer) {
+            return ((Buffer) key).toString(StandardCharsets.UTF_8);
+        } else if (key instanceof byte[]) {
+            return new String((byte[]) key, StandardCharsets.UTF_8);
+        }
+        return key.toString();
+    }
+
+    /**
+     * One of the commands the original command was split into, which passes its reply on to the gather.
+     */
+    private static final class SplitCommand extends RedisCommand {
+        private final Gather gather;
+        private final List<Integer> positions;
+        private final int step;
+
+        SplitCommand(RedisCommandType type, List<Object> arguments, Gather gather, List<Integer> positions, int step) {
+            super(type, arguments);
+            this.gather = gather;
+            this.positions = positions;
+            this.step = step;
+        }
+
+        @Override
+        protected void setReply(RedisReply reply) {
+            gather.complete(this, reply);
+        }
+
+        @Override
+        protected void setResponse(JsonObject response) {
+            gather.complete(this, new RedisReply(RedisResponseType.ERROR, response.getString("message", response.encode())));
+        }
+    }
+
+    /**
+     * The replies to the split commands, which replies to the original command once they have all completed.
+     */
+    private static final class Gather {
+        private final RedisCommand original;
+        private final Object[] values;
+        private final List<Object> keys;
+        private final List<String> failedKeys = new ArrayList<>();
+        private String error;
+        private long count;
+        private int remaining;
+
+        Gather(RedisCommand original, int keys, int commands) {
+            this.original = original;
+            this.values = original.getType() == RedisCommandType.MGET ? new Object[keys] : null;
+            this.keys = original.getType() == RedisCommandType.KEYS ? new ArrayList<>() : null;
+            this.remaining = commands;
+        }
+
+        void complete(SplitCommand command, RedisReply reply) {
+            Object value = reply.getValue();
+            if (values != null && !reply.isError() && !(value instanceof List && ((List<?>) value).size() == command.positions.size())) {
+                reply = new RedisReply(RedisResponseType.ERROR, "Unexpected reply: " + reply);
+                value = reply.getValue();
+            }
+
+            if (reply.isError()) {
+                error = String.valueOf(value);
+                for (int position : command.positions) {
+                    failedKeys.add(decodeKey(original.getArgumentValues().get(position)));
+                    if (values != null) {
+                        values[position / command.step] = reply;
+                    }
+                }
+            } else if (values != null) {
+                List<?> splitValues = (List<?>) value;
+                for (int i = 0; i < command.positions.size(); i++) {
+                    values[command.positions.get(i) / command.step] = splitValues.get(i);
+                }
+            } else if (keys != null && value instanceof List) {
+                keys.addAll((List<?>) value);
+            } else if (value instanceof Number) {
+                count += ((Number) value).longValue();
+            }
+
+            if (--remaining == 0) {
+                original.setReply(merge());
+            }
+        }
+
+        private RedisReply merge() {
+            if (values != null) {
+                return new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.asList(values));
+            } else if (error != null && failedKeys.isEmpty()) {
+                return new RedisReply(RedisResponseType.ERROR, error);
+            } else if (error != null) {
+                return new RedisReply(RedisResponseType.ERROR, error + " (failed keys: " + String.join(", ", failedKeys) + ")");
+            } else if (keys != null) {
+                return new RedisReply(RedisResponseType.MULTI_BULK_REPLY, keys);
+            } else if (original.getType() != RedisCommandType.DEL && original.getType() != RedisCommandType.EXISTS) {
+                return new RedisReply(RedisResponseType.STATUS_CODE, "OK");
+            }
+            return new RedisReply(RedisResponseType.INTEGER_REPLY, count);
+        }
+    }
+}
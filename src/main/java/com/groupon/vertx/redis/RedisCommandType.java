@@ -15,6 +15,8 @@
  */
 package com.groupon.vertx.redis;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * List of Redis commands.
  *
@@ -23,68 +25,73 @@ package com.groupon.vertx.redis;
  */
 public enum RedisCommandType {
     APPEND(RedisResponseType.INTEGER_REPLY),
+    ASKING(RedisResponseType.STATUS_CODE),
     AUTH(RedisResponseType.STATUS_CODE),
-    BITCOUNT(RedisResponseType.INTEGER_REPLY),
+    BITCOUNT(RedisResponseType.INTEGER_REPLY, true),
     BITOP(RedisResponseType.INTEGER_REPLY),
     BLPOP(RedisResponseType.MULTI_BULK_REPLY), // Binary
     BRPOP(RedisResponseType.MULTI_BULK_REPLY), // Binary
     BRPOPLPUSH(RedisResponseType.BULK_REPLY), // Binary
+    CLIENT_ID("CLIENT", RedisResponseType.INTEGER_REPLY),
+    CLIENT_TRACKING("CLIENT", RedisResponseType.STATUS_CODE),
+    CLUSTER_SLOTS("CLUSTER", RedisResponseType.MULTI_BULK_REPLY),
     DECR(RedisResponseType.INTEGER_REPLY),
     DECRBY(RedisResponseType.INTEGER_REPLY),
     DEL(RedisResponseType.INTEGER_REPLY),
     DISCARD(RedisResponseType.STATUS_CODE),
-    DUMP(RedisResponseType.BULK_REPLY),
+    DUMP(RedisResponseType.BULK_REPLY, true),
     ECHO(RedisResponseType.BULK_REPLY), // Binary
     EXEC(RedisResponseType.MULTI_BULK_REPLY),
-    EXISTS(RedisResponseType.INTEGER_REPLY),
+    EXISTS(RedisResponseType.INTEGER_REPLY, true),
     EXPIRE(RedisResponseType.INTEGER_REPLY),
     EXPIREAT(RedisResponseType.INTEGER_REPLY),
     FLUSHALL(RedisResponseType.STATUS_CODE),
     FLUSHDB(RedisResponseType.STATUS_CODE),
-    GET(RedisResponseType.BULK_REPLY), // Binary
-    GETBIT(RedisResponseType.INTEGER_REPLY),
-    GETRANGE(RedisResponseType.BULK_REPLY),
+    GET(RedisResponseType.BULK_REPLY, true), // Binary
+    GETBIT(RedisResponseType.INTEGER_REPLY, true),
+    GETRANGE(RedisResponseType.BULK_REPLY, true),
     GETSET(RedisResponseType.BULK_REPLY), // Binary
     HDEL(RedisResponseType.INTEGER_REPLY),
-    HEXISTS(RedisResponseType.INTEGER_REPLY),
-    HGET(RedisResponseType.BULK_REPLY), // Binary
-    HGETALL(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    HELLO(RedisResponseType.MULTI_BULK_REPLY),
+    HEXISTS(RedisResponseType.INTEGER_REPLY, true),
+    HGET(RedisResponseType.BULK_REPLY, true), // Binary
+    HGETALL(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     HINCRBY(RedisResponseType.INTEGER_REPLY),
     HINCRBYFLOAT(RedisResponseType.BULK_REPLY),
-    HKEYS(RedisResponseType.MULTI_BULK_REPLY), // Binary
-    HLEN(RedisResponseType.INTEGER_REPLY),
-    HMGET(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    HKEYS(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
+    HLEN(RedisResponseType.INTEGER_REPLY, true),
+    HMGET(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     HMSET(RedisResponseType.STATUS_CODE),
     HSET(RedisResponseType.INTEGER_REPLY),
     HSETNX(RedisResponseType.INTEGER_REPLY),
-    HVALS(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    HVALS(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     INCR(RedisResponseType.INTEGER_REPLY),
     INCRBY(RedisResponseType.INTEGER_REPLY),
     INCRBYFLOAT(RedisResponseType.BULK_REPLY),
-    KEYS(RedisResponseType.MULTI_BULK_REPLY), // Binary
-    LINDEX(RedisResponseType.BULK_REPLY), // Binary
+    KEYS(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
+    LINDEX(RedisResponseType.BULK_REPLY, true), // Binary
     LINSERT(RedisResponseType.INTEGER_REPLY),
-    LLEN(RedisResponseType.INTEGER_REPLY),
+    LLEN(RedisResponseType.INTEGER_REPLY, true),
     LPOP(RedisResponseType.BULK_REPLY), // Binary
     LPUSH(RedisResponseType.INTEGER_REPLY),
     LPUSHX(RedisResponseType.INTEGER_REPLY),
-    LRANGE(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    LRANGE(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     LREM(RedisResponseType.INTEGER_REPLY),
     LSET(RedisResponseType.STATUS_CODE),
     LTRIM(RedisResponseType.STATUS_CODE),
-    MGET(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    MGET(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     MSET(RedisResponseType.STATUS_CODE),
     MSETNX(RedisResponseType.INTEGER_REPLY),
     MULTI(RedisResponseType.STATUS_CODE),
-    OBJECT_IDLETIME("OBJECT", RedisResponseType.INTEGER_REPLY),
-    OBJECT_ENCODING("OBJECT", RedisResponseType.BULK_REPLY), // Binary
-    OBJECT_REFCOUNT("OBJECT", RedisResponseType.INTEGER_REPLY),
+    OBJECT_IDLETIME("OBJECT", RedisResponseType.INTEGER_REPLY, true),
+    OBJECT_ENCODING("OBJECT", RedisResponseType.BULK_REPLY, true), // Binary
+    OBJECT_REFCOUNT("OBJECT", RedisResponseType.INTEGER_REPLY, true),
     PERSIST(RedisResponseType.INTEGER_REPLY),
     PEXPIRE(RedisResponseType.INTEGER_REPLY),
     PEXPIREAT(RedisResponseType.INTEGER_REPLY),
     PING(RedisResponseType.STATUS_CODE),
     PSETEX(RedisResponseType.STATUS_CODE),
-    PTTL(RedisResponseType.INTEGER_REPLY),
+    PTTL(RedisResponseType.INTEGER_REPLY, true),
     PUBLISH(RedisResponseType.INTEGER_REPLY),
     RANDOMKEY(RedisResponseType.BULK_REPLY), // Binary
     RENAME(RedisResponseType.STATUS_CODE),
@@ -94,56 +101,86 @@ public enum RedisCommandType {
     RPUSH(RedisResponseType.INTEGER_REPLY),
     RPUSHX(RedisResponseType.INTEGER_REPLY),
     SADD(RedisResponseType.INTEGER_REPLY),
-    SCARD(RedisResponseType.INTEGER_REPLY),
-    SDIFF(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    SCARD(RedisResponseType.INTEGER_REPLY, true),
+    SDIFF(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     SDIFFSTORE(RedisResponseType.INTEGER_REPLY),
     SELECT(RedisResponseType.STATUS_CODE),
+    SENTINEL_GET_MASTER_ADDR_BY_NAME("SENTINEL", RedisResponseType.MULTI_BULK_REPLY),
     SET(RedisResponseType.STATUS_CODE),
     SETBIT(RedisResponseType.INTEGER_REPLY),
     SETEX(RedisResponseType.STATUS_CODE),
     SETNX(RedisResponseType.INTEGER_REPLY),
     SETRANGE(RedisResponseType.INTEGER_REPLY),
-    SINTER(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    SINTER(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     SINTERSTORE(RedisResponseType.INTEGER_REPLY),
-    SISMEMBER(RedisResponseType.INTEGER_REPLY),
-    SMEMBERS(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    SISMEMBER(RedisResponseType.INTEGER_REPLY, true),
+    SMEMBERS(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     SMOVE(RedisResponseType.INTEGER_REPLY),
     SORT(RedisResponseType.MULTI_BULK_REPLY), // Binary
     SORT_WITH_STORE("SORT", RedisResponseType.INTEGER_REPLY),
     SPOP(RedisResponseType.BULK_REPLY), // Binary
     SRANDMEMBER(RedisResponseType.BULK_REPLY), // Binary
     SREM(RedisResponseType.INTEGER_REPLY),
-    STRLEN(RedisResponseType.INTEGER_REPLY),
-    SUNION(RedisResponseType.MULTI_BULK_REPLY), // Binary
+    STRLEN(RedisResponseType.INTEGER_REPLY, true),
+    SUBSCRIBE(RedisResponseType.MULTI_BULK_REPLY),
+    SUNION(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
     SUNIONSTORE(RedisResponseType.INTEGER_REPLY),
-    TTL(RedisResponseType.INTEGER_REPLY),
-    TYPE(RedisResponseType.STATUS_CODE),
+    TTL(RedisResponseType.INTEGER_REPLY, true),
+    TYPE(RedisResponseType.STATUS_CODE, true),
     ZADD(RedisResponseType.INTEGER_REPLY),
-    ZCARD(RedisResponseType.INTEGER_REPLY),
-    ZCOUNT(RedisResponseType.INTEGER_REPLY),
+    ZCARD(RedisResponseType.INTEGER_REPLY, true),
+    ZCOUNT(RedisResponseType.INTEGER_REPLY, true),
     ZINCRBY(RedisResponseType.BULK_REPLY),
     ZINTERSTORE(RedisResponseType.INTEGER_REPLY),
-    ZRANGE(RedisResponseType.MULTI_BULK_REPLY), // Binary
-    ZRANGEBYSCORE(RedisResponseType.MULTI_BULK_REPLY), // Binary
-    ZRANK(RedisResponseType.INTEGER_REPLY),
+    ZRANGE(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
+    ZRANGEBYSCORE(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
+    ZRANK(RedisResponseType.INTEGER_REPLY, true),
     ZREM(RedisResponseType.INTEGER_REPLY),
     ZREMRANGEBYRANK(RedisResponseType.INTEGER_REPLY),
     ZREMRANGEBYSCORE(RedisResponseType.INTEGER_REPLY),
-    ZREVRANGE(RedisResponseType.MULTI_BULK_REPLY), // Binary
-    ZREVRANGEBYSCORE(RedisResponseType.MULTI_BULK_REPLY), // Binary
-    ZREVRANK(RedisResponseType.INTEGER_REPLY),
-    ZSCORE(RedisResponseType.BULK_REPLY),
+    ZREVRANGE(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
+    ZREVRANGEBYSCORE(RedisResponseType.MULTI_BULK_REPLY, true), // Binary
+    ZREVRANK(RedisResponseType.INTEGER_REPLY, true),
+    ZSCORE(RedisResponseType.BULK_REPLY, true),
     ZUNIONSTORE(RedisResponseType.INTEGER_REPLY);
     private final String command;
     private final RedisResponseType responseType;
+    private final byte[] header;
+    private final int headerArguments;
+    private final boolean readOnly;
+    private final int keyIndex;
 
     RedisCommandType(RedisResponseType responseType) {
-        this(null, responseType);
+        this(null, responseType, false);
+    }
+
+    RedisCommandType(RedisResponseType responseType, boolean readOnly) {
+        this(null, responseType, readOnly);
     }
 
     RedisCommandType(String command, RedisResponseType responseType) {
+        this(command, responseType, false);
+    }
+
+    RedisCommandType(String command, RedisResponseType responseType, boolean readOnly) {
         this.command = command == null ? this.name() : command;
         this.responseType = responseType;
+        this.readOnly = readOnly;
+        this.keyIndex = keyIndex(this.name());
+
+        String[] words = new String[]{this.command};
+        if (this.name().startsWith("OBJECT_") || this.name().startsWith("CLIENT_") || this.name().startsWith("CLUSTER_")) {
+            words = new String[]{this.command, this.name().substring(this.command.length() + 1)};
+        } else if (this.name().startsWith("SENTINEL_")) {
+            words = new String[]{this.command, this.name().substring(this.command.length() + 1).replace('_', '-')};
+        }
+
+        StringBuilder encoded = new StringBuilder();
+        for (String word : words) {
+            encoded.append('$').append(word.length()).append("\r\n").append(word).append("\r\n");
+        }
+        this.header = encoded.toString().getBytes(StandardCharsets.US_ASCII);
+        this.headerArguments = words.length;
     }
 
     public String getCommand() {
@@ -153,4 +190,72 @@ public enum RedisCommandType {
     public RedisResponseType getResponseType() {
         return responseType;
     }
+
+    /**
+     * True if the command only reads data and returns the same reply for the same arguments while the data
+     * is unchanged.  Commands with a random reply, such as RANDOMKEY and SRANDMEMBER, are not read-only here,
+     * and neither is SORT since Redis treats it as a write and it may STORE its result.
+     *
+     * @return - If the command is read-only.
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * The position of the first key in the arguments of the command, or -1 if the command has no key.
+     *
+     * @return - The index of the first key.
+     */
+    public int getKeyIndex() {
+        return keyIndex;
+    }
+
+    /**
+     * The command encoded as RESP bulk strings, ready to be written after the array header.  For the OBJECT,
+     * CLIENT, CLUSTER and SENTINEL commands this includes the subcommand.  The array is shared and must not be modified.
+     *
+     * @return - The encoded command.
+     */
+    byte[] getHeader() {
+        return header;
+    }
+
+    /**
+     * The number of bulk strings in the encoded command.
+     *
+     * @return - The number of arguments the header adds to the command.
+     */
+    int getHeaderArguments() {
+        return headerArguments;
+    }
+
+    private static int keyIndex(String name) {
+        switch (name) {
+            case "BITOP":
+                return 1;
+            case "ASKING":
+            case "AUTH":
+            case "CLIENT_ID":
+            case "CLIENT_TRACKING":
+            case "CLUSTER_SLOTS":
+            case "DISCARD":
+            case "ECHO":
+            case "EXEC":
+            case "FLUSHALL":
+            case "FLUSHDB":
+            case "HELLO":
+            case "KEYS":
+            case "MULTI":
+            case "PING":
+            case "PUBLISH":
+            case "RANDOMKEY":
+            case "SELECT":
+            case "SENTINEL_GET_MASTER_ADDR_BY_NAME":
+            case "SUBSCRIBE":
+                return -1;
+            default:
+                return 0;
+        }
+    }
 }
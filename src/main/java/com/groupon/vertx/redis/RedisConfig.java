@@ -15,6 +15,11 @@
  */
 package com.groupon.vertx.redis;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 /**
@@ -26,13 +31,43 @@ import io.vertx.core.json.JsonObject;
 public class RedisConfig implements RedisKeys {
     private static final int DEFAULT_REPLY_TIMEOUT = 1000;
     private static final int DEFAULT_PORT = 6379;
+    private static final int DEFAULT_SENTINEL_PORT = 26379;
     private static final long DEFAULT_RETRY_INTERVAL = 50;
+    private static final int DEFAULT_POOL_SIZE = 1;
+    private static final long DEFAULT_FLUSH_DELAY = 0;
+    private static final int DEFAULT_FLUSH_MAX_BYTES = 65536;
+    private static final int DEFAULT_FLUSH_MAX_COMMANDS = 1000;
+    private static final int DEFAULT_WRITE_QUEUE_MAX_SIZE = 1048576;
+    private static final String TRACKING_DEFAULT = "default";
+    private static final String TRACKING_BCAST = "bcast";
+    private static final int RESP2 = 2;
+    private static final int RESP3 = 3;
+    private static final int DEFAULT_WEIGHT = 1;
+    static final String READ_ROUND_ROBIN = "roundRobin";
+    static final String READ_LEAST_PENDING = "leastPending";
+    static final String READ_REPLICAS_FIRST = "replicasFirst";
 
     private String eventBusAddress;
     private String host;
     private int port = DEFAULT_PORT;
     private long retryInterval = DEFAULT_RETRY_INTERVAL;
     private long replyTimeout = DEFAULT_REPLY_TIMEOUT;
+    private int poolSize = DEFAULT_POOL_SIZE;
+    private boolean coalesceWrites;
+    private long flushDelay = DEFAULT_FLUSH_DELAY;
+    private int flushMaxBytes = DEFAULT_FLUSH_MAX_BYTES;
+    private int flushMaxCommands = DEFAULT_FLUSH_MAX_COMMANDS;
+    private int writeQueueMaxSize = DEFAULT_WRITE_QUEUE_MAX_SIZE;
+    private String trackingMode;
+    private List<String> trackingPrefixes = Collections.emptyList();
+    private String invalidationAddress;
+    private int protocol = RESP2;
+    private boolean cluster;
+    private List<RedisEndpoint> shards = Collections.emptyList();
+    private List<RedisEndpoint> replicas = Collections.emptyList();
+    private String readPolicy = READ_REPLICAS_FIRST;
+    private List<RedisEndpoint> sentinels = Collections.emptyList();
+    private String masterName;
 
     private RedisConfig() { }
 
@@ -42,10 +77,93 @@ public class RedisConfig implements RedisKeys {
         this.eventBusAddress = redisConfigObj.getString(EVENT_BUS_ADDRESS_KEY);
         this.retryInterval = redisConfigObj.getLong(RETRY_INTERVAL_KEY, retryInterval);
         this.replyTimeout = redisConfigObj.getLong(REPLY_TIMEOUT_KEY, replyTimeout);
+        this.poolSize = redisConfigObj.getInteger(POOL_SIZE_KEY, poolSize);
+        this.coalesceWrites = redisConfigObj.getBoolean(COALESCE_WRITES_KEY, coalesceWrites);
+        this.flushDelay = redisConfigObj.getLong(FLUSH_DELAY_KEY, flushDelay);
+        this.flushMaxBytes = redisConfigObj.getInteger(FLUSH_MAX_BYTES_KEY, flushMaxBytes);
+        this.flushMaxCommands = redisConfigObj.getInteger(FLUSH_MAX_COMMANDS_KEY, flushMaxCommands);
+        this.writeQueueMaxSize = redisConfigObj.getInteger(WRITE_QUEUE_MAX_SIZE_KEY, writeQueueMaxSize);
+        this.trackingMode = redisConfigObj.getString(TRACKING_MODE_KEY);
+        this.invalidationAddress = redisConfigObj.getString(INVALIDATION_ADDRESS_KEY);
+        this.protocol = redisConfigObj.getInteger(PROTOCOL_KEY, protocol);
+        this.cluster = redisConfigObj.getBoolean(CLUSTER_KEY, cluster);
+        this.readPolicy = redisConfigObj.getString(READ_POLICY_KEY, readPolicy);
+        this.masterName = redisConfigObj.getString(MASTER_NAME_KEY);
+
+        JsonArray prefixes = redisConfigObj.getJsonArray(TRACKING_PREFIXES_KEY);
+        if (prefixes != null) {
+            this.trackingPrefixes = new ArrayList<>();
+            for (Object prefix : prefixes) {
+                this.trackingPrefixes.add(prefix.toString());
+            }
+        }
+
+        JsonArray shardConfigs = redisConfigObj.getJsonArray(SHARDS_KEY);
+        if (shardConfigs != null) {
+            this.shards = getEndpoints(shardConfigs, DEFAULT_PORT, "Invalid Redis shard config.");
+        }
+
+        JsonArray replicaConfigs = redisConfigObj.getJsonArray(REPLICAS_KEY);
+        if (replicaConfigs != null) {
+            this.replicas = getEndpoints(replicaConfigs, DEFAULT_PORT, "Invalid Redis replica config.");
+        }
+
+        JsonArray sentinelConfigs = redisConfigObj.getJsonArray(SENTINELS_KEY);
+        if (sentinelConfigs != null) {
+            this.sentinels = getEndpoints(sentinelConfigs, DEFAULT_SENTINEL_PORT, "Invalid Redis sentinel config.");
+        }
 
-        if (host == null || host.isEmpty() || eventBusAddress == null || eventBusAddress.isEmpty()) {
+        if (((host == null || host.isEmpty()) && shards.isEmpty() && sentinels.isEmpty()) || eventBusAddress == null || eventBusAddress.isEmpty()) {
             throw new Exception("Invalid Redis config.");
         }
+
+        if (poolSize <= 0) {
+            throw new Exception("Invalid Redis pool size.");
+        }
+
+        if (flushDelay < 0 || flushMaxBytes <= 0 || flushMaxCommands <= 0) {
+            throw new Exception("Invalid Redis flush config.");
+        }
+
+        if (writeQueueMaxSize <= 0) {
+            throw new Exception("Invalid Redis write queue config.");
+        }
+
+        if (protocol != RESP2 && protocol != RESP3) {
+            throw new Exception("Invalid Redis protocol.");
+        }
+
+        if (trackingMode != null && !TRACKING_DEFAULT.equals(trackingMode) && !TRACKING_BCAST.equals(trackingMode)) {
+            throw new Exception("Invalid Redis tracking mode.");
+        }
+
+        if (!trackingPrefixes.isEmpty() && !TRACKING_BCAST.equals(trackingMode)) {
+            throw new Exception("Redis tracking prefixes require the bcast tracking mode.");
+        }
+
+        if (cluster && trackingMode != null) {
+            throw new Exception("Redis tracking is not supported in cluster mode.");
+        }
+
+        if (!shards.isEmpty() && (cluster || trackingMode != null)) {
+            throw new Exception("Redis shards do not support cluster mode or tracking.");
+        }
+
+        if (!replicas.isEmpty() && (cluster || !shards.isEmpty() || trackingMode != null)) {
+            throw new Exception("Redis replicas do not support cluster mode, shards or tracking.");
+        }
+
+        if (!READ_ROUND_ROBIN.equals(readPolicy) && !READ_LEAST_PENDING.equals(readPolicy) && !READ_REPLICAS_FIRST.equals(readPolicy)) {
+            throw new Exception("Invalid Redis read policy.");
+        }
+
+        if (!sentinels.isEmpty() && (masterName == null || masterName.isEmpty())) {
+            throw new Exception("Invalid Redis sentinel config.");
+        }
+
+        if (!sentinels.isEmpty() && (cluster || !shards.isEmpty() || !replicas.isEmpty() || trackingMode != null)) {
+            throw new Exception("Redis sentinels do not support cluster mode, shards, replicas or tracking.");
+        }
     }
 
     public String getHost() {
@@ -67,4 +185,162 @@ public class RedisConfig implements RedisKeys {
     public long getReplyTimeout() {
         return replyTimeout;
     }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public boolean isCoalesceWrites() {
+        return coalesceWrites;
+    }
+
+    public long getFlushDelay() {
+        return flushDelay;
+    }
+
+    public int getFlushMaxBytes() {
+        return flushMaxBytes;
+    }
+
+    public int getFlushMaxCommands() {
+        return flushMaxCommands;
+    }
+
+    public int getWriteQueueMaxSize() {
+        return writeQueueMaxSize;
+    }
+
+    /**
+     * The CLIENT TRACKING mode, either "default" where Redis tracks the keys read on each connection, or
+     * "bcast" where Redis sends invalidations for every key matching the tracking prefixes.  Tracking is
+     * disabled when this is null.
+     *
+     * @return - The tracking mode, or null.
+     */
+    public String getTrackingMode() {
+        return trackingMode;
+    }
+
+    /**
+     * True if the tracking mode is "bcast".
+     *
+     * @return - If invalidations are broadcast.
+     */
+    public boolean isTrackingBroadcast() {
+        return TRACKING_BCAST.equals(trackingMode);
+    }
+
+    /**
+     * The key prefixes to broadcast invalidations for.  With no prefixes every key is broadcast.
+     *
+     * @return - The list of prefixes.
+     */
+    public List<String> getTrackingPrefixes() {
+        return trackingPrefixes;
+    }
+
+    /**
+     * The RESP protocol version negotiated with HELLO when a connection opens, either 2 or 3.
+     *
+     * @return - The protocol version.
+     */
+    public int getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * True if the connections negotiate RESP3, so CLIENT TRACKING invalidations arrive as push frames on the
+     * connections themselves instead of on a dedicated connection.
+     *
+     * @return - If RESP3 is used.
+     */
+    public boolean isResp3() {
+        return protocol == RESP3;
+    }
+
+    /**
+     * True if the host and port are a seed node of a Redis Cluster, in which case the slot map is loaded
+     * from the cluster and each command is sent to the node serving the slot of its key.
+     *
+     * @return - If cluster mode is enabled.
+     */
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    /**
+     * The standalone Redis servers the keys are sharded across, each with its share of the keys.  When there
+     * are shards the host and port are not used.
+     *
+     * @return - The list of shards, which is empty when the keys are not sharded.
+     */
+    public List<RedisEndpoint> getShards() {
+        return shards;
+    }
+
+    /**
+     * The replicas of the Redis server which the read-only commands may be sent to.  The weights of the
+     * replicas are not used.
+     *
+     * @return - The list of replicas, which is empty when every command is sent to the host.
+     */
+    public List<RedisEndpoint> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * How the read-only commands are spread when there are replicas: "roundRobin" rotates them across the
+     * host and the replicas, "leastPending" sends them to the one with the fewest pending commands and
+     * "replicasFirst" sends them to the replica with the fewest pending commands, falling back to the host
+     * while no replica is connected.  The default is "replicasFirst".
+     *
+     * @return - The read policy.
+     */
+    public String getReadPolicy() {
+        return readPolicy;
+    }
+
+    /**
+     * The Sentinels which monitor the Redis primary.  When there are Sentinels the primary is found by asking
+     * them for the address of the master name, and the host and port are not used.  The port of a Sentinel
+     * defaults to 26379.
+     *
+     * @return - The list of Sentinels, which is empty when the host is used.
+     */
+    public List<RedisEndpoint> getSentinels() {
+        return sentinels;
+    }
+
+    /**
+     * The name the Sentinels monitor the Redis primary under.
+     *
+     * @return - The master name, which is required when there are Sentinels.
+     */
+    public String getMasterName() {
+        return masterName;
+    }
+
+    /**
+     * The event bus address the key invalidations are published to, which defaults to the event bus
+     * address followed by ".invalidate".
+     *
+     * @return - The invalidation address.
+     */
+    public String getInvalidationAddress() {
+        return invalidationAddress != null ? invalidationAddress : eventBusAddress + ".invalidate";
+    }
+
+    private static List<RedisEndpoint> getEndpoints(JsonArray endpointConfigs, int defaultPort, String error) throws Exception {
+        List<RedisEndpoint> endpoints = new ArrayList<>();
+        for (Object endpointConfig : endpointConfigs) {
+            JsonObject endpoint = (JsonObject) endpointConfig;
+            String endpointHost = endpoint.getString(HOST_KEY);
+            int weight = endpoint.getInteger(WEIGHT_KEY, DEFAULT_WEIGHT);
+            if (endpointHost == null || endpointHost.isEmpty() || weight <= 0) {
+                throw new Exception(error);
+            }
+            endpoints.add(new RedisEndpoint(endpointHost, endpoint.getInteger(PORT_KEY, defaultPort), weight));
+        }
+        return endpoints;
+    }
 }
@@ -0,0 +1,365 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+import com.groupon.vertx.utils.Logger;
+
+/**
+ * The open connections to a Redis server which share an event bus address.  The event bus consumer is
+ * registered while at least one connection is open, and each message is sent on the connection with the
+ * fewest commands waiting for a reply.  Connections with a full write queue are only used when every
+ * connection is full, at which point the consumer is paused until one of them drains.
+ * <br>
+ * A registered pool can also be used directly by a <code>RedisDirectClient</code> in the same Vert.x
+ * instance, which skips the event bus.  A pool created without an event bus address never registers a
+ * consumer and is only sent commands directly, as the node pools of a cluster are.
+ *
+ * @since 3.2.0
+ */
+public class RedisConnectionPool implements Handler<Message<JsonObject>>, Shareable, RedisCommandSender {
+    private static final Logger log = Logger.getLogger(RedisConnectionPool.class);
+    private static final String POOLS_MAP = "com.groupon.vertx.redis.pools";
+    private final Vertx vertx;
+    private final Context context;
+    private final String eventBusAddress;
+    private final List<RedisCommandHandler> connections = new ArrayList<>();
+    private final List<RedisSocketHandler> handlers = new ArrayList<>();
+    private MessageConsumer<JsonObject> consumer;
+    private boolean paused;
+    private List<Object> trackingArguments;
+    private boolean connecting;
+    private long queueTimeout;
+    private List<RedisCommand> queued;
+
+    public RedisConnectionPool(Vertx vertx, String eventBusAddress) {
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.eventBusAddress = eventBusAddress;
+    }
+
+    /**
+     * Finds the pool registered for the event bus address in this Vert.x instance.
+     *
+     * @param vertx - The Vertx instance.
+     * @param eventBusAddress - The event bus address of the pool.
+     * @return - The registered pool, or null if there isn't one.
+     */
+    public static RedisConnectionPool lookup(Vertx vertx, String eventBusAddress) {
+        return getPools(vertx).get(eventBusAddress);
+    }
+
+    /**
+     * Registers the pool so it can be found with <code>lookup</code>.  If several pools are registered for
+     * the same address the last one is used.
+     */
+    public void register() {
+        getPools(vertx).put(eventBusAddress, this);
+    }
+
+    /**
+     * Removes the pool from the registry if it is the pool registered for its address.
+     */
+    public void unregister() {
+        getPools(vertx).removeIfPresent(eventBusAddress, this);
+    }
+
+    /**
+     * The context of the verticle which owns the connections.  Commands must be sent from this context.
+     *
+     * @return - The context of the pool.
+     */
+    public Context getContext() {
+        return context;
+    }
+
+    /**
+     * Opens the pool size of connections from the config to the host and port.  Each connection is added to
+     * the pool while it is open and is reconnected when it closes.  Commands sent before the first connection
+     * opens are queued and sent once it does, or fail if no connection opens within the reply timeout.
+     *
+     * @param config - The Redis config.
+     * @param netClient - The client for connecting to Redis.
+     * @param host - The host to connect to.
+     * @param port - The port to connect to.
+     */
+    public void connect(RedisConfig config, NetClient netClient, String host, int port) {
+        connecting = connections.isEmpty();
+        queueTimeout = config.getReplyTimeout();
+        for (int i = 0; i < config.getPoolSize(); i++) {
+            RedisSocketHandler handler = new RedisSocketHandler(vertx, config, netClient, this, host, port);
+            handlers.add(handler);
+            handler.handle(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Closes the connections opened with <code>connect</code> and stops reconnecting them.
+     */
+    public void close() {
+        for (RedisSocketHandler handler : handlers) {
+            handler.close();
+        }
+        handlers.clear();
+        connecting = false;
+        failQueued();
+    }
+
+    /**
+     * Adds an open connection to the pool, registering the event bus consumer if this is the first one.
+     *
+     * @param connection - The handler for the open connection.
+     */
+    public void add(RedisCommandHandler connection) {
+        connections.add(connection);
+        connection.writeQueueHandlers(event -> writeQueueFull(), event -> drained());
+        if (trackingArguments != null) {
+            sendTracking(connection, trackingArguments);
+        }
+
+        if (consumer == null && eventBusAddress != null) {
+            log.trace("add", "registerConsumer", new String[]{"eventBusAddress"}, eventBusAddress);
+            consumer = vertx.eventBus().consumer(eventBusAddress, this);
+            paused = false;
+        }
+
+        connecting = false;
+        if (queued != null) {
+            List<RedisCommand> commands = queued;
+            queued = null;
+            connection.sendCommand(commands);
+        }
+    }
+
+    /**
+     * Removes a closed connection from the pool, unregistering the event bus consumer if it was the last one.
+     *
+     * @param connection - The handler for the closed connection.
+     */
+    public void remove(RedisCommandHandler connection) {
+        if (connections.remove(connection) && connections.isEmpty() && consumer != null) {
+            log.trace("remove", "unregisterConsumer", new String[]{"eventBusAddress"}, eventBusAddress);
+            consumer.unregister();
+            consumer = null;
+        } else if (paused && !allWriteQueuesFull()) {
+            resume();
+        }
+    }
+
+    /**
+     * The number of open connections in the pool.
+     *
+     * @return - The number of connections.
+     */
+    public int size() {
+        return connections.size();
+    }
+
+    /**
+     * The number of commands waiting for a reply on all of the open connections in the pool.
+     *
+     * @return - The number of pending commands.
+     */
+    public int getPendingCommands() {
+        int pending = 0;
+        for (RedisCommandHandler connection : connections) {
+            pending += connection.getPendingCommands();
+        }
+        return pending;
+    }
+
+    /**
+     * Sends the message on the connection with the fewest pending commands.  The message is either the
+     * JsonObject command format or a <code>RedisCommandBatch</code> sent with its codec.
+     *
+     * @param message - The message containing the commands to send to Redis.
+     */
+    public void handle(Message<JsonObject> message) {
+        RedisCommandHandler connection = nextConnection();
+        if (connection == null) {
+            log.warn("handle", "failure", new String[]{"reason"}, "No open connections");
+            message.reply(new JsonObject().put("status", "error").put("message", "No Redis connection available"));
+            return;
+        }
+
+        Object body = ((Message<?>) message).body();
+        if (body instanceof RedisCommandBatch) {
+            connection.handleBatch(message, (RedisCommandBatch) body);
+        } else {
+            connection.handle(message);
+        }
+    }
+
+    /**
+     * Sends the commands on the connection with the fewest pending commands.  If there are no open
+     * connections the commands are completed with an error response, unless the pool is still opening its
+     * first connection and the commands are queued until it opens.  This must be called from the
+     * context of the pool.
+     *
+     * @param commands - The list of Redis commands.
+     */
+    public void sendCommand(List<RedisCommand> commands) {
+        RedisCommandHandler connection = nextConnection();
+        if (connection == null && connecting) {
+            queue(commands);
+            return;
+        } else if (connection == null) {
+            log.warn("sendCommand", "failure", new String[]{"reason"}, "No open connections");
+            for (RedisCommand command : commands) {
+                command.setResponse(new JsonObject().put("status", "error").put("message", "No Redis connection available"));
+            }
+            return;
+        }
+
+        connection.sendCommand(commands);
+    }
+
+    /**
+     * Turns on CLIENT TRACKING for every open connection and for the connections opened later.  Tracking is
+     * turned off before it is turned on again, so the arguments may change the redirect or the mode.
+     *
+     * @param arguments - The CLIENT TRACKING arguments, starting with "ON".
+     */
+    public void enableTracking(List<Object> arguments) {
+        trackingArguments = arguments;
+        for (RedisCommandHandler connection : connections) {
+            sendTracking(connection, Collections.<Object>singletonList("OFF"));
+            sendTracking(connection, arguments);
+        }
+    }
+
+    /**
+     * Turns off CLIENT TRACKING for every open connection and for the connections opened later.
+     */
+    public void disableTracking() {
+        if (trackingArguments != null) {
+            trackingArguments = null;
+            for (RedisCommandHandler connection : connections) {
+                sendTracking(connection, Collections.<Object>singletonList("OFF"));
+            }
+        }
+    }
+
+    private static void sendTracking(RedisCommandHandler connection, List<Object> arguments) {
+        RedisCommand command = new RedisCommand(RedisCommandType.CLIENT_TRACKING, arguments);
+        Future<JsonObject> response = Future.future();
+        response.setHandler(result -> {
+            if (result.failed() || !"success".equals(result.result().getString("status"))) {
+                log.warn("sendTracking", "failure", new String[]{"arguments", "response"}, arguments,
+                        result.failed() ? result.cause().getMessage() : result.result().encode());
+            }
+        });
+        command.commandResponse(response);
+        connection.sendCommand(Collections.singletonList(command));
+    }
+
+    private void queue(List<RedisCommand> commands) {
+        if (queued == null) {
+            final List<RedisCommand> timed = new ArrayList<>();
+            queued = timed;
+            vertx.setTimer(queueTimeout, id -> {
+                if (queued == timed) {
+                    failQueued();
+                }
+            });
+        }
+        queued.addAll(commands);
+    }
+
+    private void failQueued() {
+        if (queued == null) {
+            return;
+        }
+
+        List<RedisCommand> commands = queued;
+        queued = null;
+        log.warn("failQueued", "failure", new String[]{"reason", "commands"}, "No connection opened", commands.size());
+        for (RedisCommand command : commands) {
+            command.setResponse(new JsonObject().put("status", "error").put("message", "No Redis connection available"));
+        }
+    }
+
+    private static LocalMap<String, RedisConnectionPool> getPools(Vertx vertx) {
+        return vertx.sharedData().getLocalMap(POOLS_MAP);
+    }
+
+    private RedisCommandHandler nextConnection() {
+        RedisCommandHandler next = null;
+        boolean nextFull = true;
+        int nextPending = Integer.MAX_VALUE;
+
+        for (RedisCommandHandler connection : connections) {
+            boolean full = connection.writeQueueFull();
+            if (full && !nextFull) {
+                continue;
+            }
+
+            int pending = connection.getPendingCommands();
+            if (nextFull != full || pending < nextPending) {
+                next = connection;
+                nextFull = full;
+                nextPending = pending;
+            }
+        }
+
+        return next;
+    }
+
+    private void writeQueueFull() {
+        if (!paused && consumer != null && allWriteQueuesFull()) {
+            log.warn("writeQueueFull", "pauseConsumer", new String[]{"eventBusAddress"}, eventBusAddress);
+            paused = true;
+            consumer.pause();
+        }
+    }
+
+    private void drained() {
+        if (paused) {
+            resume();
+        }
+    }
+
+    private void resume() {
+        log.info("resume", "resumeConsumer", new String[]{"eventBusAddress"}, eventBusAddress);
+        paused = false;
+        if (consumer != null) {
+            consumer.resume();
+        }
+    }
+
+    private boolean allWriteQueuesFull() {
+        for (RedisCommandHandler connection : connections) {
+            if (!connection.writeQueueFull()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
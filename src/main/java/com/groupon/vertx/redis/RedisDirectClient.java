@@ -0,0 +1,175 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A command client which sends commands straight to the connection pool of a RedisVerticle deployed in the
+ * same Vert.x instance.  The commands are not encoded into JSON and are not sent across the event bus, but
+ * the replies are the same as the ones from <code>RedisClient</code>.
+ * <br>
+ * Commands are written from the context of the verticle which owns the connections, and the futures are
+ * completed on the context of the caller.
+ *
+ * @since 3.2.0
+ */
+public final class RedisDirectClient extends RedisBaseClient implements RedisCommandClient, RedisReplySender {
+    private final Vertx vertx;
+    private final RedisConnectionPool pool;
+    private RedisSingleFlightClient singleFlight;
+
+    /**
+     * Creates a client for the pool registered by the RedisVerticle listening on the event bus address.
+     *
+     * @param vertx - The Vertx instance the RedisVerticle is deployed in.
+     * @param eventBusAddress - The event bus address of the RedisVerticle.
+     * @param timeout - The number of milliseconds to wait for a reply.
+     */
+    public RedisDirectClient(Vertx vertx, String eventBusAddress, long timeout) {
+        this(vertx, lookupPool(vertx, eventBusAddress), timeout);
+    }
+
+    /**
+     * Creates a client for the pool.
+     *
+     * @param vertx - The Vertx instance the pool was created in.
+     * @param pool - The connection pool to send the commands to.
+     * @param timeout - The number of milliseconds to wait for a reply.
+     */
+    public RedisDirectClient(Vertx vertx, RedisConnectionPool pool, long timeout) {
+        super(vertx.eventBus(), null, timeout);
+        this.vertx = vertx;
+        this.pool = pool;
+    }
+
+    public RedisCommandTransaction multi() {
+        return new RedisTransaction(this);
+    }
+
+    public RedisCommandPipeline pipeline() {
+        return new RedisPipeline(this);
+    }
+
+    public RedisBaseCommandClient singleFlight() {
+        if (singleFlight == null) {
+            singleFlight = new RedisSingleFlightClient(this);
+        }
+        return singleFlight;
+    }
+
+    public RedisBaseCommandClient nearCache(RedisNearCache cache) {
+        return new RedisNearCacheClient(this, cache);
+    }
+
+    public RedisTypedCommandClient typed() {
+        return new RedisTypedClient(this);
+    }
+
+    public Future<RedisReply> sendReplyCommand(RedisCommand command) {
+        final Future<RedisReply> response = Future.future();
+        command.replyResponse(response);
+        return send(Collections.singletonList(command), response);
+    }
+
+    @Override
+    protected Future<JsonObject> sendCommand(RedisCommand command) {
+        return sendCommand(Collections.singletonList(command), command);
+    }
+
+    /**
+     * Sends the commands to the pool and completes the future with the response to one of them.
+     *
+     * @param commands - The list of Redis commands.
+     * @param responseCommand - The command whose response completes the future.
+     * @return - A future for the response, which fails if there is no reply within the timeout.
+     */
+    Future<JsonObject> sendCommand(List<RedisCommand> commands, RedisCommand responseCommand) {
+        final Future<JsonObject> response = Future.future();
+        responseCommand.commandResponse(response);
+        return send(commands, response);
+    }
+
+    /**
+     * Sends the commands to the pool and completes the client response of each command with its own response.
+     *
+     * @param commands - The list of Redis commands, each with a client command response.
+     */
+    void sendPipeline(List<RedisCommand> commands) {
+        final Context callerContext = vertx.getOrCreateContext();
+        for (RedisCommand command : commands) {
+            final Future<JsonObject> response = Future.future();
+            command.commandResponse(response);
+            track(callerContext, response).setHandler(command.getClientCommandResponse().completer());
+        }
+        dispatch(callerContext, commands);
+    }
+
+    private <T> Future<T> send(List<RedisCommand> commands, Future<T> response) {
+        final Context callerContext = vertx.getOrCreateContext();
+        final Future<T> finalResult = track(callerContext, response);
+        dispatch(callerContext, commands);
+        return finalResult;
+    }
+
+    private <T> Future<T> track(final Context callerContext, Future<T> response) {
+        final Future<T> finalResult = Future.future();
+        final long timerId = replyTimeout > 0 ? vertx.setTimer(replyTimeout, id -> finalResult.tryFail(
+                new RedisCommandException(createErrorJson(ReplyFailure.TIMEOUT.name())))) : -1;
+
+        response.setHandler(result -> {
+            if (Vertx.currentContext() == callerContext) {
+                complete(finalResult, result, timerId);
+            } else {
+                callerContext.runOnContext(event -> complete(finalResult, result, timerId));
+            }
+        });
+
+        return finalResult;
+    }
+
+    private void dispatch(Context callerContext, final List<RedisCommand> commands) {
+        Context poolContext = pool.getContext();
+        if (poolContext == callerContext) {
+            pool.sendCommand(commands);
+        } else {
+            poolContext.runOnContext(event -> pool.sendCommand(commands));
+        }
+    }
+
+    private <T> void complete(Future<T> finalResult, AsyncResult<T> response, long timerId) {
+        boolean completed = response.succeeded() ? finalResult.tryComplete(response.result()) : finalResult.tryFail(response.cause());
+        if (completed && timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+
+    private static RedisConnectionPool lookupPool(Vertx vertx, String eventBusAddress) {
+        RedisConnectionPool pool = RedisConnectionPool.lookup(vertx, eventBusAddress);
+        if (pool == null) {
+            throw new IllegalStateException("No Redis connection pool registered for " + eventBusAddress);
+        }
+        return pool;
+    }
+}
@@ -15,14 +15,20 @@
  */
 package com.groupon.vertx.redis;
 
+import java.math.BigInteger;
 import java.nio.charset.Charset;
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
 
 import com.groupon.vertx.utils.Logger;
 
@@ -51,20 +57,56 @@ public class RedisInputStream {
     private static final Logger log = Logger.getLogger(RedisInputStream.class);
     private static final Charset ENCODING = Charset.forName("UTF-8");
     private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int VERBATIM_FORMAT_LENGTH = 4;
     private final ConcurrentLinkedQueue<RedisCommand> pendingCommands;
-    private final byte[] buffer;
-    private ConcurrentLinkedQueue<byte[]> completedLines = new ConcurrentLinkedQueue<>();
-    private int bufferPosition = 0;
-    private int expectedLines = 0;
+    private final ByteBuf line;
+    private final Deque<MultiBulkReply> multiBulkReplies = new ArrayDeque<>();
+    private ParseState state = ParseState.HEADER;
+    private ByteBuf bulk = null;
+    private RedisResponseType bulkType = RedisResponseType.BULK_REPLY;
+    private int bulkLength = 0;
+    private int bytesRemaining = 0;
     private boolean isInMulti = false;
+    private long completedCommands = 0;
+    private Handler<RedisReply> pushHandler;
 
     public RedisInputStream(ConcurrentLinkedQueue<RedisCommand> pendingCommands) {
         this(pendingCommands, DEFAULT_BUFFER_SIZE);
     }
 
+    /**
+     * The buffer size is only the initial capacity used to hold a header line which has been split
+     * across socket reads.  Bulk payloads are read using their declared length so their size is
+     * not limited by it.
+     *
+     * @param pendingCommands - The queue of commands waiting for a reply.
+     * @param bufferSize - The initial capacity for partial header lines.
+     */
     public RedisInputStream(ConcurrentLinkedQueue<RedisCommand> pendingCommands, int bufferSize) {
         this.pendingCommands = pendingCommands;
-        this.buffer = new byte[bufferSize];
+        this.line = Unpooled.buffer(Math.min(bufferSize, DEFAULT_BUFFER_SIZE));
+    }
+
+    /**
+     * The number of commands which have received their reply.  Together with the number of commands sent
+     * this gives the number of pending commands without walking the queue.
+     *
+     * @return - The number of completed commands.
+     */
+    public long getCompletedCommands() {
+        return completedCommands;
+    }
+
+    /**
+     * Sets the handler for replies which arrive when no command is waiting for one, such as the messages
+     * sent to a connection which has subscribed to a channel.  Without a handler these replies are dropped.
+     *
+     * @param handler - The handler for the replies.
+     */
+    public void pushHandler(Handler<RedisReply> handler) {
+        this.pushHandler = handler;
     }
 
     /**
@@ -72,6 +114,15 @@ public class RedisInputStream {
      * is not guaranteed to contain a whole message so this method tracks the current state
      * of the incoming data and notifies the pending commands when enough data has been sent
      * for a response.
+     * <br>
+     * Header lines (status, error, integer and length lines) are terminated by '\r\n', while bulk
+     * payloads are consumed using the length from their '$' header.  This means bulk values may
+     * be of any size and may contain any bytes, including '\r\n'.
+     * <br>
+     * The RESP3 types are also parsed, so the connection may negotiate RESP3 with HELLO.  Maps are read
+     * into a LinkedHashMap, sets into a List, and doubles, booleans and big numbers into Double, Boolean
+     * and BigInteger.  Verbatim strings are read without their format prefix.  Attributes are dropped, and
+     * push frames always go to the push handler since they are never the reply to a command.
      *
      * @param processBuffer - The Buffer containing the current set of bytes.
      */
@@ -80,121 +131,281 @@ public class RedisInputStream {
             return;
         }
 
-        byte first;
-        byte second;
-
         ByteBuf byteBuf = processBuffer.getByteBuf();
 
         while (byteBuf.isReadable()) {
-            first = byteBuf.readByte();
-            if (first == '\r' && byteBuf.isReadable()) {
-                second = byteBuf.readByte();
-                if (second == '\n') {
-                    byte[] line = new byte[bufferPosition];
-                    System.arraycopy(buffer, 0, line, 0, line.length);
-                    addCompletedLine(line);
-                } else {
-                    buffer[bufferPosition++] = first;
-                    buffer[bufferPosition++] = second;
-                }
-            } else if (first == '\n' && buffer[bufferPosition - 1] == '\r') {
-                byte[] line = new byte[bufferPosition - 1];
-                System.arraycopy(buffer, 0, line, 0, line.length);
-                addCompletedLine(line);
-            } else {
-                buffer[bufferPosition++] = first;
+            switch (state) {
+                case HEADER:
+                    readHeader(byteBuf);
+                    break;
+                case BULK:
+                    readBulk(byteBuf);
+                    break;
+                case BULK_TERMINATOR:
+                    readBulkTerminator(byteBuf);
+                    break;
+                default:
+                    throw new RedisCommandException("Invalid parser state: " + state);
             }
         }
     }
 
     /**
-     * This method is fired when enough data is in the Buffer to complete a command.  If the
-     * command does not match the signature of the buffered data then an exception is thrown
-     * and the socket should be closed as the command/response queues are no longer in sync.
+     * Reads a '\r\n' terminated header line.  When the line is complete within the incoming buffer
+     * it is parsed in place, otherwise the partial line is kept until the rest arrives.
      *
-     * @param command - The command to process from the response buffer.
+     * @param byteBuf - The incoming bytes.
      */
-    private void processCommand(RedisCommand command) {
-        if (command == null) {
-            // No command to process so return.  Should add log message here.
-            log.warn("processCommand", "noCommandFound");
+    private void readHeader(ByteBuf byteBuf) {
+        int lineEnd = byteBuf.indexOf(byteBuf.readerIndex(), byteBuf.writerIndex(), LF);
+        if (lineEnd < 0) {
+            line.writeBytes(byteBuf);
             return;
         }
 
-        JsonObject response = new JsonObject();
+        if (line.isReadable()) {
+            line.writeBytes(byteBuf, lineEnd - byteBuf.readerIndex());
+            byteBuf.skipBytes(1);
+            processHeader(line, line.readerIndex(), line.writerIndex() - 1);
+            line.clear();
+        } else {
+            int lineStart = byteBuf.readerIndex();
+            byteBuf.readerIndex(lineEnd + 1);
+            processHeader(byteBuf, lineStart, lineEnd - 1);
+        }
+    }
 
-        byte[] line = completedLines.poll();
+    /**
+     * Reads the payload of a bulk reply.  When the whole payload is available it is sliced straight
+     * out of the incoming buffer, otherwise it is accumulated until the declared length has been read.
+     * <br>
+     * The incoming buffer is a heap copy of the socket data owned by the Buffer passed in by Vert.x, so
+     * the slice remains valid after this handler returns.
+     *
+     * @param byteBuf - The incoming bytes.
+     */
+    private void readBulk(ByteBuf byteBuf) {
+        if (bulk == null && byteBuf.readableBytes() >= bulkLength) {
+            completeBulk(Buffer.buffer(byteBuf.readSlice(bulkLength)));
+            return;
+        }
 
-        if (line == null) {
-            log.warn("processCommand", "noCompletedLinesFound", new String[]{"command"}, command.getCommand());
-            response.put("status", "error");
-            response.put("message", "Unable to find completed line for command: " + command.getCommand());
-        } else if (line[0] == RedisResponseType.ERROR.marker) {
-            log.warn("processCommand", "redisReturnedError", new String[]{"command"}, command.getCommand());
-            response.put("status", "fail");
-            response.put("data", processLine(line));
-        } else if (line[0] == RedisResponseType.BULK_REPLY.marker && line[1] == '-') {
-            log.debug("processCommand", "redisReturnedNil", new String[]{"command"}, command.getCommand());
-            response.put("status", "success");
-            response.put("data", processBulkLine(line));
-        } else if (line[0] != command.getResponseType().marker) {
-            log.warn("processCommand", "mismatchedResponse", new String[]{"command", "expectedDelim", "foundDelim"},
-                    command.getCommand(), (char) command.getResponseType().marker, (char) line[0]);
-            throw new RedisCommandException("Invalid response found");
+        if (bulk == null) {
+            bulk = Unpooled.buffer(bulkLength);
+            bytesRemaining = bulkLength;
+        }
+
+        int length = Math.min(bytesRemaining, byteBuf.readableBytes());
+        bulk.writeBytes(byteBuf, length);
+        bytesRemaining -= length;
+
+        if (bytesRemaining == 0) {
+            Buffer value = Buffer.buffer(bulk);
+            bulk = null;
+            completeBulk(value);
+        }
+    }
+
+    /**
+     * Skips the '\r\n' which follows every bulk payload.
+     *
+     * @param byteBuf - The incoming bytes.
+     */
+    private void readBulkTerminator(ByteBuf byteBuf) {
+        int length = Math.min(bytesRemaining, byteBuf.readableBytes());
+        byteBuf.skipBytes(length);
+        bytesRemaining -= length;
+
+        if (bytesRemaining == 0) {
+            state = ParseState.HEADER;
+        }
+    }
+
+    private void completeBulk(Buffer value) {
+        state = ParseState.BULK_TERMINATOR;
+        bytesRemaining = 2;
+        if (bulkType == RedisResponseType.BULK_ERROR) {
+            addValue(bulkType, value.toString(ENCODING));
+        } else if (bulkType == RedisResponseType.VERBATIM_STRING && value.length() >= VERBATIM_FORMAT_LENGTH) {
+            addValue(bulkType, value.slice(VERBATIM_FORMAT_LENGTH, value.length()));
         } else {
-            response.put("status", "success");
-
-            if (command.getResponseType() == RedisResponseType.MULTI_BULK_REPLY) {
-                response.put("data", processMultiLine(line));
-            } else if (command.getResponseType() == RedisResponseType.BULK_REPLY) {
-                response.put("data", processBulkLine(line));
-            } else if (command.getResponseType() == RedisResponseType.INTEGER_REPLY) {
-                response.put("data", processIntegerLine(line));
-            } else {
-                response.put("data", processLine(line));
-            }
+            addValue(bulkType, value);
+        }
+    }
+
+    /**
+     * Handles a complete header line.  The line starts with the marker and ends before the '\r'.
+     *
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     */
+    private void processHeader(ByteBuf buf, int start, int end) {
+        if (end <= start || buf.getByte(end) != CR) {
+            log.warn("processHeader", "invalidLine");
+            throw new RedisCommandException("Invalid response found");
+        }
 
-            log.trace("processCommand", "redisCommandSuccess", new String[]{"command", "data"}, command.getCommand(),
-                    response.getValue("data"));
+        byte marker = buf.getByte(start);
+        if (marker == RedisResponseType.STATUS_CODE.marker) {
+            addValue(RedisResponseType.STATUS_CODE, processLine(buf, start, end));
+        } else if (marker == RedisResponseType.ERROR.marker) {
+            addValue(RedisResponseType.ERROR, processLine(buf, start, end));
+        } else if (marker == RedisResponseType.INTEGER_REPLY.marker) {
+            addValue(RedisResponseType.INTEGER_REPLY, processIntegerLine(buf, start, end));
+        } else if (marker == RedisResponseType.BULK_REPLY.marker) {
+            processBulkHeader(RedisResponseType.BULK_REPLY, buf, start, end);
+        } else if (marker == RedisResponseType.MULTI_BULK_REPLY.marker) {
+            processAggregateHeader(RedisResponseType.MULTI_BULK_REPLY, buf, start, end);
+        } else if (marker == RedisResponseType.NULL.marker) {
+            addValue(RedisResponseType.NULL, null);
+        } else if (marker == RedisResponseType.DOUBLE.marker) {
+            addValue(RedisResponseType.DOUBLE, processDoubleLine(buf, start, end));
+        } else if (marker == RedisResponseType.BOOLEAN.marker) {
+            addValue(RedisResponseType.BOOLEAN, processBooleanLine(buf, start, end));
+        } else if (marker == RedisResponseType.BIG_NUMBER.marker) {
+            addValue(RedisResponseType.BIG_NUMBER, processBigNumberLine(buf, start, end));
+        } else if (marker == RedisResponseType.BULK_ERROR.marker) {
+            processBulkHeader(RedisResponseType.BULK_ERROR, buf, start, end);
+        } else if (marker == RedisResponseType.VERBATIM_STRING.marker) {
+            processBulkHeader(RedisResponseType.VERBATIM_STRING, buf, start, end);
+        } else if (marker == RedisResponseType.MAP.marker) {
+            processAggregateHeader(RedisResponseType.MAP, buf, start, end);
+        } else if (marker == RedisResponseType.SET.marker) {
+            processAggregateHeader(RedisResponseType.SET, buf, start, end);
+        } else if (marker == RedisResponseType.ATTRIBUTE.marker) {
+            processAggregateHeader(RedisResponseType.ATTRIBUTE, buf, start, end);
+        } else if (marker == RedisResponseType.PUSH.marker) {
+            processAggregateHeader(RedisResponseType.PUSH, buf, start, end);
+        } else {
+            log.warn("processHeader", "unknownMarker", new String[]{"marker"}, (char) marker);
+            throw new RedisCommandException("Invalid response found");
         }
+    }
 
-        command.setResponse(response);
+    /**
+     * Handles the header of a value whose payload follows it, either a bulk string, a bulk error or a
+     * verbatim string.
+     *
+     * @param type - The type of the value.
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     */
+    private void processBulkHeader(RedisResponseType type, ByteBuf buf, int start, int end) {
+        int length = processLengthLine(buf, start, end);
+        if (length < 0) {
+            addValue(type, null);
+        } else {
+            state = ParseState.BULK;
+            bulkType = type;
+            bulkLength = length;
+        }
     }
 
     /**
-     * When the crlf sequence has been received from the Buffer it is time to check if we
-     * have enough data to complete a command and clear the line off of the current buffer.
+     * Handles the header of an aggregate value, whose elements follow it.  Maps and attributes are
+     * followed by a key and a value for each of their entries.
      *
-     * @param line - A byte[] representing a complete line which is terminated by a '\r\n'.
+     * @param type - The type of the value.
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
      */
-    private void addCompletedLine(byte[] line) {
-        if (expectedLines > 0) {
-            expectedLines--;
+    private void processAggregateHeader(RedisResponseType type, ByteBuf buf, int start, int end) {
+        int entries = processLengthLine(buf, start, end);
+        boolean pairs = type == RedisResponseType.MAP || type == RedisResponseType.ATTRIBUTE;
+        if (pairs && entries > Integer.MAX_VALUE / 2) {
+            log.warn("processAggregateHeader", "invalidLength", new String[]{"length"}, entries);
+            throw new RedisCommandException("Invalid response found");
+        }
+
+        if (entries < 0) {
+            addValue(type, null);
+        } else if (entries > 0) {
+            multiBulkReplies.push(new MultiBulkReply(type, pairs ? entries * 2 : entries));
+        } else if (type != RedisResponseType.ATTRIBUTE) {
+            addValue(type, type == RedisResponseType.MAP ? new LinkedHashMap<>(0) : new ArrayList<>(0));
         }
+    }
 
-        if (line[0] == RedisResponseType.MULTI_BULK_REPLY.marker) {
-            if (line[1] != '-') {
-                expectedLines += processIntegerLine(line);
+    /**
+     * Adds a completed value to the multi-bulk reply currently being read, or completes the pending
+     * command if the value is a top level reply.  A completed attribute is dropped, since it only
+     * describes the value which follows it.
+     *
+     * @param type - The type of the completed value.
+     * @param value - The completed value.
+     */
+    private void addValue(RedisResponseType type, Object value) {
+        RedisResponseType valueType = type;
+        Object completedValue = value;
+
+        MultiBulkReply multiBulkReply = multiBulkReplies.peek();
+        while (multiBulkReply != null) {
+            if (!multiBulkReply.add(completedValue)) {
+                return;
             }
-        } else if (line[0] == RedisResponseType.BULK_REPLY.marker) {
-            if (line[1] != '-') {
-                expectedLines++;
+
+            multiBulkReplies.pop();
+            if (multiBulkReply.type == RedisResponseType.ATTRIBUTE) {
+                return;
             }
+            valueType = multiBulkReply.type;
+            completedValue = multiBulkReply.getValue();
+            multiBulkReply = multiBulkReplies.peek();
         }
 
-        completedLines.add(line);
-        bufferPosition = 0;
+        if (valueType == RedisResponseType.PUSH) {
+            if (pushHandler != null) {
+                pushHandler.handle(new RedisReply(valueType, completedValue));
+            } else {
+                log.debug("addValue", "pushDropped");
+            }
+            return;
+        }
 
-        if (expectedLines == 0 && pendingCommands.size() > 0) {
-            //For a transaction we want to discard all but the last reply.
-            RedisCommand pendingCommand = pendingCommands.poll();
-            setIfInMultiMode(pendingCommand);
-            if (isInMulti) {
-                completedLines.poll();
+        RedisCommand pendingCommand = pendingCommands.poll();
+        if (pendingCommand == null) {
+            if (pushHandler != null) {
+                pushHandler.handle(new RedisReply(valueType, completedValue));
             } else {
-                processCommand(pendingCommand);
+                log.warn("addValue", "noCommandFound");
             }
+            return;
+        }
+        completedCommands++;
+
+        //For a transaction we want to discard all but the last reply.
+        setIfInMultiMode(pendingCommand);
+        if (!isInMulti) {
+            processCommand(pendingCommand, valueType, completedValue);
+        }
+    }
+
+    /**
+     * This method is fired when a complete reply has been read for a command.  If the
+     * command does not match the signature of the reply then an exception is thrown
+     * and the socket should be closed as the command/response queues are no longer in sync.
+     *
+     * @param command - The command to process from the response buffer.
+     * @param type - The type of the reply.
+     * @param value - The value of the reply.
+     */
+    private void processCommand(RedisCommand command, RedisResponseType type, Object value) {
+        if (type.getResp2Type() == RedisResponseType.ERROR) {
+            log.warn("processCommand", "redisReturnedError", new String[]{"command"}, command.getCommand());
+        } else if ((type == RedisResponseType.BULK_REPLY || type == RedisResponseType.NULL) && value == null) {
+            log.debug("processCommand", "redisReturnedNil", new String[]{"command"}, command.getCommand());
+        } else if (type.getResp2Type() != command.getResponseType()) {
+            log.warn("processCommand", "mismatchedResponse", new String[]{"command", "expectedDelim", "foundDelim"},
+                    command.getCommand(), (char) command.getResponseType().marker, (char) type.marker);
+            throw new RedisCommandException("Invalid response found");
+        } else {
+            log.trace("processCommand", "redisCommandSuccess", new String[]{"command"}, command.getCommand());
         }
+
+        command.setReply(new RedisReply(type, value));
     }
 
     /**
@@ -213,79 +424,185 @@ public class RedisInputStream {
     /**
      * Single line responses are always defined by the marker in the first byte followed by the message.
      *
-     * @param line
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
      * @return String
      */
-    private String processLine(byte[] line) {
-        String processed = new String(Arrays.copyOfRange(line, 1, line.length), ENCODING);
+    private String processLine(ByteBuf buf, int start, int end) {
+        String processed = buf.toString(start + 1, end - start - 1, ENCODING);
         log.trace("processLine", "success", new String[]{"line"}, processed);
         return processed;
     }
 
     /**
-     * Integer replies are always defined by the marker in the first byte followed by the message.
+     * Integer replies are always defined by the marker in the first byte followed by a signed 64 bit
+     * decimal number.  The digits are parsed straight from the buffer without decoding them into a String.
      *
-     * @param line
-     * @return Integer
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     * @return long
      */
-    private Integer processIntegerLine(byte[] line) {
-        return Integer.parseInt(processLine(line));
+    private long processIntegerLine(ByteBuf buf, int start, int end) {
+        int index = start + 1;
+        boolean negative = buf.getByte(index) == '-';
+        if (negative) {
+            index++;
+        }
+
+        if (index >= end) {
+            log.warn("processIntegerLine", "invalidNumber");
+            throw new RedisCommandException("Invalid response found");
+        }
+
+        // Accumulate as a negative number so Long.MIN_VALUE can be represented.
+        long value = 0;
+        for (; index < end; index++) {
+            int digit = buf.getByte(index) - '0';
+            if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                log.warn("processIntegerLine", "invalidNumber");
+                throw new RedisCommandException("Invalid response found");
+            }
+            value = value * 10 - digit;
+        }
+
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                log.warn("processIntegerLine", "invalidNumber");
+                throw new RedisCommandException("Invalid response found");
+            }
+            value = -value;
+        }
+
+        return value;
     }
 
     /**
-     * The multi-line responses will be an array containing all of the subsequent responses for the
-     * multi-line response.
+     * Double replies are decimal numbers, or inf, -inf or nan.
      *
-     * @param multiLine
-     * @return JsonArray
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     * @return double
      */
-    private JsonArray processMultiLine(byte[] multiLine) {
-        if (multiLine[1] == '-') {
-            return null;
+    private double processDoubleLine(ByteBuf buf, int start, int end) {
+        String line = buf.toString(start + 1, end - start - 1, ENCODING);
+        switch (line) {
+            case "inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+                return Double.NaN;
+            default:
+                try {
+                    return Double.parseDouble(line);
+                } catch (NumberFormatException ex) {
+                    log.warn("processDoubleLine", "invalidNumber");
+                    throw new RedisCommandException("Invalid response found");
+                }
         }
+    }
 
-        JsonArray result = new JsonArray();
-
-        int lines = processIntegerLine(multiLine);
-        while (lines > 0) {
-            byte[] line = completedLines.poll();
-            if (line == null) {
-                // Unable to find completed line for multi command
-                result.addNull();
-            } else if (line[0] == RedisResponseType.MULTI_BULK_REPLY.marker) {
-                result.add(processMultiLine(line));
-            } else if (line[0] == RedisResponseType.BULK_REPLY.marker) {
-                result.add(processBulkLine(line));
-            } else if (line[0] == RedisResponseType.INTEGER_REPLY.marker) {
-                result.add(processIntegerLine(line));
-            } else {
-                result.add(processLine(line));
-            }
-
-            lines--;
+    /**
+     * Boolean replies are a single 't' or 'f'.
+     *
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     * @return boolean
+     */
+    private boolean processBooleanLine(ByteBuf buf, int start, int end) {
+        byte value = buf.getByte(start + 1);
+        if (end != start + 2 || (value != 't' && value != 'f')) {
+            log.warn("processBooleanLine", "invalidBoolean");
+            throw new RedisCommandException("Invalid response found");
         }
+        return value == 't';
+    }
 
-        return result;
+    /**
+     * Big number replies are signed decimal integers of any size.
+     *
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     * @return BigInteger
+     */
+    private BigInteger processBigNumberLine(ByteBuf buf, int start, int end) {
+        try {
+            return new BigInteger(buf.toString(start + 1, end - start - 1, ENCODING));
+        } catch (NumberFormatException ex) {
+            log.warn("processBigNumberLine", "invalidNumber");
+            throw new RedisCommandException("Invalid response found");
+        }
     }
 
     /**
-     * The bulk reply is composed of two lines.  The first contains the size of the response and the
-     * second line contains the value.
+     * Bulk and multi-bulk lengths are integer lines which must fit in an int, or be negative for a nil reply.
      *
-     * @param bulkLine
-     * @return String
+     * @param buf - The buffer holding the line.
+     * @param start - The index of the marker.
+     * @param end - The index of the '\r' terminating the line.
+     * @return int
      */
-    private String processBulkLine(byte[] bulkLine) {
-        if (bulkLine[1] == '-') {
-            return null;
+    private int processLengthLine(ByteBuf buf, int start, int end) {
+        long length = processIntegerLine(buf, start, end);
+        if (length > Integer.MAX_VALUE) {
+            log.warn("processLengthLine", "invalidLength", new String[]{"length"}, length);
+            throw new RedisCommandException("Invalid response found");
         }
+        return length < 0 ? -1 : (int) length;
+    }
 
-        byte[] line = completedLines.poll();
-        if (line == null) {
-            // Unable to find completed line for bulk command
-            return null;
-        } else {
-            return new String(Arrays.copyOfRange(line, 0, line.length), ENCODING);
+    /**
+     * The states of the reply parser.
+     */
+    private enum ParseState {
+        HEADER, BULK, BULK_TERMINATOR
+    }
+
+    /**
+     * A multi-bulk reply, or another aggregate reply, which is still waiting for some of its values.
+     */
+    private static final class MultiBulkReply {
+        private final RedisResponseType type;
+        private final List<Object> values;
+        private int remaining;
+
+        MultiBulkReply(RedisResponseType type, int size) {
+            this.type = type;
+            this.values = new ArrayList<>(size);
+            this.remaining = size;
+        }
+
+        /**
+         * The completed value, which is a Map of the keys and values for a map reply.
+         *
+         * @return - The value of the reply.
+         */
+        Object getValue() {
+            if (type != RedisResponseType.MAP) {
+                return values;
+            }
+
+            Map<Object, Object> entries = new LinkedHashMap<>(values.size());
+            for (int i = 0; i < values.size(); i += 2) {
+                entries.put(values.get(i), values.get(i + 1));
+            }
+            return entries;
+        }
+
+        /**
+         * Adds a value to the reply.
+         *
+         * @param value - The value to add.
+         * @return - True if all of the values for the reply have been received.
+         */
+        boolean add(Object value) {
+            values.add(value);
+            return --remaining == 0;
         }
     }
 }
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetSocket;
+
+import com.groupon.vertx.utils.Logger;
+
+/**
+ * This handler owns the dedicated connection which receives the CLIENT TRACKING invalidations for a
+ * connection pool.  Once connected it reads its client id and subscribes to the invalidation channel, then
+ * turns on tracking for the pool with the invalidations redirected to this connection.
+ * <br>
+ * Each invalidation is published on the invalidation address as a JsonObject with the raw bytes of the
+ * invalidated keys, which are Base64 encoded in the JSON so binary keys are kept as they are:
+ * <br>
+ * <code>
+ * {
+ *   'keys': [ 'c29tZWtleQ==' ]
+ * }
+ * </code>
+ * <br>
+ * The keys are null when every key must be invalidated.  This is published when Redis flushes the database,
+ * and also whenever the invalidation connection opens or closes since invalidations may have been missed.
+ * <br>
+ * When the connections use RESP3 no dedicated connection is needed, since each connection receives the
+ * invalidations for its own reads as push frames.  These are published the same way by
+ * <code>handlePush</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisInvalidationHandler {
+    private static final Logger log = Logger.getLogger(RedisInvalidationHandler.class);
+    private static final String INVALIDATION_CHANNEL = "__redis__:invalidate";
+    private static final Buffer MESSAGE = Buffer.buffer("message");
+    private static final Buffer INVALIDATE = Buffer.buffer("invalidate");
+    private final RedisSocket socket;
+    private final Vertx vertx;
+    private final RedisConfig config;
+    private final RedisConnectionPool pool;
+    private boolean closed;
+
+    /**
+     * Creates a handler for the open invalidation connection.
+     *
+     * @param socket - The NetSocket which is currently connected to the Redis server.
+     * @param vertx - The Vertx instance used to publish the invalidations.
+     * @param config - The Redis config with the tracking settings.
+     * @param pool - The pool to turn on tracking for.
+     */
+    public RedisInvalidationHandler(NetSocket socket, Vertx vertx, RedisConfig config, RedisConnectionPool pool) {
+        this.socket = new RedisSocket(socket);
+        this.vertx = vertx;
+        this.config = config;
+        this.pool = pool;
+        this.socket.pushHandler(reply -> handlePush(vertx, config, reply));
+    }
+
+    /**
+     * Reads the client id of the connection and subscribes to the invalidation channel.
+     */
+    public void start() {
+        send(RedisCommandType.CLIENT_ID, Collections.emptyList(), reply -> subscribe(reply.getValue()));
+    }
+
+    /**
+     * Turns off tracking for the pool and closes the connection.
+     */
+    public void finish() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        pool.disableTracking();
+        publish(vertx, config, null);
+        try {
+            socket.close();
+        } catch (Exception ex) {
+            log.error("finish", "exception", "closingSocket", ex);
+        }
+    }
+
+    private void subscribe(Object clientId) {
+        send(RedisCommandType.SUBSCRIBE, Collections.singletonList(INVALIDATION_CHANNEL), reply -> {
+            log.info("subscribe", "trackingEnabled", new String[]{"clientId", "mode"}, clientId, config.getTrackingMode());
+            pool.enableTracking(getTrackingArguments(config, clientId));
+            publish(vertx, config, null);
+        });
+    }
+
+    /**
+     * The CLIENT TRACKING arguments for the tracking mode in the config.
+     *
+     * @param config - The Redis config with the tracking settings.
+     * @param clientId - The id of the connection to redirect the invalidations to, or null for none.
+     * @return - The list of arguments, starting with "ON".
+     */
+    static List<Object> getTrackingArguments(RedisConfig config, Object clientId) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.add("ON");
+        if (clientId != null) {
+            arguments.add("REDIRECT");
+            arguments.add(clientId.toString());
+        }
+        if (config.isTrackingBroadcast()) {
+            arguments.add("BCAST");
+            for (String prefix : config.getTrackingPrefixes()) {
+                arguments.add("PREFIX");
+                arguments.add(prefix);
+            }
+        }
+        return arguments;
+    }
+
+    private void send(RedisCommandType type, List<?> arguments, Handler<RedisReply> handler) {
+        RedisCommand command = new RedisCommand(type, arguments);
+        Future<RedisReply> response = Future.future();
+        response.setHandler(result -> {
+            if (closed) {
+                return;
+            }
+
+            if (result.failed() || result.result().isError()) {
+                log.warn("send", "failure", new String[]{"command", "response"}, type.getCommand(),
+                        result.failed() ? result.cause().getMessage() : result.result().getValue());
+                finish();
+            } else {
+                handler.handle(result.result());
+            }
+        });
+        command.replyResponse(response);
+        socket.sendCommand(Collections.singletonList(command));
+    }
+
+    /**
+     * Publishes the keys from an invalidation.  On RESP2 this is a message sent to the subscribed connection,
+     * an array of the message type, the channel and the invalidated keys.  On RESP3 it is a push frame of
+     * the type and the invalidated keys.  Other replies are ignored.
+     *
+     * @param vertx - The Vertx instance used to publish the invalidations.
+     * @param config - The Redis config with the invalidation address.
+     * @param reply - The message or push frame.
+     */
+    static void handlePush(Vertx vertx, RedisConfig config, RedisReply reply) {
+        List<?> message = reply.getValue() instanceof List ? (List<?>) reply.getValue() : Collections.emptyList();
+        Object keys;
+        if (message.size() == 3 && MESSAGE.equals(message.get(0))) {
+            keys = message.get(2);
+        } else if (message.size() == 2 && INVALIDATE.equals(message.get(0))) {
+            keys = message.get(1);
+        } else {
+            log.warn("handlePush", "unexpectedReply", new String[]{"reply"}, reply);
+            return;
+        }
+
+        if (keys == null) {
+            publish(vertx, config, null);
+        } else if (keys instanceof List) {
+            JsonArray invalidated = new JsonArray();
+            for (Object key : (List<?>) keys) {
+                invalidated.add(((Buffer) key).getBytes());
+            }
+            publish(vertx, config, invalidated);
+        } else {
+            publish(vertx, config, new JsonArray().add(((Buffer) keys).getBytes()));
+        }
+    }
+
+    /**
+     * Publishes an invalidation on the invalidation address.
+     *
+     * @param vertx - The Vertx instance used to publish the invalidation.
+     * @param config - The Redis config with the invalidation address.
+     * @param keys - The invalidated keys, or null for every key.
+     */
+    static void publish(Vertx vertx, RedisConfig config, JsonArray keys) {
+        log.trace("publish", "invalidate", new String[]{"keys"}, keys);
+        vertx.eventBus().publish(config.getInvalidationAddress(), new JsonObject().put("keys", keys));
+    }
+}
@@ -28,4 +28,21 @@ public interface RedisKeys {
     String EVENT_BUS_ADDRESS_KEY = "eventBusAddress";
     String RETRY_INTERVAL_KEY = "retryInterval";
     String REPLY_TIMEOUT_KEY = "replyTimeout";
+    String POOL_SIZE_KEY = "poolSize";
+    String COALESCE_WRITES_KEY = "coalesceWrites";
+    String FLUSH_DELAY_KEY = "flushDelay";
+    String FLUSH_MAX_BYTES_KEY = "flushMaxBytes";
+    String FLUSH_MAX_COMMANDS_KEY = "flushMaxCommands";
+    String WRITE_QUEUE_MAX_SIZE_KEY = "writeQueueMaxSize";
+    String TRACKING_MODE_KEY = "trackingMode";
+    String TRACKING_PREFIXES_KEY = "trackingPrefixes";
+    String INVALIDATION_ADDRESS_KEY = "invalidationAddress";
+    String PROTOCOL_KEY = "protocol";
+    String CLUSTER_KEY = "cluster";
+    String SHARDS_KEY = "shards";
+    String WEIGHT_KEY = "weight";
+    String REPLICAS_KEY = "replicas";
+    String READ_POLICY_KEY = "readPolicy";
+    String SENTINELS_KEY = "sentinels";
+    String MASTER_NAME_KEY = "masterName";
 }
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import io.vertx.core.eventbus.EventBus;
+
+/**
+ * Registers the codecs used to send <code>RedisCommandBatch</code>, <code>RedisReply</code> and
+ * <code>RedisBatchReply</code> messages.
+ *
+ * @since 3.2.0
+ */
+public final class RedisMessageCodecs {
+    private RedisMessageCodecs() { }
+
+    /**
+     * Registers the Redis codecs with the event bus.  Codecs which are already registered are left as they are,
+     * so this may be called by every verticle and client using them.
+     *
+     * @param eventBus - The event bus to register the codecs with.
+     */
+    public static void register(EventBus eventBus) {
+        try {
+            eventBus.registerCodec(new RedisCommandBatchCodec());
+        } catch (IllegalStateException ex) {
+            // Already registered.
+        }
+
+        try {
+            eventBus.registerCodec(new RedisReplyCodec());
+        } catch (IllegalStateException ex) {
+            // Already registered.
+        }
+
+        try {
+            eventBus.registerCodec(new RedisBatchReplyCodec());
+        } catch (IllegalStateException ex) {
+            // Already registered.
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A local cache of the responses to read commands, used by the near cache view of a command client.  The
+ * responses are grouped by the Redis key they read, so all of the cached responses for a key are evicted
+ * together when the key is invalidated.  Keys are evicted in least recently used order once the cache holds
+ * more than the maximum number of responses or the maximum number of bytes, and each response expires after
+ * the TTL of its key.
+ * <br>
+ * The size of a response is estimated from the length of the values it contains.  String and Buffer keys
+ * with the same UTF-8 bytes are the same key.
+ *
+ * @since 3.2.0
+ */
+public final class RedisNearCache {
+    private static final int MAX_INVALIDATED_KEYS = 10000;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ToLongFunction<Object> ttl;
+    private final LongSupplier clock;
+    private final LinkedHashMap<Buffer, Map<List<Object>, Entry>> keys = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Buffer, Long> invalidated = new HashMap<>();
+    private int entries;
+    private long bytes;
+    private long generation;
+    private long invalidatedAll;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache where every response is cached for the same number of milliseconds.
+     *
+     * @param maxEntries - The maximum number of cached responses, 0 for no limit.
+     * @param maxBytes - The maximum estimated size of the cached responses, 0 for no limit.
+     * @param ttl - The number of milliseconds to cache a response.
+     */
+    public RedisNearCache(int maxEntries, long maxBytes, long ttl) {
+        this(maxEntries, maxBytes, key -> ttl);
+    }
+
+    /**
+     * Creates a cache where the number of milliseconds to cache a response depends on its key.
+     *
+     * @param maxEntries - The maximum number of cached responses, 0 for no limit.
+     * @param maxBytes - The maximum estimated size of the cached responses, 0 for no limit.
+     * @param ttl - Returns the number of milliseconds to cache the responses for a key, which is a String or a
+     *            Buffer.  Responses for keys with a TTL of 0 or less are not cached.
+     */
+    public RedisNearCache(int maxEntries, long maxBytes, ToLongFunction<Object> ttl) {
+        this(maxEntries, maxBytes, ttl, System::currentTimeMillis);
+    }
+
+    RedisNearCache(int maxEntries, long maxBytes, ToLongFunction<Object> ttl, LongSupplier clock) {
+        if (maxEntries < 0 || maxBytes < 0 || ttl == null) {
+            throw new IllegalArgumentException("Invalid near cache limits");
+        }
+
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Removes the keys published by a RedisVerticle with a CLIENT TRACKING mode configured, so the cache also
+     * sees writes from other clients.  The keys are published as their Base64 encoded bytes, and a message
+     * with null keys removes all of the cached responses.
+     *
+     * @param eventBus - The event bus the invalidations are published on.
+     * @param invalidationAddress - The invalidation address from the Redis config.
+     * @return - The consumer, which can be unregistered to stop listening.
+     */
+    public MessageConsumer<JsonObject> listen(EventBus eventBus, String invalidationAddress) {
+        return eventBus.consumer(invalidationAddress, message -> {
+            JsonArray keys = message.body().getJsonArray("keys");
+            if (keys == null) {
+                invalidateAll();
+            } else {
+                for (int i = 0; i < keys.size(); i++) {
+                    invalidate(keys.getBinary(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the responses cached for the key.
+     *
+     * @param key - The Redis key as a String, Buffer or byte[].
+     */
+    public synchronized void invalidate(Object key) {
+        generation++;
+        Buffer invalidatedKey = toKey(key);
+        if (invalidated.size() >= MAX_INVALIDATED_KEYS) {
+            invalidated.clear();
+            invalidatedAll = generation;
+        }
+        invalidated.put(invalidatedKey, generation);
+
+        Map<List<Object>, Entry> responses = keys.remove(invalidatedKey);
+        if (responses != null) {
+            removed(responses);
+        }
+    }
+
+    /**
+     * Removes all of the cached responses.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidated.clear();
+        invalidatedAll = generation;
+        keys.clear();
+        entries = 0;
+        bytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of responses removed because the cache was full or they expired.
+     *
+     * @return - The number of evicted responses.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * The number of cached responses.
+     *
+     * @return - The number of responses.
+     */
+    public synchronized int size() {
+        return entries;
+    }
+
+    /**
+     * The estimated size of the cached responses.
+     *
+     * @return - The number of bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * The number of invalidations so far.  A response read before its key was invalidated is not cached, since
+     * it may be older than the write which caused the invalidation.  The generation of the latest invalidation
+     * is kept for up to 10000 keys, after which every read sent before then is treated as invalidated.
+     *
+     * @return - The invalidation generation.
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns a copy of the cached response to the command.
+     *
+     * @param command - The read command, whose first argument is the key.
+     * @return - The cached response, or null if there isn't one.
+     */
+    synchronized JsonObject get(RedisCommand command) {
+        Buffer key = toKey(command.getArgumentValues().get(0));
+        Map<List<Object>, Entry> responses = keys.get(key);
+        Entry entry = responses != null ? responses.get(toCommandKey(command)) : null;
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (entry.expires <= clock.getAsLong()) {
+            responses.remove(toCommandKey(command));
+            if (responses.isEmpty()) {
+                keys.remove(key);
+            }
+            entries--;
+            bytes -= entry.bytes;
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.response.copy();
+    }
+
+    /**
+     * Caches a copy of the response to the command, unless its key has been invalidated since it was sent.
+     *
+     * @param command - The read command, whose first argument is the key.
+     * @param response - The successful response.
+     * @param sentGeneration - The generation when the command was sent.
+     */
+    synchronized void put(RedisCommand command, JsonObject response, long sentGeneration) {
+        Object argument = command.getArgumentValues().get(0);
+        Buffer key = toKey(argument);
+        Long keyGeneration = invalidated.get(key);
+        if (sentGeneration < invalidatedAll || (keyGeneration != null && sentGeneration < keyGeneration)) {
+            return;
+        }
+
+        long keyTtl = ttl.applyAsLong(argument instanceof byte[] ? Buffer.buffer((byte[]) argument) : argument);
+        if (keyTtl <= 0) {
+            return;
+        }
+
+        Entry entry = new Entry(response.copy(), estimateBytes(response), clock.getAsLong() + keyTtl);
+        Entry previous = keys.computeIfAbsent(key, k -> new HashMap<>()).put(toCommandKey(command), entry);
+        if (previous != null) {
+            entries--;
+            bytes -= previous.bytes;
+        }
+        entries++;
+        bytes += entry.bytes;
+
+        Iterator<Map<List<Object>, Entry>> eldest = keys.values().iterator();
+        while (eldest.hasNext() && ((maxEntries > 0 && entries > maxEntries) || (maxBytes > 0 && bytes > maxBytes))) {
+            Map<List<Object>, Entry> responses = eldest.next();
+            eldest.remove();
+            evictions += responses.size();
+            removed(responses);
+        }
+    }
+
+    private void removed(Map<List<Object>, Entry> responses) {
+        for (Entry entry : responses.values()) {
+            entries--;
+            bytes -= entry.bytes;
+        }
+    }
+
+    private static Buffer toKey(Object key) {
+        if (key instanceof Buffer) {
+            return (Buffer) key;
+        } else if (key instanceof byte[]) {
+            return Buffer.buffer((byte[]) key);
+        }
+        return Buffer.buffer(key.toString());
+    }
+
+    private static List<Object> toCommandKey(RedisCommand command) {
+        List<Object> arguments = command.getArgumentValues();
+        List<Object> commandKey = new ArrayList<>(arguments.size());
+        commandKey.add(command.getType());
+        for (int i = 1; i < arguments.size(); i++) {
+            commandKey.add(toKey(arguments.get(i)));
+        }
+        return commandKey;
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value instanceof JsonObject) {
+            long size = 0;
+            for (Map.Entry<String, Object> field : (JsonObject) value) {
+                size += field.getKey().length() + estimateBytes(field.getValue());
+            }
+            return size;
+        } else if (value instanceof JsonArray) {
+            long size = 0;
+            for (Object element : (JsonArray) value) {
+                size += estimateBytes(element);
+            }
+            return size;
+        } else if (value instanceof String) {
+            return ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        return 8;
+    }
+
+    /**
+     * A cached response.
+     */
+    private static final class Entry {
+        private final JsonObject response;
+        private final long bytes;
+        private final long expires;
+
+        Entry(JsonObject response, long bytes, long expires) {
+            this.response = response;
+            this.bytes = bytes;
+            this.expires = expires;
+        }
+    }
+}
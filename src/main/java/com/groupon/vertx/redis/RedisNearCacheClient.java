@@ -0,0 +1,91 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Serves the responses to single key read commands from a <code>RedisNearCache</code>, sending them through
+ * another client on a miss.  Any other command sent through this client invalidates the cached responses for
+ * each of its keys before it is sent and again once it completes, so the responses cached by this client never
+ * outlive its own writes.  The keys include every key of a multi-key command, such as the destination of
+ * RENAME, RPOPLPUSH and SORT with STORE.  Writes by other clients are only seen once the responses expire.
+ *
+ * @since 3.2.0
+ */
+final class RedisNearCacheClient extends RedisBaseClient {
+    private static final Set<RedisCommandType> CACHEABLE = EnumSet.of(
+            RedisCommandType.GET, RedisCommandType.GETBIT, RedisCommandType.GETRANGE, RedisCommandType.STRLEN,
+            RedisCommandType.HEXISTS, RedisCommandType.HGET, RedisCommandType.HGETALL, RedisCommandType.HKEYS,
+            RedisCommandType.HLEN, RedisCommandType.HMGET, RedisCommandType.HVALS, RedisCommandType.LINDEX,
+            RedisCommandType.LLEN, RedisCommandType.LRANGE, RedisCommandType.SCARD, RedisCommandType.SISMEMBER,
+            RedisCommandType.SMEMBERS, RedisCommandType.ZCARD, RedisCommandType.ZCOUNT, RedisCommandType.ZRANGE,
+            RedisCommandType.ZRANGEBYSCORE, RedisCommandType.ZRANK, RedisCommandType.ZREVRANGE,
+            RedisCommandType.ZREVRANGEBYSCORE, RedisCommandType.ZREVRANK, RedisCommandType.ZSCORE);
+    private final RedisBaseClient client;
+    private final RedisNearCache cache;
+
+    RedisNearCacheClient(RedisBaseClient client, RedisNearCache cache) {
+        super(client.eventBus, client.eventBusAddress, client.replyTimeout);
+        this.client = client;
+        this.cache = cache;
+    }
+
+    @Override
+    protected Future<JsonObject> sendCommand(final RedisCommand command) {
+        RedisCommandType type = command.getType();
+        if (CACHEABLE.contains(type) && !command.getArgumentValues().isEmpty()) {
+            JsonObject cached = cache.get(command);
+            if (cached != null) {
+                return Future.succeededFuture(cached);
+            }
+
+            final long generation = cache.getGeneration();
+            final Future<JsonObject> finalResult = Future.future();
+            client.sendCommand(command).setHandler(result -> {
+                if (result.succeeded() && result.result() != null && "success".equals(result.result().getString("status"))) {
+                    cache.put(command, result.result(), generation);
+                }
+                finalResult.handle(result);
+            });
+            return finalResult;
+        } else if (type.isReadOnly()) {
+            return client.sendCommand(command);
+        }
+
+        invalidate(command);
+        final Future<JsonObject> finalResult = Future.future();
+        client.sendCommand(command).setHandler(result -> {
+            invalidate(command);
+            finalResult.handle(result);
+        });
+        return finalResult;
+    }
+
+    private void invalidate(RedisCommand command) {
+        if (command.getType() == RedisCommandType.FLUSHALL || command.getType() == RedisCommandType.FLUSHDB) {
+            cache.invalidateAll();
+        } else {
+            for (Object key : command.getKeys()) {
+                cache.invalidate(key);
+            }
+        }
+    }
+}
@@ -15,6 +15,11 @@
  */
 package com.groupon.vertx.redis;
 
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetSocket;
 
@@ -42,7 +47,6 @@ import io.vertx.core.net.NetSocket;
 public class RedisOutputStream {
     private static final int[] SIZE_TABLE = {9, 99, 999, 9999, 99999, 999999, 9999999, 99999999, 999999999, Integer.MAX_VALUE};
     private static final int DEFAULT_BUFFER_SIZE = 8192;
-    private static final int WRITE_QUEUE_MAX_SIZE = 123;
     private static final byte[] DIGIT_TENS = {
         '0', '0', '0', '0', '0', '0', '0', '0', '0', '0',
         '1', '1', '1', '1', '1', '1', '1', '1', '1', '1',
@@ -77,54 +81,111 @@ public class RedisOutputStream {
     };
     private final NetSocket socket;
     private final int maxBuffer;
-    private Buffer buffer;
+    private ByteBuf buffer;
+    private int limit;
 
     public RedisOutputStream(NetSocket socket) {
         this(socket, DEFAULT_BUFFER_SIZE);
     }
 
+    /**
+     * The maximum buffer size is the number of bytes buffered before they are written to the socket.  A single
+     * value larger than this is written as a whole, and a reservation made with <code>reserve</code> raises the
+     * limit for the data it covers.
+     *
+     * @param socket - The socket to write to.
+     * @param maxBuffer - The number of bytes to buffer before writing to the socket.
+     */
     public RedisOutputStream(NetSocket socket, final int maxBuffer) {
         if (maxBuffer <= 0) {
             throw new IllegalArgumentException("Invalid buffer size");
         }
 
         this.socket = socket;
-        this.buffer = Buffer.buffer();
+        this.buffer = Unpooled.buffer(0);
         this.maxBuffer = maxBuffer;
+        this.limit = maxBuffer;
+    }
+
+    /**
+     * Makes room for the given number of bytes so they are written with a single allocation and are not split
+     * across socket writes.  If the buffered data plus the new bytes would go over the maximum buffer size the
+     * buffered data is written first.
+     *
+     * @param length - The number of bytes about to be written.
+     */
+    public void reserve(int length) {
+        if (buffer.readableBytes() + length > maxBuffer) {
+            flushBuffer();
+        }
+
+        if (buffer.readableBytes() == 0 && buffer.capacity() < length) {
+            buffer = Unpooled.buffer(length);
+        } else {
+            buffer.ensureWritable(length);
+        }
+        limit = Math.max(maxBuffer, buffer.readableBytes() + length);
     }
 
     public void write(final byte b) {
-        buffer.appendByte(b);
-        if (buffer.length() == maxBuffer) {
+        buffer.writeByte(b);
+        if (buffer.readableBytes() >= limit) {
             flushBuffer();
         }
     }
 
     public void write(byte[] bytes) {
-        for (int i = 0; i < bytes.length; i++) {
-            write(bytes[i]);
+        makeRoom(bytes.length);
+        buffer.writeBytes(bytes);
+        flushIfFull();
+    }
+
+    public void write(Buffer bytes) {
+        makeRoom(bytes.length());
+        buffer.writeBytes(bytes.getByteBuf());
+        flushIfFull();
+    }
+
+    /**
+     * Writes a String as UTF-8 straight into the buffer without creating an intermediate byte[].  ASCII
+     * Strings, where the UTF-8 length matches the String length, take the cheaper ASCII path which also
+     * avoids reserving room for the worst case UTF-8 length.
+     *
+     * @param value - The String to write.
+     * @param utf8Length - The length of the String in UTF-8, as returned by <code>utf8Length</code>.
+     */
+    public void write(String value, int utf8Length) {
+        makeRoom(utf8Length);
+        if (utf8Length == value.length()) {
+            ByteBufUtil.writeAscii(buffer, value);
+        } else {
+            int start = buffer.writerIndex();
+            if (ByteBufUtil.writeUtf8(buffer, value) != utf8Length) {
+                // Some Netty versions write the char after an unpaired high surrogate as one byte, so the
+                // String is written again with the JDK encoder to match the length in the bulk header.
+                buffer.writerIndex(start);
+                buffer.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
         }
+        flushIfFull();
     }
 
     public void write(int value) {
         if (value < 0) {
-            write('-');
+            write((byte) '-');
             value = -value;
         }
 
-        int size = 0;
-        while (value > SIZE_TABLE[size]) {
-            size++;
-        }
-
-        size++;
-        if (size >= maxBuffer - buffer.length()) {
+        int size = stringSize(value);
+        if (size > limit - buffer.readableBytes()) {
             flushBuffer();
         }
 
+        buffer.ensureWritable(size);
+
         int q;
         int r;
-        int charPos = buffer.length() + size;
+        int charPos = buffer.writerIndex() + size;
 
         // CS.OFF: MagicNumber
         while (value >= 65536) {
@@ -145,26 +206,112 @@ public class RedisOutputStream {
             }
         }
         // CS.ON: MagicNumber
+
+        buffer.writerIndex(buffer.writerIndex() + size);
     }
 
     public void writeCrlf() {
-        if (2 >= (maxBuffer - buffer.length())) {
+        if (2 > (limit - buffer.readableBytes())) {
             flushBuffer();
         }
 
-        buffer.appendByte((byte) '\r');
-        buffer.appendByte((byte) '\n');
+        buffer.writeByte('\r');
+        buffer.writeByte('\n');
     }
 
     public void flush() {
         flushBuffer();
-        socket.setWriteQueueMaxSize(WRITE_QUEUE_MAX_SIZE);
     }
 
+    /**
+     * The number of bytes needed to write an array header with the given number of elements:
+     * <code>'*{count}\r\n'</code>
+     *
+     * @param count - The number of elements in the array.
+     * @return - The encoded length.
+     */
+    public static int arrayLength(int count) {
+        return 1 + stringSize(count) + 2;
+    }
+
+    /**
+     * The number of bytes needed to write a bulk string of the given length:
+     * <code>'${length}\r\n{value}\r\n'</code>
+     *
+     * @param length - The length of the value in bytes.
+     * @return - The encoded length.
+     */
+    public static int bulkLength(int length) {
+        return 1 + stringSize(length) + 2 + length + 2;
+    }
+
+    /**
+     * Counts the bytes needed to encode a String as UTF-8 without encoding it.  An unpaired surrogate is
+     * written as a single '?', as the JDK and Netty encoders do.
+     *
+     * @param value - The String to measure.
+     * @return - The length of the String in UTF-8.
+     */
+    public static int utf8Length(CharSequence value) {
+        int length = value.length();
+        int utf8Length = length;
+        // CS.OFF: MagicNumber
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    utf8Length += 2;
+                }
+            } else if (c >= 0x80) {
+                utf8Length++;
+            }
+        }
+        // CS.ON: MagicNumber
+        return utf8Length;
+    }
+
+    private static int stringSize(int value) {
+        int size = 0;
+        while (value > SIZE_TABLE[size]) {
+            size++;
+        }
+        return size + 1;
+    }
+
+    /**
+     * Writes the buffered data first when the new bytes would take it over the maximum buffer size.
+     *
+     * @param length - The number of bytes about to be written.
+     */
+    private void makeRoom(int length) {
+        if (buffer.readableBytes() > 0 && length > limit - buffer.readableBytes()) {
+            flushBuffer();
+        }
+
+        if (buffer.readableBytes() == 0 && buffer.capacity() < length) {
+            buffer = Unpooled.buffer(length);
+        }
+    }
+
+    private void flushIfFull() {
+        if (buffer.readableBytes() >= limit) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Hands the buffered data to the socket.  The socket writes it asynchronously so a new buffer is used for the
+     * next writes.  Vert.x wraps written data as unreleasable, so the buffers are plain heap buffers rather than
+     * pooled ones which would never be returned to their pool.
+     */
     private void flushBuffer() {
-        if (buffer.length() > 0) {
-            socket.write(buffer);
-            buffer = Buffer.buffer();
+        if (buffer.readableBytes() > 0) {
+            socket.write(Buffer.buffer(buffer));
+            buffer = Unpooled.buffer(0);
         }
+        limit = maxBuffer;
     }
 }
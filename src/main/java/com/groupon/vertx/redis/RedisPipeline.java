@@ -0,0 +1,146 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Returns a stateful command client of type RedisCommandPipeline.  Across the event bus the commands are
+ * sent in one message, either as JSON or as a <code>RedisCommandBatch</code>, and the single reply to the
+ * message is split back into the futures of the individual commands.
+ *
+ * @since 3.2.0
+ */
+final class RedisPipeline extends RedisBaseClient implements RedisCommandPipeline {
+    private final List<RedisCommand> pendingCommands = new ArrayList<>();
+    private final RedisDirectClient directClient;
+    private final boolean useCodec;
+    private final boolean coalesceReads;
+
+    RedisPipeline(EventBus eventBus, String eventBusAddress, long timeout, boolean useCodec) {
+        this(eventBus, eventBusAddress, timeout, useCodec, false);
+    }
+
+    RedisPipeline(EventBus eventBus, String eventBusAddress, long timeout, boolean useCodec, boolean coalesceReads) {
+        super(eventBus, eventBusAddress, timeout);
+        this.directClient = null;
+        this.useCodec = useCodec;
+        this.coalesceReads = coalesceReads;
+    }
+
+    RedisPipeline(RedisDirectClient directClient) {
+        super(directClient.eventBus, directClient.eventBusAddress, directClient.replyTimeout);
+        this.directClient = directClient;
+        this.useCodec = false;
+        this.coalesceReads = false;
+    }
+
+    public void discard() {
+        pendingCommands.clear();
+    }
+
+    public void flush() {
+        if (pendingCommands.isEmpty()) {
+            return;
+        }
+
+        final List<RedisCommand> commands = coalesceReads
+                ? RedisCommandCoalescer.coalesce(new ArrayList<>(pendingCommands))
+                : new ArrayList<>(pendingCommands);
+        pendingCommands.clear();
+
+        if (directClient != null) {
+            directClient.sendPipeline(commands);
+            return;
+        }
+
+        final DeliveryOptions deliveryOptions = new DeliveryOptions().setSendTimeout(replyTimeout);
+        final Object message;
+        if (useCodec) {
+            deliveryOptions.setCodecName(RedisCommandBatchCodec.CODEC_NAME);
+            message = new RedisCommandBatch(commands, false);
+        } else {
+            JsonArray jsonCommands = new JsonArray();
+            for (RedisCommand command : commands) {
+                jsonCommands.add(command.toJson());
+            }
+            message = new JsonObject().put("commands", jsonCommands);
+        }
+
+        eventBus.send(eventBusAddress, message, deliveryOptions, new Handler<AsyncResult<Message<Object>>>() {
+            @Override
+            public void handle(AsyncResult<Message<Object>> messageAsyncResult) {
+                if (messageAsyncResult.failed()) {
+                    RedisCommandException exception = createException(messageAsyncResult.cause());
+                    for (RedisCommand command : commands) {
+                        command.getClientCommandResponse().tryFail(exception);
+                    }
+                    return;
+                }
+
+                Object body = messageAsyncResult.result().body();
+                if (body instanceof RedisBatchReply) {
+                    List<Object> replies = ((RedisBatchReply) body).getReplies();
+                    for (int i = 0; i < commands.size(); i++) {
+                        commands.get(i).getClientCommandResponse().tryComplete(toJsonReply(replies.get(i)));
+                    }
+                } else if (commands.size() > 1 && isBatchResponse(body)) {
+                    JsonArray responses = ((JsonObject) body).getJsonArray("data");
+                    for (int i = 0; i < commands.size(); i++) {
+                        commands.get(i).getClientCommandResponse().tryComplete(responses.getJsonObject(i));
+                    }
+                } else {
+                    // A single command, or an error response for the whole batch.
+                    JsonObject response = toJsonReply(body);
+                    for (RedisCommand command : commands) {
+                        command.getClientCommandResponse().tryComplete(response);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * A JSON message with several commands is replied to with the responses in the data array, unless the
+     * message itself was rejected.
+     *
+     * @param body - The body of the reply message.
+     * @return - True if the body contains a response for each command.
+     */
+    private boolean isBatchResponse(Object body) {
+        return body instanceof JsonObject
+                && "success".equals(((JsonObject) body).getString("status"))
+                && ((JsonObject) body).getValue("data") instanceof JsonArray;
+    }
+
+    @Override
+    protected Future<JsonObject> sendCommand(RedisCommand command) {
+        final Future<JsonObject> finalResult = Future.future();
+        command.setClientCommandResponse(finalResult);
+        pendingCommands.add(command);
+        return finalResult;
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+
+import com.groupon.vertx.utils.Logger;
+
+/**
+ * The connections to a Redis server and its replicas, registered under one event bus address.  Messages
+ * made up of read-only commands are spread across the replicas by the read policy in the config, while a
+ * message with any command which writes, including every transaction, is sent whole to the primary.  The
+ * reads in a message therefore always see the writes before them in the same message.
+ * <br>
+ * The replicas are updated asynchronously, so a read sent to a replica may not see a write which was just
+ * made on the primary by an earlier message.
+ *
+ * @since 3.2.0
+ */
+public class RedisReplicatedPool extends RedisConnectionPool {
+    private static final Logger log = Logger.getLogger(RedisReplicatedPool.class);
+    private final Vertx vertx;
+    private final RedisConfig config;
+    private final NetClient netClient;
+    private final RedisCommandHandler commandHandler;
+    private final RedisConnectionPool primary;
+    private final List<RedisConnectionPool> replicas = new ArrayList<>();
+    private MessageConsumer<JsonObject> consumer;
+    private int nextRead;
+
+    /**
+     * Creates the pool for the host and the replicas in the config.  Nothing is connected until it is started.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config with the replicas.
+     * @param netClient - The client for connecting to Redis.
+     */
+    public RedisReplicatedPool(Vertx vertx, RedisConfig config, NetClient netClient) {
+        super(vertx, config.getEventBusAddress());
+        this.vertx = vertx;
+        this.config = config;
+        this.netClient = netClient;
+        this.commandHandler = new RedisCommandHandler(this);
+        this.primary = new RedisConnectionPool(vertx, null);
+
+        for (int i = 0; i < config.getReplicas().size(); i++) {
+            replicas.add(new RedisConnectionPool(vertx, null));
+        }
+    }
+
+    /**
+     * Connects to the primary and every replica and registers the event bus consumer.
+     */
+    public void start() {
+        primary.connect(config, netClient, config.getHost(), config.getPort());
+        for (int index = 0; index < replicas.size(); index++) {
+            RedisEndpoint replica = config.getReplicas().get(index);
+            replicas.get(index).connect(config, netClient, replica.getHost(), replica.getPort());
+        }
+
+        log.trace("start", "registerConsumer", new String[]{"eventBusAddress"}, config.getEventBusAddress());
+        consumer = vertx.eventBus().consumer(config.getEventBusAddress(), this);
+    }
+
+    /**
+     * Unregisters the event bus consumer and closes the connections to the primary and every replica.
+     */
+    @Override
+    public void close() {
+        if (consumer != null) {
+            consumer.unregister();
+            consumer = null;
+        }
+
+        primary.close();
+        for (RedisConnectionPool replica : replicas) {
+            replica.close();
+        }
+    }
+
+    @Override
+    public void handle(Message<JsonObject> message) {
+        Object body = ((Message<?>) message).body();
+        if (body instanceof RedisCommandBatch) {
+            commandHandler.handleBatch(message, (RedisCommandBatch) body);
+        } else {
+            commandHandler.handle(message);
+        }
+    }
+
+    /**
+     * Sends the commands to the pool chosen by the read policy if they are all read-only, and otherwise sends
+     * all of them to the primary in order.  This must be called from the context of the pool.
+     *
+     * @param commands - The list of Redis commands.
+     */
+    @Override
+    public void sendCommand(List<RedisCommand> commands) {
+        for (RedisCommand command : commands) {
+            if (!command.getType().isReadOnly()) {
+                primary.sendCommand(commands);
+                return;
+            }
+        }
+        getReadPool().sendCommand(commands);
+    }
+
+    /**
+     * The number of open connections to the primary.
+     *
+     * @return - The number of connections.
+     */
+    @Override
+    public int size() {
+        return primary.size();
+    }
+
+    /**
+     * The pool the next read-only commands are sent to.  Pools without an open connection are skipped, and
+     * the primary is used when none of the pools the policy chooses from is connected.
+     *
+     * @return - The pool for the read-only commands.
+     */
+    RedisConnectionPool getReadPool() {
+        String policy = config.getReadPolicy();
+        if (RedisConfig.READ_ROUND_ROBIN.equals(policy)) {
+            for (int i = 0; i <= replicas.size(); i++) {
+                nextRead = (nextRead + 1) % (replicas.size() + 1);
+                RedisConnectionPool pool = nextRead < replicas.size() ? replicas.get(nextRead) : primary;
+                if (pool.size() > 0) {
+                    return pool;
+                }
+            }
+            return primary;
+        }
+
+        RedisConnectionPool next = null;
+        for (RedisConnectionPool replica : replicas) {
+            if (replica.size() > 0 && (next == null || replica.getPendingCommands() < next.getPendingCommands())) {
+                next = replica;
+            }
+        }
+
+        // The replicas win ties, so the primary only takes reads while it is less busy.
+        if (next == null || (RedisConfig.READ_LEAST_PENDING.equals(policy) && primary.size() > 0
+                && primary.getPendingCommands() < next.getPendingCommands())) {
+            next = primary;
+        }
+        return next;
+    }
+
+    /**
+     * The pool of connections to the primary.
+     *
+     * @return - The primary pool.
+     */
+    RedisConnectionPool getPrimary() {
+        return primary;
+    }
+
+    /**
+     * The pools of the replicas in the order of the config.
+     *
+     * @return - The list of replica pools.
+     */
+    List<RedisConnectionPool> getReplicas() {
+        return replicas;
+    }
+}
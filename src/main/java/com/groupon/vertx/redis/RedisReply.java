@@ -0,0 +1,191 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A reply from the Redis server as it was read from the socket.  The value depends on the type of the reply:
+ * <br>
+ * <code>
+ * STATUS_CODE      - String
+ * ERROR            - String
+ * INTEGER_REPLY    - Long
+ * BULK_REPLY       - Buffer or null
+ * MULTI_BULK_REPLY - List of the above or null
+ * </code>
+ * <br>
+ * On a connection which has negotiated RESP3 the reply may also be one of:
+ * <br>
+ * <code>
+ * NULL             - null
+ * DOUBLE           - Double
+ * BOOLEAN          - Boolean
+ * BIG_NUMBER       - BigInteger
+ * BULK_ERROR       - String
+ * VERBATIM_STRING  - Buffer without the format prefix
+ * MAP              - Map of the above in the order they were sent
+ * SET              - List of the above
+ * PUSH             - List of the above
+ * </code>
+ * <br>
+ * A MULTI_BULK_REPLY merged from the replies of several cluster nodes may hold an ERROR reply in place of each
+ * value which could not be read.  It is rendered into the JsonObject format as the JSend failure of that value.
+ * <br>
+ * Bulk values are slices of the data read from the socket, so no bytes are copied or decoded.  A slice keeps
+ * the socket data it was read from reachable, so callers holding on to a value for a long time should copy it.
+ *
+ * @since 3.2.0
+ */
+public final class RedisReply {
+    private static final Charset ENCODING = Charset.forName("UTF-8");
+    private final RedisResponseType type;
+    private final Object value;
+
+    public RedisReply(RedisResponseType type, Object value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * The type of the reply based on the marker sent by Redis.
+     *
+     * @return - The reply type.
+     */
+    public RedisResponseType getType() {
+        return type;
+    }
+
+    /**
+     * True if Redis returned an error for the command.
+     *
+     * @return - If the reply is an error.
+     */
+    public boolean isError() {
+        return type.getResp2Type() == RedisResponseType.ERROR;
+    }
+
+    /**
+     * The value of the reply.
+     *
+     * @return - The value of the reply, which may be null.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Renders the reply into the JsonObject format sent across the event bus.  Bulk values are decoded as
+     * UTF-8 Strings.  RESP3 values are rendered the way RESP2 sends them, so the JsonObject does not depend
+     * on the protocol: maps as an array of keys and values, doubles formatted as Redis formats them and big
+     * numbers as Strings, and booleans as 1 or 0.
+     *
+     * @return - A JsonObject containing the reply.
+     */
+    public JsonObject toJson() {
+        JsonObject response = new JsonObject();
+        response.put("status", isError() ? "fail" : "success");
+        response.put("data", toJsonValue(value));
+        return response;
+    }
+
+    private static Object toJsonValue(Object value) {
+        if (value instanceof Buffer) {
+            return ((Buffer) value).toString(ENCODING);
+        } else if (value instanceof List) {
+            JsonArray values = new JsonArray();
+            for (Object element : (List<?>) value) {
+                addJsonValue(values, element);
+            }
+            return values;
+        } else if (value instanceof Map) {
+            JsonArray values = new JsonArray();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                addJsonValue(values, entry.getKey());
+                addJsonValue(values, entry.getValue());
+            }
+            return values;
+        } else if (value instanceof Double) {
+            return formatDouble((Double) value);
+        } else if (value instanceof BigInteger) {
+            return value.toString();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        } else if (value instanceof RedisReply) {
+            return ((RedisReply) value).toJson();
+        } else {
+            return value;
+        }
+    }
+
+    private static void addJsonValue(JsonArray values, Object element) {
+        Object jsonValue = toJsonValue(element);
+        if (jsonValue == null) {
+            values.addNull();
+        } else {
+            values.add(jsonValue);
+        }
+    }
+
+    /**
+     * Formats a double the way Redis formats the ones it sends as bulk strings over RESP2: the shortest
+     * digits which read back as the same double, in exponent notation with at least two exponent digits when
+     * the exponent is below -4 or above 16.
+     */
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "nan";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "inf" : "-inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e17) {
+            return Long.toString((long) value);
+        }
+
+        BigDecimal decimal = new BigDecimal(Double.toString(value)).stripTrailingZeros();
+        int exponent = decimal.precision() - decimal.scale() - 1;
+        if (exponent >= -4 && exponent < 17) {
+            return decimal.toPlainString();
+        }
+
+        String digits = decimal.unscaledValue().abs().toString();
+        StringBuilder formatted = new StringBuilder();
+        if (value < 0) {
+            formatted.append('-');
+        }
+        formatted.append(digits.charAt(0));
+        if (digits.length() > 1) {
+            formatted.append('.').append(digits, 1, digits.length());
+        }
+        formatted.append(exponent < 0 ? "e-" : "e+");
+        if (Math.abs(exponent) < 10) {
+            formatted.append('0');
+        }
+        return formatted.append(Math.abs(exponent)).toString();
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + toJsonValue(value);
+    }
+}
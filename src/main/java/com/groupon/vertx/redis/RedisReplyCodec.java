@@ -0,0 +1,211 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * Codec for sending a <code>RedisReply</code> across the event bus.  Local messages are passed by reference.
+ * Clustered messages use a compact binary format, the marker of the reply type followed by the value:
+ * <br>
+ * <code>
+ * '+' String  - int length followed by the UTF-8 bytes
+ * ':' Number  - long
+ * '$' Buffer  - int length followed by the bytes, or a length of -1 for null
+ * '*' List    - int count followed by each element as a value
+ * ',' Double  - double
+ * '#' Boolean - byte of 1 or 0
+ * '(' BigInteger - int length followed by the decimal digits
+ * '%' Map     - int count followed by the key and the value of each entry
+ * '-' Error   - int length followed by the UTF-8 bytes of a nested error reply
+ * </code>
+ *
+ * @since 3.2.0
+ */
+public class RedisReplyCodec implements MessageCodec<RedisReply, RedisReply> {
+    public static final String CODEC_NAME = "redisReply";
+    private static final Charset ENCODING = Charset.forName("UTF-8");
+    private static final byte STRING = '+';
+    private static final byte NUMBER = ':';
+    private static final byte BULK = '$';
+    private static final byte LIST = '*';
+    private static final byte DOUBLE = ',';
+    private static final byte BOOLEAN = '#';
+    private static final byte BIG_NUMBER = '(';
+    private static final byte MAP = '%';
+    private static final byte ERROR = '-';
+
+    @Override
+    public void encodeToWire(Buffer buffer, RedisReply reply) {
+        buffer.appendByte(reply.getType().marker);
+        encodeValue(buffer, reply.getValue());
+    }
+
+    @Override
+    public RedisReply decodeFromWire(int pos, Buffer buffer) {
+        return decode(buffer, new int[]{pos});
+    }
+
+    /**
+     * Decodes the reply starting at the position, leaving the position after the end of the reply.
+     *
+     * @param buffer - The buffer containing the encoded reply.
+     * @param position - The position of the reply, updated to the position after it.
+     * @return - The decoded reply.
+     */
+    RedisReply decode(Buffer buffer, int[] position) {
+        byte marker = buffer.getByte(position[0]);
+        RedisResponseType type = null;
+        for (RedisResponseType responseType : RedisResponseType.values()) {
+            if (responseType.marker == marker) {
+                type = responseType;
+            }
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown reply marker " + marker);
+        }
+
+        position[0]++;
+        return new RedisReply(type, decodeValue(buffer, position));
+    }
+
+    @Override
+    public RedisReply transform(RedisReply reply) {
+        return reply;
+    }
+
+    @Override
+    public String name() {
+        return CODEC_NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+
+    private void encodeValue(Buffer buffer, Object value) {
+        if (value == null) {
+            buffer.appendByte(BULK);
+            buffer.appendInt(-1);
+        } else if (value instanceof Buffer) {
+            buffer.appendByte(BULK);
+            buffer.appendInt(((Buffer) value).length());
+            buffer.appendBuffer((Buffer) value);
+        } else if (value instanceof Double) {
+            buffer.appendByte(DOUBLE);
+            buffer.appendDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            buffer.appendByte(BOOLEAN);
+            buffer.appendByte((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof BigInteger) {
+            byte[] digits = value.toString().getBytes(ENCODING);
+            buffer.appendByte(BIG_NUMBER);
+            buffer.appendInt(digits.length);
+            buffer.appendBytes(digits);
+        } else if (value instanceof Map) {
+            Map<?, ?> entries = (Map<?, ?>) value;
+            buffer.appendByte(MAP);
+            buffer.appendInt(entries.size());
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                encodeValue(buffer, entry.getKey());
+                encodeValue(buffer, entry.getValue());
+            }
+        } else if (value instanceof Number) {
+            buffer.appendByte(NUMBER);
+            buffer.appendLong(((Number) value).longValue());
+        } else if (value instanceof List) {
+            List<?> values = (List<?>) value;
+            buffer.appendByte(LIST);
+            buffer.appendInt(values.size());
+            for (Object element : values) {
+                encodeValue(buffer, element);
+            }
+        } else if (value instanceof RedisReply) {
+            byte[] bytes = String.valueOf(((RedisReply) value).getValue()).getBytes(ENCODING);
+            buffer.appendByte(ERROR);
+            buffer.appendInt(bytes.length);
+            buffer.appendBytes(bytes);
+        } else {
+            byte[] bytes = value.toString().getBytes(ENCODING);
+            buffer.appendByte(STRING);
+            buffer.appendInt(bytes.length);
+            buffer.appendBytes(bytes);
+        }
+    }
+
+    private Object decodeValue(Buffer buffer, int[] position) {
+        byte tag = buffer.getByte(position[0]);
+        int start = position[0] + 1;
+
+        switch (tag) {
+            case NUMBER:
+                position[0] = start + 8;
+                return buffer.getLong(start);
+            case LIST:
+                int count = buffer.getInt(start);
+                position[0] = start + 4;
+                List<Object> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(decodeValue(buffer, position));
+                }
+                return values;
+            case DOUBLE:
+                position[0] = start + 8;
+                return buffer.getDouble(start);
+            case BOOLEAN:
+                position[0] = start + 1;
+                return buffer.getByte(start) != 0;
+            case BIG_NUMBER:
+                int digits = buffer.getInt(start);
+                position[0] = start + 4 + digits;
+                return new BigInteger(buffer.getString(start + 4, start + 4 + digits, ENCODING.name()));
+            case MAP:
+                int size = buffer.getInt(start);
+                position[0] = start + 4;
+                Map<Object, Object> entries = new LinkedHashMap<>(size);
+                for (int i = 0; i < size; i++) {
+                    Object key = decodeValue(buffer, position);
+                    entries.put(key, decodeValue(buffer, position));
+                }
+                return entries;
+            case BULK:
+                int bulkLength = buffer.getInt(start);
+                if (bulkLength < 0) {
+                    position[0] = start + 4;
+                    return null;
+                }
+                position[0] = start + 4 + bulkLength;
+                return buffer.getBuffer(start + 4, start + 4 + bulkLength);
+            case ERROR:
+                int errorLength = buffer.getInt(start);
+                position[0] = start + 4 + errorLength;
+                return new RedisReply(RedisResponseType.ERROR, buffer.getString(start + 4, start + 4 + errorLength, ENCODING.name()));
+            default:
+                int length = buffer.getInt(start);
+                position[0] = start + 4 + length;
+                return buffer.getString(start + 4, start + 4 + length, ENCODING.name());
+        }
+    }
+}
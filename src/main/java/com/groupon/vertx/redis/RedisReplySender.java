@@ -0,0 +1,33 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import io.vertx.core.Future;
+
+/**
+ * Sends a single command and completes the future with the reply as it was read from the socket.
+ *
+ * @since 3.2.0
+ */
+interface RedisReplySender {
+    /**
+     * Sends the command to Redis.
+     *
+     * @param command - The Redis command.
+     * @return - A future for the reply, which fails if the command could not be sent or there is no reply within the timeout.
+     */
+    Future<RedisReply> sendReplyCommand(RedisCommand command);
+}
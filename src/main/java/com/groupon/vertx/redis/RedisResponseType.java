@@ -16,16 +16,37 @@
 package com.groupon.vertx.redis;
 
 /**
- * List of Redis response types.
+ * List of Redis response types.  The types after ERROR are only sent on a connection which has negotiated
+ * RESP3, and each of them replaces one of the RESP2 types.
  *
  * @author Stuart Siegrist (fsiegrist at groupon dot com)
  * @since 1.0.0
  */
 public enum RedisResponseType {
-    STATUS_CODE('+'), BULK_REPLY('$'), INTEGER_REPLY(':'), MULTI_BULK_REPLY('*'), ERROR('-');
+    STATUS_CODE('+'), BULK_REPLY('$'), INTEGER_REPLY(':'), MULTI_BULK_REPLY('*'), ERROR('-'),
+    NULL('_', BULK_REPLY), DOUBLE(',', BULK_REPLY), BOOLEAN('#', INTEGER_REPLY), BIG_NUMBER('(', BULK_REPLY),
+    BULK_ERROR('!', ERROR), VERBATIM_STRING('=', BULK_REPLY), MAP('%', MULTI_BULK_REPLY), SET('~', MULTI_BULK_REPLY),
+    ATTRIBUTE('|', MULTI_BULK_REPLY), PUSH('>', MULTI_BULK_REPLY);
     public final byte marker;
+    private final RedisResponseType resp2Type;
 
     RedisResponseType(char marker) {
         this.marker = (byte) marker;
+        this.resp2Type = this;
+    }
+
+    RedisResponseType(char marker, RedisResponseType resp2Type) {
+        this.marker = (byte) marker;
+        this.resp2Type = resp2Type;
+    }
+
+    /**
+     * The RESP2 type which is replaced by this type in RESP3, or this type if it is a RESP2 type.  A map
+     * reply, for example, is sent where RESP2 sends a multi-bulk reply.
+     *
+     * @return - The RESP2 type.
+     */
+    public RedisResponseType getResp2Type() {
+        return resp2Type;
     }
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A member of a sorted set and its score, as returned by ZRANGE with WITHSCORES.
+ *
+ * @since 3.2.0
+ */
+public final class RedisScoredMember {
+    private final Buffer member;
+    private final double score;
+
+    public RedisScoredMember(Buffer member, double score) {
+        this.member = member;
+        this.score = score;
+    }
+
+    public Buffer getMember() {
+        return member;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return member + ":" + score;
+    }
+}
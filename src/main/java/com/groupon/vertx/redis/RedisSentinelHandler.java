@@ -0,0 +1,213 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetSocket;
+
+import com.groupon.vertx.utils.Logger;
+
+/**
+ * This handler owns the connection to a Sentinel which tells a connection pool where the Redis primary is.
+ * Once connected it asks for the address of the master name with SENTINEL get-master-addr-by-name and
+ * subscribes to the +switch-master channel.  Whenever the primary moves the connections of the pool are
+ * closed and opened to the new primary right away, instead of retrying the old address.
+ * <br>
+ * If the Sentinel connection fails or is closed, the next Sentinel in the config is tried after the retry
+ * interval.  The address is asked for again on every connection, so a switch missed while disconnected is
+ * still followed.
+ *
+ * @since 3.2.0
+ */
+public class RedisSentinelHandler implements Handler<Long> {
+    private static final Logger log = Logger.getLogger(RedisSentinelHandler.class);
+    private static final String SWITCH_MASTER_CHANNEL = "+switch-master";
+    private static final Buffer MESSAGE = Buffer.buffer("message");
+    private final Vertx vertx;
+    private final RedisConfig config;
+    private final NetClient netClient;
+    private final RedisConnectionPool pool;
+    private int sentinel;
+    private RedisEndpoint primary;
+    private NetSocket netSocket;
+    private boolean closed;
+
+    /**
+     * Creates a handler which connects the pool to the primary found by the Sentinels in the config.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config with the Sentinels and the master name.
+     * @param netClient - The client for connecting to the Sentinels and to Redis.
+     * @param pool - The pool to connect to the primary.
+     */
+    public RedisSentinelHandler(Vertx vertx, RedisConfig config, NetClient netClient, RedisConnectionPool pool) {
+        this.vertx = vertx;
+        this.config = config;
+        this.netClient = netClient;
+        this.pool = pool;
+    }
+
+    public void handle(Long time) {
+        if (closed) {
+            return;
+        }
+
+        final RedisEndpoint endpoint = config.getSentinels().get(sentinel);
+        netClient.connect(endpoint.getPort(), endpoint.getHost(), socket -> {
+            if (socket.succeeded() && closed) {
+                socket.result().close();
+            } else if (socket.succeeded()) {
+                log.trace("establishSocket", "success", new String[]{"sentinel"}, endpoint);
+                open(socket.result());
+            } else {
+                log.warn("establishSocket", "failed", new String[]{"sentinel"}, endpoint);
+                retry();
+            }
+        });
+    }
+
+    /**
+     * Closes the Sentinel connection and stops reconnecting.  The connections of the pool are left open.
+     */
+    public void close() {
+        closed = true;
+        if (netSocket != null) {
+            netSocket.close();
+        }
+    }
+
+    /**
+     * The address of the primary the pool is connected to.
+     *
+     * @return - The primary, or null if it hasn't been found yet.
+     */
+    public RedisEndpoint getPrimary() {
+        return primary;
+    }
+
+    private void open(final NetSocket netSocket) {
+        this.netSocket = netSocket;
+        final RedisSocket socket = new RedisSocket(netSocket);
+        socket.pushHandler(this::handlePush);
+
+        netSocket.exceptionHandler(ex -> {
+            log.error("establishSocket", "exception", "sentinel", ex);
+            socket.close();
+        });
+
+        netSocket.closeHandler(message -> {
+            log.warn("establishSocket", "sentinelSocketClosed");
+            this.netSocket = null;
+            retry();
+        });
+
+        send(socket, RedisCommandType.SENTINEL_GET_MASTER_ADDR_BY_NAME, config.getMasterName(), reply -> {
+            List<?> address = reply.getValue() instanceof List ? (List<?>) reply.getValue() : Collections.emptyList();
+            if (address.size() != 2) {
+                log.warn("open", "unknownMaster", new String[]{"masterName", "reply"}, config.getMasterName(), reply);
+                socket.close();
+                return;
+            }
+
+            switchPrimary(decode(address.get(0)), decode(address.get(1)));
+            send(socket, RedisCommandType.SUBSCRIBE, SWITCH_MASTER_CHANNEL, subscribed ->
+                    log.info("open", "subscribed", new String[]{"masterName", "primary"}, config.getMasterName(), primary));
+        });
+    }
+
+    private void send(RedisSocket socket, RedisCommandType type, String argument, Handler<RedisReply> handler) {
+        RedisCommand command = new RedisCommand(type, Collections.singletonList(argument));
+        Future<RedisReply> response = Future.future();
+        response.setHandler(result -> {
+            if (closed) {
+                return;
+            }
+
+            if (result.failed() || result.result().isError()) {
+                log.warn("send", "failure", new String[]{"command", "response"}, type.getCommand(),
+                        result.failed() ? result.cause().getMessage() : result.result().getValue());
+                socket.close();
+            } else {
+                handler.handle(result.result());
+            }
+        });
+        command.replyResponse(response);
+        socket.sendCommand(Collections.singletonList(command));
+    }
+
+    /**
+     * Follows a +switch-master message for the master name.  The message is an array of the message type, the
+     * channel and the master name followed by the old and the new address of the primary.  Messages for other
+     * master names are ignored.
+     *
+     * @param reply - The message.
+     */
+    private void handlePush(RedisReply reply) {
+        if (closed) {
+            return;
+        }
+
+        List<?> message = reply.getValue() instanceof List ? (List<?>) reply.getValue() : Collections.emptyList();
+        if (message.size() != 3 || !MESSAGE.equals(message.get(0))) {
+            log.warn("handlePush", "unexpectedReply", new String[]{"reply"}, reply);
+            return;
+        }
+
+        String[] parts = decode(message.get(2)).split(" ");
+        if (parts.length == 5 && parts[0].equals(config.getMasterName())) {
+            switchPrimary(parts[3], parts[4]);
+        }
+    }
+
+    private void switchPrimary(String host, String port) {
+        int primaryPort;
+        try {
+            primaryPort = Integer.parseInt(port);
+        } catch (NumberFormatException ex) {
+            log.warn("switchPrimary", "invalidPort", new String[]{"host", "port"}, host, port);
+            return;
+        }
+
+        if (primary != null && primary.getHost().equals(host) && primary.getPort() == primaryPort) {
+            return;
+        }
+
+        log.info("switchPrimary", "primaryChanged", new String[]{"masterName", "from", "to"}, config.getMasterName(), primary,
+                host + ":" + primaryPort);
+        primary = new RedisEndpoint(host, primaryPort, 1);
+        pool.close();
+        pool.connect(config, netClient, host, primaryPort);
+    }
+
+    private void retry() {
+        if (!closed) {
+            sentinel = (sentinel + 1) % config.getSentinels().size();
+            vertx.setTimer(config.getRetryInterval(), this);
+        }
+    }
+
+    private static String decode(Object value) {
+        return value instanceof Buffer ? ((Buffer) value).toString(StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+}
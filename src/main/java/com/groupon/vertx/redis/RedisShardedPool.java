@@ -0,0 +1,301 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+
+import com.groupon.vertx.utils.Logger;
+
+/**
+ * The connections to several standalone Redis servers which each hold a share of the keys, registered under
+ * one event bus address.  Each command is sent to the shard of its first key, found with a ketama consistent
+ * hash: every shard owns 160 points on a ring for each unit of its weight, and a key belongs to the first
+ * point at or after the MD5 hash of the key.  As in a cluster, only the part of the key between the first
+ * <code>{</code> and the next <code>}</code> is hashed if it is not empty.
+ * <br>
+ * While a shard has no open connection its keys belong to the next points on the ring, so only the keys of
+ * that shard move to the other shards, and they move back once it reconnects.
+ * <br>
+ * MGET, MSET, DEL and EXISTS commands with keys on several shards are split by shard.  The commands of a
+ * transaction are all sent to the shard of its keys, and fail if its keys are on several shards.
+ *
+ * @since 3.2.0
+ */
+public class RedisShardedPool extends RedisConnectionPool {
+    private static final Logger log = Logger.getLogger(RedisShardedPool.class);
+    private static final int HASHES_PER_WEIGHT = 40;
+    private static final int SHARD_BITS = 16;
+    private final Vertx vertx;
+    private final RedisConfig config;
+    private final NetClient netClient;
+    private final RedisCommandHandler commandHandler;
+    private final MessageDigest md5;
+    private final List<RedisConnectionPool> shards = new ArrayList<>();
+    private final long[] ring;
+    private MessageConsumer<JsonObject> consumer;
+
+    /**
+     * Creates the pool for the shards in the config.  Nothing is connected until it is started.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config with the shards.
+     * @param netClient - The client for connecting to the shards.
+     */
+    public RedisShardedPool(Vertx vertx, RedisConfig config, NetClient netClient) {
+        super(vertx, config.getEventBusAddress());
+        this.vertx = vertx;
+        this.config = config;
+        this.netClient = netClient;
+        this.commandHandler = new RedisCommandHandler(this);
+
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("MD5 is not available", ex);
+        }
+
+        int points = 0;
+        for (RedisEndpoint shard : config.getShards()) {
+            shards.add(new RedisConnectionPool(vertx, null));
+            points += shard.getWeight() * HASHES_PER_WEIGHT * 4;
+        }
+
+        // Each point is the 32 bit hash shifted above the index of its shard, so sorting orders them by hash.
+        this.ring = new long[points];
+        int point = 0;
+        for (int index = 0; index < config.getShards().size(); index++) {
+            RedisEndpoint shard = config.getShards().get(index);
+            for (int i = 0; i < shard.getWeight() * HASHES_PER_WEIGHT; i++) {
+                byte[] digest = md5.digest((shard + "-" + i).getBytes(StandardCharsets.UTF_8));
+                for (int j = 0; j < 4; j++) {
+                    ring[point++] = (hash(digest, j * 4) << SHARD_BITS) | index;
+                }
+            }
+        }
+        Arrays.sort(ring);
+    }
+
+    /**
+     * Connects to every shard and registers the event bus consumer.
+     */
+    public void start() {
+        for (int index = 0; index < shards.size(); index++) {
+            RedisEndpoint shard = config.getShards().get(index);
+            shards.get(index).connect(config, netClient, shard.getHost(), shard.getPort());
+        }
+
+        log.trace("start", "registerConsumer", new String[]{"eventBusAddress"}, config.getEventBusAddress());
+        consumer = vertx.eventBus().consumer(config.getEventBusAddress(), this);
+    }
+
+    /**
+     * Unregisters the event bus consumer and closes the connections to every shard.
+     */
+    @Override
+    public void close() {
+        if (consumer != null) {
+            consumer.unregister();
+            consumer = null;
+        }
+
+        for (RedisConnectionPool shard : shards) {
+            shard.close();
+        }
+    }
+
+    @Override
+    public void handle(Message<JsonObject> message) {
+        Object body = ((Message<?>) message).body();
+        if (body instanceof RedisCommandBatch) {
+            commandHandler.handleBatch(message, (RedisCommandBatch) body);
+        } else {
+            commandHandler.handle(message);
+        }
+    }
+
+    /**
+     * Sends each command to the shard of its keys.  Outside of a transaction, MGET, MSET, DEL and EXISTS
+     * commands whose keys are on several shards are split into one command for each shard, while any other
+     * command whose keys are on several shards fails with an error.  FLUSHALL, FLUSHDB and KEYS are sent to
+     * every shard, and the other commands without a key to the first shard with an open connection.
+     * <br>
+     * The commands of a transaction are all sent to the shard of its keys.  A transaction whose keys are on
+     * several shards is not sent, and each of its commands fails with an error.  This must be called from the
+     * context of the pool.
+     *
+     * @param commands - The list of Redis commands.
+     */
+    @Override
+    public void sendCommand(List<RedisCommand> commands) {
+        if (isTransaction(commands)) {
+            sendTransaction(commands);
+            return;
+        }
+
+        Map<RedisConnectionPool, List<RedisCommand>> routed = new IdentityHashMap<>();
+        for (RedisCommand command : commands) {
+            RedisCommandType type = command.getType();
+            if (type == RedisCommandType.FLUSHALL || type == RedisCommandType.FLUSHDB || type == RedisCommandType.KEYS) {
+                List<RedisCommand> copies = RedisCommandSplitter.broadcast(command, shards.size());
+                for (int i = 0; i < shards.size(); i++) {
+                    routed.computeIfAbsent(shards.get(i), shard -> new ArrayList<>()).add(copies.get(i));
+                }
+                continue;
+            }
+
+            List<RedisCommand> split = RedisCommandSplitter.split(command, this::getShard);
+            for (RedisCommand part : split != null ? split : Collections.singletonList(command)) {
+                RedisConnectionPool shard = getCommandShard(part);
+                if (shard == null) {
+                    log.warn("sendCommand", "failure", new String[]{"command", "reason"}, type.getCommand(), "Keys on several shards");
+                    part.setResponse(new JsonObject().put("status", "error").put("message", "Command keys are on several shards"));
+                } else {
+                    routed.computeIfAbsent(shard, key -> new ArrayList<>()).add(part);
+                }
+            }
+        }
+        for (Map.Entry<RedisConnectionPool, List<RedisCommand>> shard : routed.entrySet()) {
+            shard.getKey().sendCommand(shard.getValue());
+        }
+    }
+
+    /**
+     * The number of shards with at least one open connection.
+     *
+     * @return - The number of connected shards.
+     */
+    @Override
+    public int size() {
+        int connected = 0;
+        for (RedisConnectionPool shard : shards) {
+            if (shard.size() > 0) {
+                connected++;
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * The pool of the shard which holds the key, skipping the shards without an open connection.  If no shard
+     * is connected this is the shard the key would belong to.
+     *
+     * @param key - The key as a String, byte[] or Buffer.
+     * @return - The pool of the shard.
+     */
+    RedisConnectionPool getShard(Object key) {
+        long hash = hash(md5.digest(RedisCluster.getHashedKey(key)), 0);
+        int start = Arrays.binarySearch(ring, hash << SHARD_BITS);
+        start = start >= 0 ? start : -start - 1;
+
+        for (int i = 0; i < ring.length; i++) {
+            RedisConnectionPool shard = shards.get(shardIndex(ring[(start + i) % ring.length]));
+            if (shard.size() > 0) {
+                return shard;
+            }
+        }
+        return shards.get(shardIndex(ring[start % ring.length]));
+    }
+
+    /**
+     * The pools of the shards in the order of the config.
+     *
+     * @return - The list of shard pools.
+     */
+    List<RedisConnectionPool> getShards() {
+        return shards;
+    }
+
+    private RedisConnectionPool getDefaultShard() {
+        for (RedisConnectionPool shard : shards) {
+            if (shard.size() > 0) {
+                return shard;
+            }
+        }
+        return shards.get(0);
+    }
+
+    private static int shardIndex(long point) {
+        return (int) (point & ((1 << SHARD_BITS) - 1));
+    }
+
+    private static long hash(byte[] digest, int offset) {
+        return ((long) (digest[offset + 3] & 0xFF) << 24) | ((digest[offset + 2] & 0xFF) << 16)
+                | ((digest[offset + 1] & 0xFF) << 8) | (digest[offset] & 0xFF);
+    }
+
+    private void sendTransaction(List<RedisCommand> commands) {
+        RedisConnectionPool shard = null;
+        for (RedisCommand command : commands) {
+            if (command.getKeys().isEmpty()) {
+                continue;
+            }
+
+            RedisConnectionPool commandShard = getCommandShard(command);
+            if (commandShard == null || (shard != null && commandShard != shard)) {
+                log.warn("sendTransaction", "failure", new String[]{"reason"}, "Keys on several shards");
+                for (RedisCommand failed : commands) {
+                    failed.setResponse(new JsonObject().put("status", "error")
+                            .put("message", "Transaction keys are on several shards"));
+                }
+                return;
+            }
+            shard = commandShard;
+        }
+        (shard != null ? shard : getDefaultShard()).sendCommand(commands);
+    }
+
+    /**
+     * The shard holding every key of the command.
+     *
+     * @param command - The command.
+     * @return - The shard, the first connected shard for a command without a key, or null if the keys are on
+     *           several shards.
+     */
+    private RedisConnectionPool getCommandShard(RedisCommand command) {
+        RedisConnectionPool shard = null;
+        for (Object key : command.getKeys()) {
+            RedisConnectionPool keyShard = getShard(key);
+            if (shard != null && keyShard != shard) {
+                return null;
+            }
+            shard = keyShard;
+        }
+        return shard != null ? shard : getDefaultShard();
+    }
+
+    private static boolean isTransaction(List<RedisCommand> commands) {
+        for (RedisCommand command : commands) {
+            if (command.getType() == RedisCommandType.MULTI) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Sends read-only commands through another client at most once while an identical command is in flight.
+ * Callers issuing a command with the same type and arguments as a pending one wait for its response
+ * instead of sending another command.  Each caller after the first gets a copy of the response.  Commands
+ * which are not read-only are always sent.
+ * <br>
+ * The in-flight commands are not shared between threads, so the client must only be used from one context.
+ *
+ * @since 3.2.0
+ */
+final class RedisSingleFlightClient extends RedisBaseClient {
+    private final RedisBaseClient client;
+    private final Map<List<Object>, List<Future<JsonObject>>> inFlight = new HashMap<>();
+
+    RedisSingleFlightClient(RedisBaseClient client) {
+        super(client.eventBus, client.eventBusAddress, client.replyTimeout);
+        this.client = client;
+    }
+
+    @Override
+    protected Future<JsonObject> sendCommand(RedisCommand command) {
+        if (!command.getType().isReadOnly()) {
+            return client.sendCommand(command);
+        }
+
+        final List<Object> key = createKey(command);
+        final Future<JsonObject> finalResult = Future.future();
+        List<Future<JsonObject>> waiting = inFlight.get(key);
+        if (waiting != null) {
+            waiting.add(finalResult);
+            return finalResult;
+        }
+
+        waiting = new ArrayList<>();
+        waiting.add(finalResult);
+        inFlight.put(key, waiting);
+
+        client.sendCommand(command).setHandler(result -> {
+            List<Future<JsonObject>> responses = inFlight.remove(key);
+            for (int i = 0; i < responses.size(); i++) {
+                if (result.failed()) {
+                    responses.get(i).fail(result.cause());
+                } else {
+                    JsonObject response = result.result();
+                    responses.get(i).complete(i == 0 || response == null ? response : response.copy());
+                }
+            }
+        });
+        return finalResult;
+    }
+
+    /**
+     * The type and arguments of the command.  Binary arguments are wrapped in a Buffer so they are compared
+     * by their contents.
+     *
+     * @param command - The Redis command.
+     * @return - A key which is equal for identical commands.
+     */
+    private static List<Object> createKey(RedisCommand command) {
+        List<Object> arguments = command.getArgumentValues();
+        List<Object> key = new ArrayList<>(arguments.size() + 1);
+        key.add(command.getType());
+        for (Object argument : arguments) {
+            key.add(argument instanceof byte[] ? Buffer.buffer((byte[]) argument) : argument);
+        }
+        return key;
+    }
+}
@@ -15,11 +15,13 @@
  */
 package com.groupon.vertx.redis;
 
-import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetSocket;
@@ -32,19 +34,73 @@ import com.groupon.vertx.utils.Logger;
  * @author Stuart Siegrist (fsiegrist at groupon dot com)
  * @since 1.0.0
  */
-public class RedisSocket {
+public class RedisSocket implements RedisCommandSender {
     private static final Logger log = Logger.getLogger(RedisSocket.class);
-    private static final Charset ENCODING = Charset.forName("UTF-8");
     private static final byte ASTERISK = '*';
     private static final byte DOLLAR = '$';
     private final NetSocket socket;
     private final RedisOutputStream output;
     private final RedisInputStream input;
     private final ConcurrentLinkedQueue<RedisCommand> pendingCommands;
+    private final Vertx vertx;
+    private final boolean coalesceWrites;
+    private final long flushDelay;
+    private final int flushMaxCommands;
+    private int unflushedCommands;
+    private boolean flushScheduled;
+    private boolean closed;
+    private long sentCommands;
+    private Handler<Void> writeQueueFullHandler;
 
     public RedisSocket(final NetSocket socket) {
+        this(socket, new RedisOutputStream(socket), null, false, 0, 1);
+    }
+
+    /**
+     * When write coalescing is enabled in the config, commands are buffered and written to the socket together
+     * at the end of the event loop tick, or after the configured flush delay.  The buffered commands are written
+     * immediately once they reach the configured byte or command limit.
+     * <br>
+     * When the config uses RESP3 the socket starts by sending HELLO 3.  If Redis rejects it the connection
+     * stays on RESP2.
+     *
+     * @param socket - The NetSocket which is currently connected to the Redis server.
+     * @param vertx - The Vertx instance used to schedule the delayed writes.
+     * @param config - The Redis config with the flush and write queue settings.
+     */
+    public RedisSocket(final NetSocket socket, Vertx vertx, RedisConfig config) {
+        this(socket, createOutput(socket, config), vertx, config.isCoalesceWrites(), config.getFlushDelay(),
+                config.getFlushMaxCommands());
+        socket.setWriteQueueMaxSize(config.getWriteQueueMaxSize());
+
+        if (config.isResp3()) {
+            hello();
+        }
+    }
+
+    private void hello() {
+        RedisCommand command = new RedisCommand(RedisCommandType.HELLO, Collections.singletonList("3"));
+        Future<RedisReply> response = Future.future();
+        response.setHandler(result -> {
+            if (result.failed() || result.result().isError()) {
+                log.warn("hello", "resp2Fallback", new String[]{"reason"},
+                        result.failed() ? result.cause().getMessage() : result.result().getValue());
+            } else {
+                log.trace("hello", "resp3Negotiated");
+            }
+        });
+        command.replyResponse(response);
+        sendCommand(Collections.singletonList(command));
+    }
+
+    private RedisSocket(final NetSocket socket, RedisOutputStream output, Vertx vertx, boolean coalesceWrites,
+            long flushDelay, int flushMaxCommands) {
         this.socket = socket;
-        this.output = new RedisOutputStream(socket);
+        this.output = output;
+        this.vertx = vertx;
+        this.coalesceWrites = coalesceWrites;
+        this.flushDelay = flushDelay;
+        this.flushMaxCommands = flushMaxCommands;
         this.pendingCommands = new ConcurrentLinkedQueue<>();
         this.input = new RedisInputStream(pendingCommands);
 
@@ -62,6 +118,13 @@ public class RedisSocket {
         });
     }
 
+    private static RedisOutputStream createOutput(NetSocket socket, RedisConfig config) {
+        if (config.isCoalesceWrites()) {
+            return new RedisOutputStream(socket, config.getFlushMaxBytes());
+        }
+        return new RedisOutputStream(socket);
+    }
+
     /**
      * This formats and writes the Redis command to the NetSocket.  Expected output
      * to the socket is:
@@ -74,36 +137,146 @@ public class RedisSocket {
      * <code>
      * '*2\r\n$3\r\nGET\r\n$7\r\nsomekey\r\n'
      * </code>
+     * String arguments are UTF-8 encoded, while byte[] and Buffer arguments are written as they are.  Unless
+     * writes are coalesced the commands are written to the socket before this returns.
      *
      * @param commands - The list of Redis commands
      */
     public void sendCommand(List<RedisCommand> commands) {
         for (RedisCommand command : commands) {
-            byte[] commandBytes = command.getCommand().getBytes(ENCODING);
+            List<Object> arguments = command.getArgumentValues();
+            RedisCommandType type = command.getType();
+            byte[] header = type.getHeader();
+            int count = arguments.size() + type.getHeaderArguments();
+
+            int length = RedisOutputStream.arrayLength(count) + header.length;
+            for (Object arg : arguments) {
+                length += RedisOutputStream.bulkLength(argumentLength(arg));
+            }
+            output.reserve(length);
+
             output.write(ASTERISK);
-            output.write(command.getArguments().size() + 1);
-            output.writeCrlf();
-            output.write(DOLLAR);
-            output.write(commandBytes.length);
-            output.writeCrlf();
-            output.write(commandBytes);
+            output.write(count);
             output.writeCrlf();
+            output.write(header);
 
-            for (String arg : command.getArguments()) {
-                byte[] argBytes = arg.getBytes(ENCODING);
+            for (Object arg : arguments) {
                 output.write(DOLLAR);
-                output.write(argBytes.length);
-                output.writeCrlf();
-                output.write(argBytes);
+                if (arg instanceof Buffer) {
+                    Buffer argBuffer = (Buffer) arg;
+                    output.write(argBuffer.length());
+                    output.writeCrlf();
+                    output.write(argBuffer);
+                } else if (arg instanceof byte[]) {
+                    byte[] argBytes = (byte[]) arg;
+                    output.write(argBytes.length);
+                    output.writeCrlf();
+                    output.write(argBytes);
+                } else {
+                    String argString = arg.toString();
+                    int argLength = RedisOutputStream.utf8Length(argString);
+                    output.write(argLength);
+                    output.writeCrlf();
+                    output.write(argString, argLength);
+                }
                 output.writeCrlf();
             }
             pendingCommands.add(command);
+            sentCommands++;
             log.trace("sendCommand", "commandSent", new String[]{"command"}, command.getCommand());
         }
+
+        unflushedCommands += commands.size();
+        if (!coalesceWrites || unflushedCommands >= flushMaxCommands) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            if (flushDelay > 0) {
+                vertx.setTimer(flushDelay, id -> flushScheduled());
+            } else {
+                vertx.runOnContext(event -> flushScheduled());
+            }
+        }
+    }
+
+    private void flushScheduled() {
+        flushScheduled = false;
+        if (!closed) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        unflushedCommands = 0;
         output.flush();
+
+        if (writeQueueFullHandler != null && socket.writeQueueFull()) {
+            writeQueueFullHandler.handle(null);
+        }
+    }
+
+    /**
+     * The number of commands which have been sent and are still waiting for a reply.
+     *
+     * @return - The number of pending commands.
+     */
+    public int getPendingCommands() {
+        return (int) (sentCommands - input.getCompletedCommands());
+    }
+
+    /**
+     * True if the socket write queue is full and no more commands should be sent until it drains.
+     *
+     * @return - If the write queue is full.
+     */
+    public boolean writeQueueFull() {
+        return socket.writeQueueFull();
+    }
+
+    /**
+     * Sets the handler for replies which arrive when no command is waiting for one.
+     *
+     * @param handler - The handler to call.
+     */
+    public void pushHandler(Handler<RedisReply> handler) {
+        input.pushHandler(handler);
+    }
+
+    /**
+     * Sets the handler called after commands are written and the socket write queue is full.
+     *
+     * @param handler - The handler to call.
+     */
+    public void writeQueueFullHandler(Handler<Void> handler) {
+        this.writeQueueFullHandler = handler;
+    }
+
+    /**
+     * Sets the handler called once the socket write queue has drained.  It is not called after the socket
+     * has been closed.
+     *
+     * @param handler - The handler to call.
+     */
+    public void drainHandler(final Handler<Void> handler) {
+        socket.drainHandler(event -> {
+            if (!closed) {
+                handler.handle(event);
+            }
+        });
+    }
+
+    private static int argumentLength(Object arg) {
+        if (arg instanceof Buffer) {
+            return ((Buffer) arg).length();
+        } else if (arg instanceof byte[]) {
+            return ((byte[]) arg).length;
+        } else {
+            return RedisOutputStream.utf8Length(arg.toString());
+        }
     }
 
     public void close() {
+        closed = true;
         RedisCommand command = pendingCommands.poll();
         while (command != null) {
             command.setResponse(new JsonObject("{\"status\":\"error\",\"message\":\"Socket closed unexpectedly\"}"));
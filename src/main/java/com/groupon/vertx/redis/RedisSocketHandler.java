@@ -17,16 +17,14 @@ package com.groupon.vertx.redis;
 
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
-import io.vertx.core.eventbus.MessageConsumer;
-import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetSocket;
 
 import com.groupon.vertx.utils.Logger;
 
 /**
- * This handler opens the connection to the Redis server and registers the message handler on
- * success.  If the connection fails or is closed, it unregisters the handler and attempts to
+ * This handler opens the connection to the Redis server and adds it to the connection pool on
+ * success.  If the connection fails or is closed, it removes it from the pool and attempts to
  * reconnect.
  *
  * @author Stuart Siegrist (fsiegrist at groupon dot com)
@@ -43,6 +41,12 @@ public class RedisSocketHandler implements Handler<Long> {
     private NetClient netClient;
     private long delayFactor;
     private long currentDelay;
+    private RedisConfig config;
+    private RedisConnectionPool pool;
+    private boolean invalidations;
+    private NetSocket netSocket;
+    private RedisCommandHandler connection;
+    private boolean closed;
 
     public RedisSocketHandler(
             Vertx vertx,
@@ -58,32 +62,100 @@ public class RedisSocketHandler implements Handler<Long> {
         this.netClient = netClient;
         this.delayFactor = delayFactor;
         this.currentDelay = delayFactor;
+        this.pool = new RedisConnectionPool(vertx, eventBusAddress);
+    }
+
+    public RedisSocketHandler(Vertx vertx, RedisConfig config, NetClient netClient) {
+        this(vertx, config, netClient, new RedisConnectionPool(vertx, config.getEventBusAddress()));
+    }
+
+    /**
+     * Creates a handler for one of the connections in a pool.  The connection is added to the pool while it
+     * is open.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config.
+     * @param netClient - The client for connecting to Redis.
+     * @param pool - The pool the connection belongs to.
+     */
+    public RedisSocketHandler(Vertx vertx, RedisConfig config, NetClient netClient, RedisConnectionPool pool) {
+        this(vertx, config.getEventBusAddress(), config.getHost(), config.getPort(), netClient, config.getRetryInterval());
+        this.config = config;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a handler for one of the connections in a pool whose host is not the one in the config, such
+     * as the pool of a cluster node.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config.
+     * @param netClient - The client for connecting to Redis.
+     * @param pool - The pool the connection belongs to.
+     * @param host - The host to connect to.
+     * @param port - The port to connect to.
+     */
+    public RedisSocketHandler(Vertx vertx, RedisConfig config, NetClient netClient, RedisConnectionPool pool, String host, int port) {
+        this(vertx, config.getEventBusAddress(), host, port, netClient, config.getRetryInterval());
+        this.config = config;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a handler for the connection which receives the CLIENT TRACKING invalidations for a pool.
+     * Tracking is turned on for the pool while the connection is open.
+     *
+     * @param vertx - The Vertx instance.
+     * @param config - The Redis config with the tracking settings.
+     * @param netClient - The client for connecting to Redis.
+     * @param pool - The pool to turn on tracking for.
+     * @param invalidations - True to open the invalidation connection instead of a pool connection.
+     */
+    public RedisSocketHandler(Vertx vertx, RedisConfig config, NetClient netClient, RedisConnectionPool pool, boolean invalidations) {
+        this(vertx, config, netClient, pool);
+        this.invalidations = invalidations;
     }
 
     public void handle(Long time) {
+        if (closed) {
+            return;
+        }
+
         final Handler<Long> currentHandler = this;
         netClient.connect(port, host, socket -> {
-            if (socket.succeeded()) {
+            if (socket.succeeded() && closed) {
+                socket.result().close();
+            } else if (socket.succeeded()) {
                 log.trace("establishSocket", "success");
 
                 currentDelay = delayFactor;
 
                 final NetSocket netSocket = socket.result();
-                final RedisCommandHandler redisHandler = new RedisCommandHandler(netSocket);
+                this.netSocket = netSocket;
+                if (invalidations) {
+                    handleInvalidations(netSocket);
+                    return;
+                }
 
-                final MessageConsumer<JsonObject> consumer = vertx.eventBus().consumer(eventBusAddress, redisHandler);
+                final RedisCommandHandler redisHandler = config == null ? new RedisCommandHandler(netSocket)
+                        : new RedisCommandHandler(netSocket, vertx, config);
+
+                connection = redisHandler;
+                pool.add(redisHandler);
 
                 netSocket.exceptionHandler(ex -> {
                     log.error("establishSocket", "exception", "unknown", ex);
-                    consumer.unregister();
+                    pool.remove(redisHandler);
                     redisHandler.finish();
                 });
 
                 netSocket.closeHandler(message -> {
                     log.warn("establishSocket", "socketClosed");
-                    consumer.unregister();
+                    pool.remove(redisHandler);
                     redisHandler.finish();
-                    vertx.setTimer(currentDelay, currentHandler);
+                    if (!closed) {
+                        vertx.setTimer(currentDelay, currentHandler);
+                    }
                 });
 
             } else {
@@ -99,4 +171,35 @@ public class RedisSocketHandler implements Handler<Long> {
             }
         });
     }
+
+    /**
+     * Closes the connection and stops reconnecting, as when a node leaves the cluster or the primary moves.
+     * The connection is removed from the pool right away, so no more commands are sent on it.
+     */
+    public void close() {
+        closed = true;
+        if (connection != null) {
+            pool.remove(connection);
+        }
+        if (netSocket != null) {
+            netSocket.close();
+        }
+    }
+
+    private void handleInvalidations(NetSocket netSocket) {
+        final RedisInvalidationHandler invalidationHandler = new RedisInvalidationHandler(netSocket, vertx, config, pool);
+
+        netSocket.exceptionHandler(ex -> {
+            log.error("establishSocket", "exception", "invalidations", ex);
+            invalidationHandler.finish();
+        });
+
+        netSocket.closeHandler(message -> {
+            log.warn("establishSocket", "invalidationSocketClosed");
+            invalidationHandler.finish();
+            vertx.setTimer(currentDelay, this);
+        });
+
+        invalidationHandler.start();
+    }
 }
@@ -38,10 +38,25 @@ import io.vertx.core.json.JsonObject;
  */
 final class RedisTransaction extends RedisBaseClient implements  RedisCommandTransaction {
     private final Queue<RedisCommand> pendingCommands;
+    private final RedisDirectClient directClient;
+    private final boolean useCodec;
 
     RedisTransaction(EventBus eventBus, String eventBusAddress, long timeout) {
+        this(eventBus, eventBusAddress, timeout, false);
+    }
+
+    RedisTransaction(EventBus eventBus, String eventBusAddress, long timeout, boolean useCodec) {
         super(eventBus, eventBusAddress, timeout);
         this.pendingCommands = new LinkedList<>();
+        this.directClient = null;
+        this.useCodec = useCodec;
+    }
+
+    RedisTransaction(RedisDirectClient directClient) {
+        super(directClient.eventBus, directClient.eventBusAddress, directClient.replyTimeout);
+        this.pendingCommands = new LinkedList<>();
+        this.directClient = directClient;
+        this.useCodec = false;
     }
 
     public void discard() {
@@ -51,42 +66,53 @@ final class RedisTransaction extends RedisBaseClient implements  RedisCommandTra
     public Future<JsonObject> exec() {
         final Future<JsonObject> finalResult = Future.future();
         if (!pendingCommands.isEmpty()) {
-            JsonArray commands = new JsonArray();
+            final List<RedisCommand> commands = new ArrayList<>(pendingCommands.size() + 2);
             final List<Future<JsonObject>> clientCommandResponses = new ArrayList<>();
             clientCommandResponses.add(finalResult);
 
             RedisCommand command = pendingCommands.poll();
             while (command != null) {
                 clientCommandResponses.add(command.getClientCommandResponse());
-                commands.add(command.toJson());
+                commands.add(command);
                 command = pendingCommands.poll();
             }
 
-            JsonObject transactionCommands = new JsonObject();
-            transactionCommands.put("isTransaction", true);
-            transactionCommands.put("commands", commands);
-            final DeliveryOptions deliveryOptions = new DeliveryOptions().setSendTimeout(replyTimeout);
-            eventBus.send(eventBusAddress, transactionCommands, deliveryOptions, new Handler<AsyncResult<Message<JsonObject>>>() {
-                @Override
-                public void handle(AsyncResult<Message<JsonObject>> messageAsyncResult) {
-                    JsonObject response;
-                    if (messageAsyncResult.failed()) {
-                        response = new JsonObject().put("status", "error").put("code", HttpURLConnection.HTTP_GATEWAY_TIMEOUT);
-                    } else {
-                        response = messageAsyncResult.result().body();
+            if (directClient != null) {
+                RedisCommand execCommand = new RedisCommand(RedisCommandType.EXEC, null);
+                commands.add(0, new RedisCommand(RedisCommandType.MULTI, null));
+                commands.add(execCommand);
+                directClient.sendCommand(commands, execCommand).setHandler(result -> {
+                    JsonObject response = result.succeeded() ? result.result() : createTimeoutResponse();
+                    completeResponses(clientCommandResponses, response);
+                });
+            } else {
+                final DeliveryOptions deliveryOptions = new DeliveryOptions().setSendTimeout(replyTimeout);
+                final Object transactionCommands;
+                if (useCodec) {
+                    deliveryOptions.setCodecName(RedisCommandBatchCodec.CODEC_NAME);
+                    transactionCommands = new RedisCommandBatch(commands, true);
+                } else {
+                    JsonArray jsonCommands = new JsonArray();
+                    for (RedisCommand redisCommand : commands) {
+                        jsonCommands.add(redisCommand.toJson());
                     }
 
-                    int index = 0;
-                    executeResponse(clientCommandResponses.remove(0), response); // EXEC response
-                    for (Future<JsonObject> clientCommandResponse : clientCommandResponses) {
-                        if (clientCommandResponse != null) {
-                            JsonObject result = constructTransactionCommandResult(response, index);
-                            executeResponse(clientCommandResponse, result);
+                    transactionCommands = new JsonObject().put("isTransaction", true).put("commands", jsonCommands);
+                }
+
+                eventBus.send(eventBusAddress, transactionCommands, deliveryOptions, new Handler<AsyncResult<Message<Object>>>() {
+                    @Override
+                    public void handle(AsyncResult<Message<Object>> messageAsyncResult) {
+                        JsonObject response;
+                        if (messageAsyncResult.failed()) {
+                            response = createTimeoutResponse();
+                        } else {
+                            response = toJsonReply(messageAsyncResult.result().body());
                         }
-                        index++;
+                        completeResponses(clientCommandResponses, response);
                     }
-                }
-            });
+                });
+            }
         } else {
             // Nothing to execute.
             finalResult.complete(null);
@@ -94,6 +120,22 @@ final class RedisTransaction extends RedisBaseClient implements  RedisCommandTra
         return finalResult;
     }
 
+    private JsonObject createTimeoutResponse() {
+        return new JsonObject().put("status", "error").put("code", HttpURLConnection.HTTP_GATEWAY_TIMEOUT);
+    }
+
+    private void completeResponses(List<Future<JsonObject>> clientCommandResponses, JsonObject response) {
+        int index = 0;
+        executeResponse(clientCommandResponses.remove(0), response); // EXEC response
+        for (Future<JsonObject> clientCommandResponse : clientCommandResponses) {
+            if (clientCommandResponse != null) {
+                JsonObject result = constructTransactionCommandResult(response, index);
+                executeResponse(clientCommandResponse, result);
+            }
+            index++;
+        }
+    }
+
     private JsonObject constructTransactionCommandResult(JsonObject response, int index) {
         JsonArray responses = response.getJsonArray("data");
         if (responses != null && responses.size() > index) {
@@ -0,0 +1,421 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Decodes the replies to the commands of a <code>RedisTypedCommandClient</code> straight from the
+ * <code>RedisReply</code> read from the socket, without building the JsonObject response.
+ *
+ * @since 3.2.0
+ */
+final class RedisTypedClient implements RedisTypedCommandClient {
+    private static final Charset ENCODING = Charset.forName("UTF-8");
+    private final RedisReplySender sender;
+
+    RedisTypedClient(RedisReplySender sender) {
+        this.sender = sender;
+    }
+
+    public Future<Long> decr(String key) {
+        return send(RedisCommandType.DECR, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Long> decrby(String key, int decrement) {
+        return send(RedisCommandType.DECRBY, RedisTypedClient::toLong, key, String.valueOf(decrement));
+    }
+
+    public Future<Long> del(String key) {
+        return send(RedisCommandType.DEL, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Long> del(Buffer key) {
+        return send(RedisCommandType.DEL, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Boolean> exists(String key) {
+        return send(RedisCommandType.EXISTS, RedisTypedClient::toBoolean, key);
+    }
+
+    public Future<Boolean> exists(Buffer key) {
+        return send(RedisCommandType.EXISTS, RedisTypedClient::toBoolean, key);
+    }
+
+    public Future<Boolean> expire(String key, int seconds) {
+        return send(RedisCommandType.EXPIRE, RedisTypedClient::toBoolean, key, String.valueOf(seconds));
+    }
+
+    public Future<Boolean> expire(Buffer key, int seconds) {
+        return send(RedisCommandType.EXPIRE, RedisTypedClient::toBoolean, key, String.valueOf(seconds));
+    }
+
+    public Future<Buffer> get(String key) {
+        return send(RedisCommandType.GET, RedisTypedClient::toBuffer, key);
+    }
+
+    public Future<Buffer> get(Buffer key) {
+        return send(RedisCommandType.GET, RedisTypedClient::toBuffer, key);
+    }
+
+    public Future<String> getString(String key) {
+        return send(RedisCommandType.GET, RedisTypedClient::toStringValue, key);
+    }
+
+    public Future<Long> hdel(String key, String field) {
+        return send(RedisCommandType.HDEL, RedisTypedClient::toLong, key, field);
+    }
+
+    public Future<Long> hdel(Buffer key, Buffer field) {
+        return send(RedisCommandType.HDEL, RedisTypedClient::toLong, key, field);
+    }
+
+    public Future<Boolean> hexists(String key, String field) {
+        return send(RedisCommandType.HEXISTS, RedisTypedClient::toBoolean, key, field);
+    }
+
+    public Future<Buffer> hget(String key, String field) {
+        return send(RedisCommandType.HGET, RedisTypedClient::toBuffer, key, field);
+    }
+
+    public Future<Buffer> hget(Buffer key, Buffer field) {
+        return send(RedisCommandType.HGET, RedisTypedClient::toBuffer, key, field);
+    }
+
+    public Future<Map<String, Buffer>> hgetall(String key) {
+        return send(RedisCommandType.HGETALL, RedisTypedClient::toMap, key);
+    }
+
+    public Future<Map<String, Buffer>> hgetall(Buffer key) {
+        return send(RedisCommandType.HGETALL, RedisTypedClient::toMap, key);
+    }
+
+    public Future<Long> hincrby(String key, String field, int increment) {
+        return send(RedisCommandType.HINCRBY, RedisTypedClient::toLong, key, field, String.valueOf(increment));
+    }
+
+    public Future<Long> hlen(String key) {
+        return send(RedisCommandType.HLEN, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Boolean> hset(String key, String field, String value) {
+        return send(RedisCommandType.HSET, RedisTypedClient::toBoolean, key, field, value);
+    }
+
+    public Future<Boolean> hset(Buffer key, Buffer field, Buffer value) {
+        return send(RedisCommandType.HSET, RedisTypedClient::toBoolean, key, field, value);
+    }
+
+    public Future<Boolean> hsetnx(String key, String field, String value) {
+        return send(RedisCommandType.HSETNX, RedisTypedClient::toBoolean, key, field, value);
+    }
+
+    public Future<Boolean> hsetnx(Buffer key, Buffer field, Buffer value) {
+        return send(RedisCommandType.HSETNX, RedisTypedClient::toBoolean, key, field, value);
+    }
+
+    public Future<Long> incr(String key) {
+        return send(RedisCommandType.INCR, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Long> incrby(String key, int increment) {
+        return send(RedisCommandType.INCRBY, RedisTypedClient::toLong, key, String.valueOf(increment));
+    }
+
+    public Future<Long> llen(String key) {
+        return send(RedisCommandType.LLEN, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Buffer> lpop(String key) {
+        return send(RedisCommandType.LPOP, RedisTypedClient::toBuffer, key);
+    }
+
+    public Future<Buffer> lpop(Buffer key) {
+        return send(RedisCommandType.LPOP, RedisTypedClient::toBuffer, key);
+    }
+
+    public Future<Long> lpush(String key, String value) {
+        return send(RedisCommandType.LPUSH, RedisTypedClient::toLong, key, value);
+    }
+
+    public Future<Long> lpush(Buffer key, Buffer value) {
+        return send(RedisCommandType.LPUSH, RedisTypedClient::toLong, key, value);
+    }
+
+    public Future<List<Buffer>> lrange(String key, int start, int stop) {
+        return send(RedisCommandType.LRANGE, RedisTypedClient::toList, key, String.valueOf(start), String.valueOf(stop));
+    }
+
+    public Future<Long> pttl(String key) {
+        return send(RedisCommandType.PTTL, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Buffer> rpop(String key) {
+        return send(RedisCommandType.RPOP, RedisTypedClient::toBuffer, key);
+    }
+
+    public Future<Buffer> rpop(Buffer key) {
+        return send(RedisCommandType.RPOP, RedisTypedClient::toBuffer, key);
+    }
+
+    public Future<Long> rpush(String key, String value) {
+        return send(RedisCommandType.RPUSH, RedisTypedClient::toLong, key, value);
+    }
+
+    public Future<Long> rpush(Buffer key, Buffer value) {
+        return send(RedisCommandType.RPUSH, RedisTypedClient::toLong, key, value);
+    }
+
+    public Future<Long> sadd(String key, String member) {
+        return send(RedisCommandType.SADD, RedisTypedClient::toLong, key, member);
+    }
+
+    public Future<Long> sadd(Buffer key, Buffer member) {
+        return send(RedisCommandType.SADD, RedisTypedClient::toLong, key, member);
+    }
+
+    public Future<Long> scard(String key) {
+        return send(RedisCommandType.SCARD, RedisTypedClient::toLong, key);
+    }
+
+    public Future<String> set(String key, String value) {
+        return send(RedisCommandType.SET, RedisTypedClient::toStringValue, key, value);
+    }
+
+    public Future<String> set(Buffer key, Buffer value) {
+        return send(RedisCommandType.SET, RedisTypedClient::toStringValue, key, value);
+    }
+
+    public Future<String> setex(String key, int expiration, String value) {
+        return send(RedisCommandType.SETEX, RedisTypedClient::toStringValue, key, String.valueOf(expiration), value);
+    }
+
+    public Future<String> setex(Buffer key, int expiration, Buffer value) {
+        return send(RedisCommandType.SETEX, RedisTypedClient::toStringValue, key, String.valueOf(expiration), value);
+    }
+
+    public Future<Boolean> setnx(String key, String value) {
+        return send(RedisCommandType.SETNX, RedisTypedClient::toBoolean, key, value);
+    }
+
+    public Future<Boolean> setnx(Buffer key, Buffer value) {
+        return send(RedisCommandType.SETNX, RedisTypedClient::toBoolean, key, value);
+    }
+
+    public Future<Boolean> sismember(String key, String member) {
+        return send(RedisCommandType.SISMEMBER, RedisTypedClient::toBoolean, key, member);
+    }
+
+    public Future<Boolean> sismember(Buffer key, Buffer member) {
+        return send(RedisCommandType.SISMEMBER, RedisTypedClient::toBoolean, key, member);
+    }
+
+    public Future<List<Buffer>> smembers(String key) {
+        return send(RedisCommandType.SMEMBERS, RedisTypedClient::toList, key);
+    }
+
+    public Future<List<Buffer>> smembers(Buffer key) {
+        return send(RedisCommandType.SMEMBERS, RedisTypedClient::toList, key);
+    }
+
+    public Future<Long> srem(String key, String member) {
+        return send(RedisCommandType.SREM, RedisTypedClient::toLong, key, member);
+    }
+
+    public Future<Long> srem(Buffer key, Buffer member) {
+        return send(RedisCommandType.SREM, RedisTypedClient::toLong, key, member);
+    }
+
+    public Future<Long> ttl(String key) {
+        return send(RedisCommandType.TTL, RedisTypedClient::toLong, key);
+    }
+
+    public Future<Long> zadd(String key, double score, String member) {
+        return send(RedisCommandType.ZADD, RedisTypedClient::toLong, key, String.valueOf(score), member);
+    }
+
+    public Future<Long> zadd(Buffer key, double score, Buffer member) {
+        return send(RedisCommandType.ZADD, RedisTypedClient::toLong, key, String.valueOf(score), member);
+    }
+
+    public Future<Long> zcard(String key) {
+        return send(RedisCommandType.ZCARD, RedisTypedClient::toLong, key);
+    }
+
+    public Future<List<Buffer>> zrange(String key, int start, int stop) {
+        return send(RedisCommandType.ZRANGE, RedisTypedClient::toList, key, String.valueOf(start), String.valueOf(stop));
+    }
+
+    public Future<List<RedisScoredMember>> zrangewithscores(String key, int start, int stop) {
+        return send(RedisCommandType.ZRANGE, RedisTypedClient::toScoredMembers, key, String.valueOf(start), String.valueOf(stop), "WITHSCORES");
+    }
+
+    public Future<Long> zrem(String key, String member) {
+        return send(RedisCommandType.ZREM, RedisTypedClient::toLong, key, member);
+    }
+
+    public Future<Long> zrem(Buffer key, Buffer member) {
+        return send(RedisCommandType.ZREM, RedisTypedClient::toLong, key, member);
+    }
+
+    public Future<Double> zscore(String key, String member) {
+        return send(RedisCommandType.ZSCORE, RedisTypedClient::toDouble, key, member);
+    }
+
+    public Future<Double> zscore(Buffer key, Buffer member) {
+        return send(RedisCommandType.ZSCORE, RedisTypedClient::toDouble, key, member);
+    }
+
+    private <T> Future<T> send(RedisCommandType type, Function<RedisReply, T> decoder, Object... arguments) {
+        final Future<T> finalResult = Future.future();
+        sender.sendReplyCommand(new RedisCommand(type, Arrays.asList(arguments))).setHandler(result -> {
+            if (result.failed()) {
+                finalResult.fail(result.cause());
+            } else if (result.result().isError()) {
+                finalResult.fail(new RedisCommandException((String) result.result().getValue()));
+            } else {
+                try {
+                    finalResult.complete(decoder.apply(result.result()));
+                } catch (ClassCastException | NumberFormatException ex) {
+                    finalResult.fail(new RedisCommandException("Unexpected reply: " + result.result()));
+                }
+            }
+        });
+        return finalResult;
+    }
+
+    static Long toLong(RedisReply reply) {
+        Object value = reply.getValue();
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1L : 0L;
+        }
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    static Boolean toBoolean(RedisReply reply) {
+        Object value = reply.getValue();
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value == null ? null : ((Number) value).longValue() != 0;
+    }
+
+    static Buffer toBuffer(RedisReply reply) {
+        return (Buffer) reply.getValue();
+    }
+
+    static String toStringValue(RedisReply reply) {
+        return decode(reply.getValue());
+    }
+
+    static Double toDouble(RedisReply reply) {
+        Object value = reply.getValue();
+        return value == null ? null : toScore(value);
+    }
+
+    static List<Buffer> toList(RedisReply reply) {
+        List<?> values = (List<?>) reply.getValue();
+        if (values == null) {
+            return null;
+        }
+
+        List<Buffer> buffers = new ArrayList<>(values.size());
+        for (Object value : values) {
+            buffers.add((Buffer) value);
+        }
+        return buffers;
+    }
+
+    static Map<String, Buffer> toMap(RedisReply reply) {
+        if (reply.getValue() instanceof Map) {
+            Map<?, ?> entries = (Map<?, ?>) reply.getValue();
+            Map<String, Buffer> fields = new LinkedHashMap<>(entries.size());
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                fields.put(decode(entry.getKey()), (Buffer) entry.getValue());
+            }
+            return fields;
+        }
+
+        List<?> values = (List<?>) reply.getValue();
+        if (values == null) {
+            return null;
+        }
+
+        Map<String, Buffer> fields = new LinkedHashMap<>(values.size());
+        for (int i = 0; i + 1 < values.size(); i += 2) {
+            fields.put(decode(values.get(i)), (Buffer) values.get(i + 1));
+        }
+        return fields;
+    }
+
+    static List<RedisScoredMember> toScoredMembers(RedisReply reply) {
+        List<?> values = (List<?>) reply.getValue();
+        if (values == null) {
+            return null;
+        }
+
+        if (!values.isEmpty() && values.get(0) instanceof List) {
+            // RESP3 servers may send each member and its score as a pair.
+            List<RedisScoredMember> members = new ArrayList<>(values.size());
+            for (Object value : values) {
+                List<?> pair = (List<?>) value;
+                members.add(new RedisScoredMember((Buffer) pair.get(0), toScore(pair.get(1))));
+            }
+            return members;
+        }
+
+        List<RedisScoredMember> members = new ArrayList<>(values.size() / 2);
+        for (int i = 0; i + 1 < values.size(); i += 2) {
+            members.add(new RedisScoredMember((Buffer) values.get(i), toScore(values.get(i + 1))));
+        }
+        return members;
+    }
+
+    private static double toScore(Object score) {
+        if (score instanceof Double) {
+            return (Double) score;
+        }
+        return parseScore(decode(score));
+    }
+
+    private static double parseScore(String score) {
+        switch (score) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(score);
+        }
+    }
+
+    private static String decode(Object value) {
+        if (value instanceof Buffer) {
+            return ((Buffer) value).toString(ENCODING);
+        }
+        return (String) value;
+    }
+}
@@ -0,0 +1,605 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Redis commands whose futures are completed with the decoded reply instead of a JsonObject.  Integer replies
+ * are returned as Long, replies which are only used as a flag are returned as Boolean, and bulk replies are
+ * returned as the Buffer read from the socket.  If Redis replies with an error the future fails with a
+ * <code>RedisCommandException</code> containing the error message.
+ * <br>
+ * Bulk values are slices of the data read from the socket, see <code>RedisReply</code>.
+ *
+ * @since 3.2.0
+ */
+public interface RedisTypedCommandClient {
+    /**
+     * Decrements the number stored at key by one. If the key does not exist, it is set to 0 before performing the
+     * operation. An error is returned if the key contains a value of the wrong type or contains a string that can
+     * not be represented as integer. This operation is limited to 64 bit signed integers.
+     * <br>
+     * See INCR for extra information on increment/decrement operations.
+     *
+     * @param key - String key
+     * @return Future containing the value of the key after the decrement
+     */
+    Future<Long> decr(String key);
+
+    /**
+     * Decrements the number stored at key by decrement. If the key does not exist, it is set to 0 before performing
+     * the operation. An error is returned if the key contains a value of the wrong type or contains a string that can
+     * not be represented as integer. This operation is limited to 64 bit signed integers.
+     * <br>
+     * See INCR for extra information on increment/decrement operations.
+     *
+     * @param key - String key
+     * @param decrement - Integer decrement
+     * @return Future containing the value of the key after the decrement
+     */
+    Future<Long> decrby(String key, int decrement);
+
+    /**
+     * Removes the specified key. The key is ignored if it does not exist.
+     *
+     * @param key - String key
+     * @return Future containing the number of keys that were removed
+     */
+    Future<Long> del(String key);
+
+    /**
+     * Removes the specified key. The key is ignored if it does not exist.
+     *
+     * @param key - Buffer key
+     * @return Future containing the number of keys that were removed
+     */
+    Future<Long> del(Buffer key);
+
+    /**
+     * Returns if key exists.
+     *
+     * @param key - String key
+     * @return Future containing true if the key exists
+     */
+    Future<Boolean> exists(String key);
+
+    /**
+     * Returns if key exists.
+     *
+     * @param key - Buffer key
+     * @return Future containing true if the key exists
+     */
+    Future<Boolean> exists(Buffer key);
+
+    /**
+     * Set a timeout on key.  After the timeout has expired, the key will automatically be deleted.
+     *
+     * @param key - String key
+     * @param seconds - Integer seconds
+     * @return Future containing true if the timeout was set
+     */
+    Future<Boolean> expire(String key, int seconds);
+
+    /**
+     * Set a timeout on key.  After the timeout has expired, the key will automatically be deleted.
+     *
+     * @param key - Buffer key
+     * @param seconds - Integer seconds
+     * @return Future containing true if the timeout was set
+     */
+    Future<Boolean> expire(Buffer key, int seconds);
+
+    /**
+     * Get the value of key.
+     *
+     * @param key - String key
+     * @return Future containing the value of the key, or null if it does not exist
+     */
+    Future<Buffer> get(String key);
+
+    /**
+     * Get the value of key.
+     *
+     * @param key - Buffer key
+     * @return Future containing the value of the key, or null if it does not exist
+     */
+    Future<Buffer> get(Buffer key);
+
+    /**
+     * Get the value of key.
+     *
+     * @param key - String key
+     * @return Future containing the value of the key decoded as UTF-8, or null if it does not exist
+     */
+    Future<String> getString(String key);
+
+    /**
+     * Removes the specified field from the hash stored at key.  If the specified field does not exist within this hash
+     * it is ignored.  If key does not exist, it is treated as an empty hash and this command returns 0.
+     *
+     * @param key - String key
+     * @param field - String field
+     * @return Future containing the number of fields that were removed
+     */
+    Future<Long> hdel(String key, String field);
+
+    /**
+     * Removes the specified field from the hash stored at key.  If the specified field does not exist within this hash
+     * it is ignored.  If key does not exist, it is treated as an empty hash and this command returns 0.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @return Future containing the number of fields that were removed
+     */
+    Future<Long> hdel(Buffer key, Buffer field);
+
+    /**
+     * Returns if field is an existing field in the hash stored at key.
+     *
+     * @param key - String key
+     * @param field - String field
+     * @return Future containing true if the hash contains the field
+     */
+    Future<Boolean> hexists(String key, String field);
+
+    /**
+     * Returns the value associated with field in the hash stored at key.
+     *
+     * @param key - String key
+     * @param field - String field
+     * @return Future containing the value of the field, or null if it does not exist
+     */
+    Future<Buffer> hget(String key, String field);
+
+    /**
+     * Returns the value associated with field in the hash stored at key.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @return Future containing the value of the field, or null if it does not exist
+     */
+    Future<Buffer> hget(Buffer key, Buffer field);
+
+    /**
+     * Returns all fields and values of the hash stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the fields of the hash in the order Redis returned them
+     */
+    Future<Map<String, Buffer>> hgetall(String key);
+
+    /**
+     * Returns all fields and values of the hash stored at key.
+     *
+     * @param key - Buffer key
+     * @return Future containing the fields of the hash in the order Redis returned them
+     */
+    Future<Map<String, Buffer>> hgetall(Buffer key);
+
+    /**
+     * Increments the number stored at field in the hash stored at key by increment.
+     *
+     * @param key - String key
+     * @param field - String field
+     * @param increment - Integer increment
+     * @return Future containing the value of the field after the increment
+     */
+    Future<Long> hincrby(String key, String field, int increment);
+
+    /**
+     * Returns the number of fields contained in the hash stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the number of fields in the hash
+     */
+    Future<Long> hlen(String key);
+
+    /**
+     * Sets field in the hash stored at key to value.
+     *
+     * @param key - String key
+     * @param field - String field
+     * @param value - String value
+     * @return Future containing true if the field is new, false if its value was replaced
+     */
+    Future<Boolean> hset(String key, String field, String value);
+
+    /**
+     * Sets field in the hash stored at key to value.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @param value - Buffer value
+     * @return Future containing true if the field is new, false if its value was replaced
+     */
+    Future<Boolean> hset(Buffer key, Buffer field, Buffer value);
+
+    /**
+     * Sets field in the hash stored at key to value, only if field does not yet exist.
+     *
+     * @param key - String key
+     * @param field - String field
+     * @param value - String value
+     * @return Future containing true if the field was set
+     */
+    Future<Boolean> hsetnx(String key, String field, String value);
+
+    /**
+     * Sets field in the hash stored at key to value, only if field does not yet exist.
+     *
+     * @param key - Buffer key
+     * @param field - Buffer field
+     * @param value - Buffer value
+     * @return Future containing true if the field was set
+     */
+    Future<Boolean> hsetnx(Buffer key, Buffer field, Buffer value);
+
+    /**
+     * Increments the number stored at key by one.
+     *
+     * @param key - String key
+     * @return Future containing the value of the key after the increment
+     */
+    Future<Long> incr(String key);
+
+    /**
+     * Increments the number stored at key by increment.
+     * <br>
+     * See INCR for extra information on increment/decrement operations.
+     *
+     * @param key - String key
+     * @param increment - Integer increment
+     * @return Future containing the value of the key after the increment
+     */
+    Future<Long> incrby(String key, int increment);
+
+    /**
+     * Returns the length of the list stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the length of the list
+     */
+    Future<Long> llen(String key);
+
+    /**
+     * Removes and returns the first element of the list stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the first element, or null if the list is empty
+     */
+    Future<Buffer> lpop(String key);
+
+    /**
+     * Removes and returns the first element of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @return Future containing the first element, or null if the list is empty
+     */
+    Future<Buffer> lpop(Buffer key);
+
+    /**
+     * Insert the specified value at the head of the list stored at key.
+     *
+     * @param key - String key
+     * @param value - String value
+     * @return Future containing the length of the list after the push
+     */
+    Future<Long> lpush(String key, String value);
+
+    /**
+     * Insert the specified value at the head of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future containing the length of the list after the push
+     */
+    Future<Long> lpush(Buffer key, Buffer value);
+
+    /**
+     * Returns the specified elements of the list stored at key.
+     *
+     * @param key - String key
+     * @param start - Integer start index
+     * @param stop - Integer stop index
+     * @return Future containing the elements in the range
+     */
+    Future<List<Buffer>> lrange(String key, int start, int stop);
+
+    /**
+     * Like TTL this command returns the remaining time to live of a key that has an expire set, with the sole
+     * difference that TTL returns the amount of remaining time in seconds while PTTL returns it in milliseconds.
+     *
+     * @param key - String key
+     * @return Future containing the remaining time to live in milliseconds, or a negative value if there is none
+     */
+    Future<Long> pttl(String key);
+
+    /**
+     * Removes and returns the last element of the list stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the last element, or null if the list is empty
+     */
+    Future<Buffer> rpop(String key);
+
+    /**
+     * Removes and returns the last element of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @return Future containing the last element, or null if the list is empty
+     */
+    Future<Buffer> rpop(Buffer key);
+
+    /**
+     * Insert the specified value at the tail of the list stored at key.
+     *
+     * @param key - String key
+     * @param value - String value
+     * @return Future containing the length of the list after the push
+     */
+    Future<Long> rpush(String key, String value);
+
+    /**
+     * Insert the specified value at the tail of the list stored at key.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future containing the length of the list after the push
+     */
+    Future<Long> rpush(Buffer key, Buffer value);
+
+    /**
+     * Add the specified member to the set stored at key.
+     *
+     * @param key - String key
+     * @param member - String member
+     * @return Future containing the number of members that were added
+     */
+    Future<Long> sadd(String key, String member);
+
+    /**
+     * Add the specified member to the set stored at key.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future containing the number of members that were added
+     */
+    Future<Long> sadd(Buffer key, Buffer member);
+
+    /**
+     * Returns the set cardinality (number of elements) of the set stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the number of members in the set
+     */
+    Future<Long> scard(String key);
+
+    /**
+     * Set key to hold the string value.  If key already holds a value, it is overwritten, regardless of its type.
+     * Any previous time to live associated with the key is discarded on successful SET operation.
+     *
+     * @param key - String key
+     * @param value - String value
+     * @return Future containing the status reply from Redis
+     */
+    Future<String> set(String key, String value);
+
+    /**
+     * Set key to hold the string value.  If key already holds a value, it is overwritten, regardless of its type.
+     * Any previous time to live associated with the key is discarded on successful SET operation.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future containing the status reply from Redis
+     */
+    Future<String> set(Buffer key, Buffer value);
+
+    /**
+     * Set key to hold the string value and set key to timeout after a given number of seconds.
+     *
+     * @param key - String key
+     * @param expiration - Integer expiration
+     * @param value - String value
+     * @return Future containing the status reply from Redis
+     */
+    Future<String> setex(String key, int expiration, String value);
+
+    /**
+     * Set key to hold the string value and set key to timeout after a given number of seconds.
+     *
+     * @param key - Buffer key
+     * @param expiration - Integer expiration
+     * @param value - Buffer value
+     * @return Future containing the status reply from Redis
+     */
+    Future<String> setex(Buffer key, int expiration, Buffer value);
+
+    /**
+     * Set key to hold string value if key does not exist.  In that case, it is equal to SET.  When key already holds
+     * a value, no operation is performed.
+     *
+     * @param key - String key
+     * @param value - String value
+     * @return Future containing true if the key was set
+     */
+    Future<Boolean> setnx(String key, String value);
+
+    /**
+     * Set key to hold string value if key does not exist.  In that case, it is equal to SET.  When key already holds
+     * a value, no operation is performed.
+     *
+     * @param key - Buffer key
+     * @param value - Buffer value
+     * @return Future containing true if the key was set
+     */
+    Future<Boolean> setnx(Buffer key, Buffer value);
+
+    /**
+     * Returns if member is a member of the set stored at key.
+     *
+     * @param key - String key
+     * @param member - String member
+     * @return Future containing true if the member is in the set
+     */
+    Future<Boolean> sismember(String key, String member);
+
+    /**
+     * Returns if member is a member of the set stored at key.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future containing true if the member is in the set
+     */
+    Future<Boolean> sismember(Buffer key, Buffer member);
+
+    /**
+     * Returns all the members of the set value stored at key.  This has the same effect as running SINTER with
+     * one argument key.
+     *
+     * @param key - String key
+     * @return Future containing the members of the set
+     */
+    Future<List<Buffer>> smembers(String key);
+
+    /**
+     * Returns all the members of the set value stored at key.  This has the same effect as running SINTER with
+     * one argument key.
+     *
+     * @param key - Buffer key
+     * @return Future containing the members of the set
+     */
+    Future<List<Buffer>> smembers(Buffer key);
+
+    /**
+     * Remove the specified member from the set stored at key.
+     *
+     * @param key - String key
+     * @param member - String member
+     * @return Future containing the number of members that were removed
+     */
+    Future<Long> srem(String key, String member);
+
+    /**
+     * Remove the specified member from the set stored at key.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future containing the number of members that were removed
+     */
+    Future<Long> srem(Buffer key, Buffer member);
+
+    /**
+     * Returns the remaining time to live of a key that has a timeout.
+     *
+     * @param key - String key
+     * @return Future containing the remaining time to live in seconds, or a negative value if there is none
+     */
+    Future<Long> ttl(String key);
+
+    /**
+     * Adds the specified member with the specified score to the sorted set stored at key.
+     *
+     * @param key - String key
+     * @param score - Double score
+     * @param member - String member
+     * @return Future containing the number of members that were added
+     */
+    Future<Long> zadd(String key, double score, String member);
+
+    /**
+     * Adds the specified member with the specified score to the sorted set stored at key.
+     *
+     * @param key - Buffer key
+     * @param score - Double score
+     * @param member - Buffer member
+     * @return Future containing the number of members that were added
+     */
+    Future<Long> zadd(Buffer key, double score, Buffer member);
+
+    /**
+     * Returns the sorted set cardinality (number of elements) of the sorted set stored at key.
+     *
+     * @param key - String key
+     * @return Future containing the number of members in the sorted set
+     */
+    Future<Long> zcard(String key);
+
+    /**
+     * Returns the specified range of elements in the sorted set stored at key.  The elements are considered to be
+     * ordered from the lowest to the highest score.  Lexicographical order is used for elements with equal score.
+     *
+     * @param key - String key
+     * @param start - Integer start index
+     * @param stop - Integer stop index
+     * @return Future containing the members in the range
+     */
+    Future<List<Buffer>> zrange(String key, int start, int stop);
+
+    /**
+     * Returns the specified range of elements with their score in the sorted set stored at key.  The elements are
+     * considered to be ordered from the lowest to the highest score.  Lexicographical order is used for elements
+     * with equal score.
+     *
+     * @param key - String key
+     * @param start - Integer start index
+     * @param stop - Integer stop index
+     * @return Future containing the members in the range with their scores
+     */
+    Future<List<RedisScoredMember>> zrangewithscores(String key, int start, int stop);
+
+    /**
+     * Removes the specified member from the sorted set stored at key. Non existing members are ignored.
+     *
+     * @param key - String key
+     * @param member - String member
+     * @return Future containing the number of members that were removed
+     */
+    Future<Long> zrem(String key, String member);
+
+    /**
+     * Removes the specified member from the sorted set stored at key. Non existing members are ignored.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future containing the number of members that were removed
+     */
+    Future<Long> zrem(Buffer key, Buffer member);
+
+    /**
+     * Returns the score of member in the sorted set at key.  If member does not exist in the sorted set, or key
+     * does not exist, nil is returned.
+     *
+     * @param key - String key
+     * @param member - String member
+     * @return Future containing the score of the member, or null if it is not in the sorted set
+     */
+    Future<Double> zscore(String key, String member);
+
+    /**
+     * Returns the score of member in the sorted set at key.  If member does not exist in the sorted set, or key
+     * does not exist, nil is returned.
+     *
+     * @param key - Buffer key
+     * @param member - Buffer member
+     * @return Future containing the score of the member, or null if it is not in the sorted set
+     */
+    Future<Double> zscore(Buffer key, Buffer member);
+}
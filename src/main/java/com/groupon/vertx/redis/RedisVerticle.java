@@ -30,6 +30,8 @@ import com.groupon.vertx.utils.Logger;
  */
 public class RedisVerticle extends AbstractVerticle implements RedisKeys {
     private static final Logger log = Logger.getLogger(RedisVerticle.class);
+    private RedisConnectionPool pool;
+    private RedisSentinelHandler sentinelHandler;
 
     @Override
     public void start(Future<Void> startFuture) {
@@ -52,6 +54,8 @@ public class RedisVerticle extends AbstractVerticle implements RedisKeys {
             }
         }
 
+        RedisMessageCodecs.register(vertx.eventBus());
+
         NetClient netClient = vertx.createNetClient();
         establishSockets(redisConfig, netClient);
 
@@ -59,17 +63,74 @@ public class RedisVerticle extends AbstractVerticle implements RedisKeys {
         startFuture.complete(null);
     }
 
+    @Override
+    public void stop() {
+        if (pool != null) {
+            pool.unregister();
+        }
+
+        if (sentinelHandler != null) {
+            sentinelHandler.close();
+        }
+
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
     /**
-     * This method opens the connection to the Redis server and registers the message handler on
-     * success.  If the connection fails or is closed, it unregisters the handler and attempts to
-     * reconnect.
+     * This method opens the pool of connections to the Redis server and registers the message handler
+     * once the first connection succeeds.  If a connection fails or is closed, it is removed from the
+     * pool and reconnected.  The pool is registered for use by a <code>RedisDirectClient</code>.  When a
+     * tracking mode is configured a dedicated connection is also opened for the CLIENT TRACKING invalidations,
+     * unless the connections use RESP3 and receive their invalidations as push frames.
+     * <br>
+     * In cluster mode the registered pool is a <code>RedisCluster</code>, which opens the connections to
+     * each node once it has loaded the slot map from the configured host.  When shards are configured the
+     * registered pool is a <code>RedisShardedPool</code>, which opens a pool of connections to each shard.
+     * When replicas are configured it is a <code>RedisReplicatedPool</code>, which opens a pool of connections
+     * to the host and to each replica.  When Sentinels are configured a <code>RedisSentinelHandler</code> finds
+     * the primary and connects the pool to it, moving the connections whenever the primary changes.
      *
      * @param redisConfig - The configuration for the connection to Redis
      * @param netClient   - The client for connecting to Redis.
      */
     private void establishSockets(final RedisConfig redisConfig, final NetClient netClient) {
-        RedisSocketHandler handler = new RedisSocketHandler(vertx, redisConfig.getEventBusAddress(),
-                redisConfig.getHost(), redisConfig.getPort(), netClient, redisConfig.getRetryInterval());
-        handler.handle(System.currentTimeMillis());
+        if (redisConfig.isCluster()) {
+            RedisCluster cluster = new RedisCluster(vertx, redisConfig, netClient);
+            pool = cluster;
+            pool.register();
+            cluster.start();
+            return;
+        } else if (!redisConfig.getShards().isEmpty()) {
+            RedisShardedPool shardedPool = new RedisShardedPool(vertx, redisConfig, netClient);
+            pool = shardedPool;
+            pool.register();
+            shardedPool.start();
+            return;
+        } else if (!redisConfig.getReplicas().isEmpty()) {
+            RedisReplicatedPool replicatedPool = new RedisReplicatedPool(vertx, redisConfig, netClient);
+            pool = replicatedPool;
+            pool.register();
+            replicatedPool.start();
+            return;
+        } else if (!redisConfig.getSentinels().isEmpty()) {
+            pool = new RedisConnectionPool(vertx, redisConfig.getEventBusAddress());
+            pool.register();
+            sentinelHandler = new RedisSentinelHandler(vertx, redisConfig, netClient, pool);
+            sentinelHandler.handle(System.currentTimeMillis());
+            return;
+        }
+
+        pool = new RedisConnectionPool(vertx, redisConfig.getEventBusAddress());
+        pool.register();
+        pool.connect(redisConfig, netClient, redisConfig.getHost(), redisConfig.getPort());
+
+        if (redisConfig.getTrackingMode() != null && redisConfig.isResp3()) {
+            pool.enableTracking(RedisInvalidationHandler.getTrackingArguments(redisConfig, null));
+        } else if (redisConfig.getTrackingMode() != null) {
+            RedisSocketHandler handler = new RedisSocketHandler(vertx, redisConfig, netClient, pool, true);
+            handler.handle(System.currentTimeMillis());
+        }
     }
 }
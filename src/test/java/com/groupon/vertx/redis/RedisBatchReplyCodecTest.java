@@ -0,0 +1,59 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisBatchReplyCodec</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisBatchReplyCodecTest {
+    private final RedisBatchReplyCodec codec = new RedisBatchReplyCodec();
+
+    @Test
+    public void testTransformIsIdentity() {
+        RedisBatchReply batchReply = new RedisBatchReply(Arrays.<Object>asList(new RedisReply(RedisResponseType.STATUS_CODE, "OK")));
+
+        assertSame(batchReply, codec.transform(batchReply));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        JsonObject error = new JsonObject().put("status", "error").put("message", "closed");
+        Buffer wire = Buffer.buffer("xx");
+        codec.encodeToWire(wire, new RedisBatchReply(Arrays.<Object>asList(
+                new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("foo")),
+                error,
+                new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.asList(Buffer.buffer("a"), 1L)))));
+
+        List<Object> replies = codec.decodeFromWire(2, wire).getReplies();
+        assertEquals(3, replies.size());
+        assertEquals(Buffer.buffer("foo"), ((RedisReply) replies.get(0)).getValue());
+        assertEquals(error, replies.get(1));
+        assertEquals(RedisResponseType.MULTI_BULK_REPLY, ((RedisReply) replies.get(2)).getType());
+        assertEquals(Arrays.asList(Buffer.buffer("a"), 1L), ((RedisReply) replies.get(2)).getValue());
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisCluster</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisClusterTest {
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private NetClient netClient;
+
+    @Mock
+    private EventBus eventBus;
+
+    @Mock
+    private RedisCommandHandler seed;
+
+    @Mock
+    private RedisCommandHandler first;
+
+    @Mock
+    private RedisCommandHandler second;
+
+    @Mock
+    private RedisCommandHandler third;
+
+    @Captor
+    private ArgumentCaptor<List<RedisCommand>> commandsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Long>> timerCaptor;
+
+    private RedisCluster cluster;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"seed\",\"port\":7000,\"eventBusAddress\":\"address\",\"cluster\":true}"));
+        cluster = new RedisCluster(vertx, config, netClient);
+        cluster.getSlotNode(0).add(seed);
+
+        cluster.updateSlots(Arrays.asList(
+                Arrays.asList(0L, 8191L, Arrays.asList(Buffer.buffer("a"), 7001L)),
+                Arrays.asList(8192L, 16383L, Arrays.asList(Buffer.buffer("b"), 7002L, Buffer.buffer("id")),
+                        Arrays.asList(Buffer.buffer("c"), 7003L))));
+        cluster.getSlotNode(0).add(first);
+        cluster.getSlotNode(16383).add(second);
+    }
+
+    @Test
+    public void testSlot() {
+        assertEquals("Unexpected slot", 12739, RedisCluster.getSlot("123456789"));
+        assertEquals("Unexpected slot", 12182, RedisCluster.getSlot("foo"));
+        assertEquals("Unexpected slot", RedisCluster.getSlot("foo"), RedisCluster.getSlot("foo".getBytes()));
+        assertEquals("Unexpected slot", RedisCluster.getSlot("user1000"), RedisCluster.getSlot("{user1000}.following"));
+        assertEquals("Unexpected slot", RedisCluster.getSlot("{user1000}.followers"), RedisCluster.getSlot("{user1000}.following"));
+        assertEquals("Unexpected slot", RedisCluster.getSlot("bar"), RedisCluster.getSlot(Buffer.buffer("foo{bar}{zap}")));
+        assertTrue("Unexpected slot", RedisCluster.getSlot("{}foo") != RedisCluster.getSlot("foo"));
+    }
+
+    @Test
+    public void testConnectsPrimaries() {
+        verify(netClient, times(1)).connect(eq(7000), eq("seed"), any());
+        verify(netClient, times(1)).connect(eq(7001), eq("a"), any());
+        verify(netClient, times(1)).connect(eq(7002), eq("b"), any());
+        verify(netClient, never()).connect(anyInt(), eq("c"), any());
+
+        assertSame("Unexpected node", cluster.getSlotNode(0), cluster.getSlotNode(8191));
+        assertNotSame("Unexpected node", cluster.getSlotNode(8191), cluster.getSlotNode(8192));
+        assertEquals("Unexpected connected nodes", 3, cluster.size());
+    }
+
+    @Test
+    public void testRoutesBySlot() {
+        cluster.sendCommand(Arrays.asList(command("foo"), command("{user1000}.following")));
+
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected key", "foo", commandsCaptor.getValue().get(0).getKey());
+        verify(first, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected key", "{user1000}.following", commandsCaptor.getValue().get(0).getKey());
+        verify(seed, never()).sendCommand(any());
+    }
+
+    @Test
+    public void testMovedRedirect() {
+        RedisCommand command = command("foo");
+        Future<RedisReply> response = Future.future();
+        command.replyResponse(response);
+
+        cluster.sendCommand(Collections.singletonList(command));
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        commandsCaptor.getValue().get(0).setReply(new RedisReply(RedisResponseType.ERROR, "MOVED 12182 a:7001"));
+
+        assertSame("Slot not moved", cluster.getSlotNode(0), cluster.getSlotNode(12182));
+        verify(first, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand redirected = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected command", RedisCommandType.GET, redirected.getType());
+        verify(seed, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Slot map not refreshed", RedisCommandType.CLUSTER_SLOTS, commandsCaptor.getValue().get(0).getType());
+
+        redirected.setReply(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("bar")));
+        assertTrue("Response not completed", response.succeeded());
+        assertEquals("Unexpected reply", Buffer.buffer("bar"), response.result().getValue());
+    }
+
+    @Test
+    public void testMovedToConnectingNode() {
+        RedisCommand command = command("foo");
+        Future<RedisReply> response = Future.future();
+        command.replyResponse(response);
+
+        cluster.sendCommand(Collections.singletonList(command));
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        commandsCaptor.getValue().get(0).setReply(new RedisReply(RedisResponseType.ERROR, "MOVED 12182 d:7004"));
+
+        RedisConnectionPool node = cluster.getSlotNode(12182);
+        assertEquals("Unexpected connections", 0, node.size());
+        assertFalse("Response completed", response.isComplete());
+
+        node.add(third);
+        verify(third, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand redirected = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected command", RedisCommandType.GET, redirected.getType());
+
+        redirected.setReply(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("bar")));
+        assertTrue("Response not completed", response.succeeded());
+    }
+
+    @Test
+    public void testConsumerRegisteredOnceNodesConnect() throws Exception {
+        doReturn(eventBus).when(vertx).eventBus();
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"seed\",\"port\":7000,\"eventBusAddress\":\"address\",\"cluster\":true}"));
+        RedisCluster starting = new RedisCluster(vertx, config, netClient);
+        starting.start();
+
+        starting.getSlotNode(0).add(seed);
+        verify(seed, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand slots = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected command", RedisCommandType.CLUSTER_SLOTS, slots.getType());
+        slots.setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Collections.singletonList(
+                Arrays.asList(0L, 16383L, Arrays.asList(Buffer.buffer("a"), 7001L)))));
+
+        verify(eventBus, never()).consumer(eq("address"), any());
+        verify(vertx, times(1)).setTimer(eq(config.getRetryInterval()), timerCaptor.capture());
+
+        starting.getSlotNode(0).add(first);
+        timerCaptor.getValue().handle(0L);
+        verify(eventBus, times(1)).consumer("address", starting);
+    }
+
+    @Test
+    public void testAskRedirect() {
+        cluster.sendCommand(Collections.singletonList(command("foo")));
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        commandsCaptor.getValue().get(0).setReply(new RedisReply(RedisResponseType.ERROR, "ASK 12182 a:7001"));
+
+        verify(first, times(1)).sendCommand(commandsCaptor.capture());
+        List<RedisCommand> redirected = commandsCaptor.getValue();
+        assertEquals("Unexpected command", RedisCommandType.ASKING, redirected.get(0).getType());
+        assertEquals("Unexpected command", RedisCommandType.GET, redirected.get(1).getType());
+        assertSame("Slot moved", cluster.getSlotNode(16383), cluster.getSlotNode(12182));
+    }
+
+    @Test
+    public void testSplitsCrossSlotMget() {
+        RedisCommand command = new RedisCommand(RedisCommandType.MGET, Arrays.asList("foo", "{user1000}.following", "{user1000}.followers"));
+        Future<RedisReply> response = Future.future();
+        command.replyResponse(response);
+
+        cluster.sendCommand(Collections.singletonList(command));
+
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand secondCommand = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected arguments", Collections.singletonList("foo"), secondCommand.getArgumentValues());
+        verify(first, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand firstCommand = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected arguments", Arrays.asList("{user1000}.following", "{user1000}.followers"), firstCommand.getArgumentValues());
+
+        firstCommand.setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.asList(Buffer.buffer("1"), Buffer.buffer("2"))));
+        secondCommand.setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Collections.singletonList(Buffer.buffer("0"))));
+        assertEquals("Unexpected reply", Arrays.asList(Buffer.buffer("0"), Buffer.buffer("1"), Buffer.buffer("2")), response.result().getValue());
+    }
+
+    @Test
+    public void testTransactionSentToOneNode() {
+        cluster.sendCommand(Arrays.asList(new RedisCommand(RedisCommandType.MULTI, null), command("foo"),
+                command("{user1000}.following"), new RedisCommand(RedisCommandType.EXEC, null)));
+
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected commands", 4, commandsCaptor.getValue().size());
+        verify(first, never()).sendCommand(any());
+    }
+
+    @Test
+    public void testRemovedNodeClosed() {
+        cluster.updateSlots(Collections.singletonList(Arrays.asList(0L, 16383L, Arrays.asList(Buffer.buffer("a"), 7001L))));
+
+        assertSame("Unexpected node", cluster.getSlotNode(0), cluster.getSlotNode(16383));
+        assertEquals("Unexpected connected nodes", 2, cluster.size());
+    }
+
+    private static RedisCommand command(String key) {
+        return new RedisCommand(RedisCommandType.GET, Collections.singletonList(key));
+    }
+}
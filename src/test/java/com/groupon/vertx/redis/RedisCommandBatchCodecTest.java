@@ -0,0 +1,79 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisCommandBatchCodec</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisCommandBatchCodecTest {
+    private final RedisCommandBatchCodec codec = new RedisCommandBatchCodec();
+
+    @Test
+    public void testTransformPassesReference() {
+        RedisCommandBatch batch = new RedisCommandBatch(Collections.<RedisCommand>emptyList(), false);
+
+        assertSame("Batch should not be copied", batch, codec.transform(batch));
+    }
+
+    @Test
+    public void testWireRoundTrip() {
+        RedisCommandBatch batch = new RedisCommandBatch(Arrays.asList(
+                new RedisCommand(RedisCommandType.SET, Arrays.asList("k\u00e9y", Buffer.buffer("a\r\nb"))),
+                new RedisCommand(RedisCommandType.GET, Collections.singletonList(new byte[]{0, 1, 2})),
+                new RedisCommand(RedisCommandType.PING, null)), true);
+
+        Buffer wire = Buffer.buffer("prefix");
+        codec.encodeToWire(wire, batch);
+        RedisCommandBatch decoded = codec.decodeFromWire(6, wire);
+
+        assertTrue("Transaction flag lost", decoded.isTransaction());
+        assertEquals("Unexpected command count", 3, decoded.getCommands().size());
+
+        RedisCommand set = decoded.getCommands().get(0);
+        assertEquals(RedisCommandType.SET, set.getType());
+        assertEquals("k\u00e9y", set.getArgumentValues().get(0));
+        assertEquals(Buffer.buffer("a\r\nb"), set.getArgumentValues().get(1));
+
+        RedisCommand get = decoded.getCommands().get(1);
+        assertEquals(RedisCommandType.GET, get.getType());
+        assertEquals(Buffer.buffer(new byte[]{0, 1, 2}), get.getArgumentValues().get(0));
+
+        RedisCommand ping = decoded.getCommands().get(2);
+        assertEquals(RedisCommandType.PING, ping.getType());
+        assertTrue("Unexpected arguments", ping.getArgumentValues().isEmpty());
+    }
+
+    @Test
+    public void testWireNotTransaction() {
+        Buffer wire = Buffer.buffer();
+        codec.encodeToWire(wire, new RedisCommandBatch(Collections.singletonList(new RedisCommand(RedisCommandType.PING, null)), false));
+
+        assertFalse("Unexpected transaction", codec.decodeFromWire(0, wire).isTransaction());
+    }
+}
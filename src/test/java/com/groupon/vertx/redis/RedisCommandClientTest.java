@@ -18,7 +18,12 @@ package com.groupon.vertx.redis;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,7 +35,10 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
@@ -75,6 +83,15 @@ public class RedisCommandClientTest {
     @Captor
     private ArgumentCaptor<DeliveryOptions> deliveryOptionsCaptor;
 
+    @Mock
+    private Vertx vertx;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> tickCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Long>> timerCaptor;
+
     private RedisCommandClient factory;
 
     @Before
@@ -100,6 +117,85 @@ public class RedisCommandClientTest {
         assertEquals(new JsonObject(), result.result());
     }
 
+    @Test
+    public void testGetWithCodec() {
+        RedisCommandClient codecClient = new RedisClient(eventBus, "address", TIMEOUT, true);
+        ArgumentCaptor<RedisCommandBatch> batchCaptor = ArgumentCaptor.forClass(RedisCommandBatch.class);
+
+        codecClient.get("key").setHandler(handler);
+
+        verify(eventBus, times(1)).registerCodec(any(RedisCommandBatchCodec.class));
+        verify(eventBus, times(1)).send(eq("address"), batchCaptor.capture(), deliveryOptionsCaptor.capture(), getCaptor.capture());
+        assertEquals(RedisCommandBatchCodec.CODEC_NAME, deliveryOptionsCaptor.getValue().getCodecName());
+        assertEquals(RedisCommandType.GET, batchCaptor.getValue().getCommands().get(0).getType());
+
+        doReturn(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("value"))).when(message).body();
+        getCaptor.getValue().handle(asyncResult);
+        verify(handler, times(1)).handle(resultCaptor.capture());
+
+        AsyncResult<JsonObject> result = resultCaptor.getValue();
+        assertTrue(result.succeeded());
+        assertEquals(new JsonObject().put("status", "success").put("data", "value"), result.result());
+    }
+
+    @Test
+    public void testAutoBatch() {
+        doReturn(eventBus).when(vertx).eventBus();
+        RedisCommandClient batchClient = new RedisClient(vertx, "address", TIMEOUT, false, 0);
+
+        Future<JsonObject> first = batchClient.get("first");
+        Future<JsonObject> second = batchClient.get("second");
+
+        verify(vertx, times(1)).runOnContext(tickCaptor.capture());
+        verify(eventBus, never()).send(anyString(), any(), any(DeliveryOptions.class), any());
+
+        tickCaptor.getValue().handle(null);
+        JsonObject expected = new JsonObject().put("commands", new JsonArray()
+                .add(new JsonObject().put("command", "GET").put("arguments", new JsonArray().add("first")))
+                .add(new JsonObject().put("command", "GET").put("arguments", new JsonArray().add("second"))));
+        verify(eventBus, times(1)).send(eq("address"), eq(expected), withTimeout(TIMEOUT), getCaptor.capture());
+
+        JsonObject firstResponse = new JsonObject().put("status", "success").put("data", "one");
+        JsonObject secondResponse = new JsonObject().put("status", "success").put("data", "two");
+        when(message.body()).thenReturn(new JsonObject().put("status", "success").put("data", new JsonArray().add(firstResponse).add(secondResponse)));
+        getCaptor.getValue().handle(asyncResult);
+
+        assertEquals(firstResponse, first.result());
+        assertEquals(secondResponse, second.result());
+
+        batchClient.get("third");
+        verify(vertx, times(2)).runOnContext(any());
+    }
+
+    @Test
+    public void testAutoBatchDelay() {
+        doReturn(eventBus).when(vertx).eventBus();
+        RedisCommandClient batchClient = new RedisClient(vertx, "address", TIMEOUT, false, 5);
+
+        batchClient.get("first");
+        batchClient.get("second");
+
+        verify(vertx, times(1)).setTimer(eq(5L), timerCaptor.capture());
+        verify(vertx, never()).runOnContext(any());
+
+        timerCaptor.getValue().handle(1L);
+        verify(eventBus, times(1)).send(eq("address"), any(JsonObject.class), withTimeout(TIMEOUT), getCaptor.capture());
+    }
+
+    @Test
+    public void testAutoBatchCoalesceReads() {
+        doReturn(eventBus).when(vertx).eventBus();
+        RedisCommandClient batchClient = new RedisClient(vertx, "address", TIMEOUT, false, 0, true);
+
+        batchClient.get("first");
+        batchClient.get("second");
+
+        verify(vertx, times(1)).runOnContext(tickCaptor.capture());
+        tickCaptor.getValue().handle(null);
+        verify(eventBus, times(1)).send(eq("address"), eq(getJsonCommand("{\"command\":\"MGET\",\"arguments\":[\"first\",\"second\"]}")),
+                withTimeout(TIMEOUT), getCaptor.capture());
+    }
+
     @Test
     public void testBitcount() {
         factory.bitcount("key").setHandler(handler);
@@ -321,6 +417,19 @@ public class RedisCommandClientTest {
         assertEquals(new JsonObject(), result.result());
     }
 
+    @Test
+    public void testGetBuffer() {
+        factory.get(Buffer.buffer("key")).setHandler(handler);
+
+        verify(eventBus, times(1)).send(eq("address"), eq(getJsonCommand("{\"command\":\"GET\",\"arguments\":[\"a2V5\"],\"binaryArguments\":[0]}")), withTimeout(TIMEOUT), getCaptor.capture());
+        getCaptor.getValue().handle(asyncResult);
+        verify(handler, times(1)).handle(resultCaptor.capture());
+
+        AsyncResult<JsonObject> result = resultCaptor.getValue();
+        assertTrue(result.succeeded());
+        assertEquals(new JsonObject(), result.result());
+    }
+
     @Test
     public void testGetbit() {
         factory.getbit("key", 0).setHandler(handler);
@@ -532,6 +641,19 @@ public class RedisCommandClientTest {
         assertEquals(new JsonObject(), result.result());
     }
 
+    @Test
+    public void testHsetBuffer() {
+        factory.hset(Buffer.buffer("key"), Buffer.buffer("field"), Buffer.buffer("value")).setHandler(handler);
+
+        verify(eventBus, times(1)).send(eq("address"), eq(getJsonCommand("{\"command\":\"HSET\",\"arguments\":[\"a2V5\",\"ZmllbGQ=\",\"dmFsdWU=\"],\"binaryArguments\":[0,1,2]}")), withTimeout(TIMEOUT), getCaptor.capture());
+        getCaptor.getValue().handle(asyncResult);
+        verify(handler, times(1)).handle(resultCaptor.capture());
+
+        AsyncResult<JsonObject> result = resultCaptor.getValue();
+        assertTrue(result.succeeded());
+        assertEquals(new JsonObject(), result.result());
+    }
+
     @Test
     public void testHsetnx() {
         factory.hsetnx("key", "field", "value").setHandler(handler);
@@ -1091,6 +1213,19 @@ public class RedisCommandClientTest {
         assertEquals(new JsonObject(), result.result());
     }
 
+    @Test
+    public void testSetBuffer() {
+        factory.set(Buffer.buffer("key"), Buffer.buffer("value")).setHandler(handler);
+
+        verify(eventBus, times(1)).send(eq("address"), eq(getJsonCommand("{\"command\":\"SET\",\"arguments\":[\"a2V5\",\"dmFsdWU=\"],\"binaryArguments\":[0,1]}")), withTimeout(TIMEOUT), getCaptor.capture());
+        getCaptor.getValue().handle(asyncResult);
+        verify(handler, times(1)).handle(resultCaptor.capture());
+
+        AsyncResult<JsonObject> result = resultCaptor.getValue();
+        assertTrue(result.succeeded());
+        assertEquals(new JsonObject(), result.result());
+    }
+
     @Test
     public void testSetex() {
         factory.setex("key", 12345, "value").setHandler(handler);
@@ -1420,6 +1555,19 @@ public class RedisCommandClientTest {
         assertEquals(new JsonObject(), result.result());
     }
 
+    @Test
+    public void testZaddBuffer() {
+        factory.zadd(Buffer.buffer("key"), 1.0, Buffer.buffer("member")).setHandler(handler);
+
+        verify(eventBus, times(1)).send(eq("address"), eq(getJsonCommand("{\"command\":\"ZADD\",\"arguments\":[\"a2V5\",\"1.0\",\"bWVtYmVy\"],\"binaryArguments\":[0,2]}")), withTimeout(TIMEOUT), getCaptor.capture());
+        getCaptor.getValue().handle(asyncResult);
+        verify(handler, times(1)).handle(resultCaptor.capture());
+
+        AsyncResult<JsonObject> result = resultCaptor.getValue();
+        assertTrue(result.succeeded());
+        assertEquals(new JsonObject(), result.result());
+    }
+
     @Test
     public void testZcard() {
         factory.zcard("key").setHandler(handler);
@@ -1764,4 +1912,10 @@ public class RedisCommandClientTest {
             }
         });
     }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testDefaultViewUnsupported() {
+        RedisCommandClient client = mock(RedisCommandClient.class, CALLS_REAL_METHODS);
+        client.pipeline();
+    }
 }
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisCommandCoalescer</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisCommandCoalescerTest {
+    private final List<Future<JsonObject>> responses = new ArrayList<>();
+
+    @Test
+    public void testCoalesceGets() {
+        List<RedisCommand> commands = Arrays.asList(command(RedisCommandType.GET, "a"), command(RedisCommandType.GET, "b"),
+                command(RedisCommandType.GET, "c"));
+
+        List<RedisCommand> coalesced = RedisCommandCoalescer.coalesce(commands);
+
+        assertEquals(1, coalesced.size());
+        assertEquals(RedisCommandType.MGET, coalesced.get(0).getType());
+        assertEquals(Arrays.<Object>asList("a", "b", "c"), coalesced.get(0).getArgumentValues());
+
+        coalesced.get(0).getClientCommandResponse().complete(new JsonObject().put("status", "success")
+                .put("data", new JsonArray().add("1").addNull().add("3")));
+        assertEquals(new JsonObject().put("status", "success").put("data", "1"), responses.get(0).result());
+        assertEquals(new JsonObject().put("status", "success").putNull("data"), responses.get(1).result());
+        assertEquals(new JsonObject().put("status", "success").put("data", "3"), responses.get(2).result());
+    }
+
+    @Test
+    public void testFailedValue() {
+        List<RedisCommand> commands = Arrays.asList(command(RedisCommandType.GET, "a"), command(RedisCommandType.GET, "b"));
+
+        List<RedisCommand> coalesced = RedisCommandCoalescer.coalesce(commands);
+
+        JsonObject error = new JsonObject().put("status", "fail").put("data", "CLUSTERDOWN The cluster is down");
+        coalesced.get(0).getClientCommandResponse().complete(new JsonObject().put("status", "success")
+                .put("data", new JsonArray().add("1").add(error)));
+        assertEquals(new JsonObject().put("status", "success").put("data", "1"), responses.get(0).result());
+        assertEquals(error, responses.get(1).result());
+    }
+
+    @Test
+    public void testCoalesceHgets() {
+        List<RedisCommand> commands = Arrays.asList(command(RedisCommandType.HGET, "h", "x"), command(RedisCommandType.HGET, "i", "x"),
+                command(RedisCommandType.HGET, "h", "y"));
+
+        List<RedisCommand> coalesced = RedisCommandCoalescer.coalesce(commands);
+
+        assertEquals(2, coalesced.size());
+        assertEquals(RedisCommandType.HMGET, coalesced.get(0).getType());
+        assertEquals(Arrays.<Object>asList("h", "x", "y"), coalesced.get(0).getArgumentValues());
+        assertSame(commands.get(1), coalesced.get(1));
+
+        coalesced.get(0).getClientCommandResponse().complete(new JsonObject().put("status", "success")
+                .put("data", new JsonArray().add("1").add("2")));
+        assertEquals(new JsonObject().put("status", "success").put("data", "1"), responses.get(0).result());
+        assertEquals(new JsonObject().put("status", "success").put("data", "2"), responses.get(2).result());
+    }
+
+    @Test
+    public void testWriteSeparatesReads() {
+        List<RedisCommand> commands = Arrays.asList(command(RedisCommandType.GET, "a"), command(RedisCommandType.SET, "a", "1"),
+                command(RedisCommandType.GET, "a"));
+
+        assertSame(commands, RedisCommandCoalescer.coalesce(commands));
+    }
+
+    @Test
+    public void testErrorResponse() {
+        List<RedisCommand> commands = Arrays.asList(command(RedisCommandType.HGET, "h", "x"), command(RedisCommandType.HGET, "h", "y"));
+
+        List<RedisCommand> coalesced = RedisCommandCoalescer.coalesce(commands);
+
+        JsonObject error = new JsonObject().put("status", "fail").put("data", "WRONGTYPE Operation against a key holding the wrong kind of value");
+        coalesced.get(0).getClientCommandResponse().complete(error);
+        assertEquals(error, responses.get(0).result());
+        assertEquals(error, responses.get(1).result());
+    }
+
+    private RedisCommand command(RedisCommandType type, Object... arguments) {
+        RedisCommand command = new RedisCommand(type, Arrays.asList(arguments));
+        Future<JsonObject> response = Future.future();
+        command.setClientCommandResponse(response);
+        responses.add(response);
+        return command;
+    }
+}
@@ -21,6 +21,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonArray;
@@ -28,6 +29,8 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetSocket;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -44,6 +47,9 @@ public class RedisCommandHandlerTest {
     @Mock
     private Message<JsonObject> message;
 
+    @Captor
+    private ArgumentCaptor<Handler<Buffer>> dataCaptor;
+
     private RedisCommandHandler handler;
 
     @Before
@@ -115,6 +121,27 @@ public class RedisCommandHandlerTest {
         verify(message, never()).reply(any(JsonObject.class));
     }
 
+    @Test
+    public void testHandleValidBatchMessage() {
+        JsonArray commands = new JsonArray();
+        commands.add(new JsonObject().put("command", "GET").put("arguments", "somekey"));
+        commands.add(new JsonObject().put("command", "INCR").put("arguments", "counter"));
+        when(message.body()).thenReturn(new JsonObject().put("commands", commands));
+
+        handler.handle(message);
+
+        verify(socket, times(1)).handler(dataCaptor.capture());
+        verify(socket, times(1)).write(Buffer.buffer().appendString("*2\r\n$3\r\nGET\r\n$7\r\nsomekey\r\n*2\r\n$4\r\nINCR\r\n$7\r\ncounter\r\n"));
+
+        dataCaptor.getValue().handle(Buffer.buffer("$5\r\nvalue\r\n"));
+        verify(message, never()).reply(any(JsonObject.class));
+
+        dataCaptor.getValue().handle(Buffer.buffer(":1\r\n"));
+        verify(message, times(1)).reply(new JsonObject().put("status", "success").put("data", new JsonArray()
+                .add(new JsonObject().put("status", "success").put("data", "value"))
+                .add(new JsonObject().put("status", "success").put("data", 1L))));
+    }
+
     private static JsonObject buildReply(String status, JsonObject data, String message) {
         JsonObject jsonReply = new JsonObject();
 
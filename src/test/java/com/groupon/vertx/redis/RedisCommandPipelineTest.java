@@ -0,0 +1,189 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisCommandPipeline</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisCommandPipelineTest {
+    private static final long TIMEOUT = 1000;
+
+    @Mock
+    private EventBus eventBus;
+
+    @Mock
+    private AsyncResult<Message<Object>> asyncResult;
+
+    @Mock
+    private Message<Object> message;
+
+    @Captor
+    private ArgumentCaptor<RedisCommandBatch> batchCaptor;
+
+    @Captor
+    private ArgumentCaptor<DeliveryOptions> deliveryOptionsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<AsyncResult<Message<Object>>>> replyCaptor;
+
+    private RedisCommandPipeline pipeline;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        doReturn(message).when(asyncResult).result();
+        doReturn(true).when(asyncResult).succeeded();
+
+        pipeline = new RedisClient(eventBus, "address", TIMEOUT, true).pipeline();
+    }
+
+    @Test
+    public void testFlush() {
+        Future<JsonObject> get = pipeline.get("key");
+        Future<JsonObject> incr = pipeline.incr("counter");
+        verify(eventBus, never()).send(eq("address"), any(), any(DeliveryOptions.class), any());
+
+        pipeline.flush();
+
+        verify(eventBus, times(1)).registerCodec(any(RedisBatchReplyCodec.class));
+        verify(eventBus, times(1)).send(eq("address"), batchCaptor.capture(), deliveryOptionsCaptor.capture(), replyCaptor.capture());
+        assertEquals(RedisCommandBatchCodec.CODEC_NAME, deliveryOptionsCaptor.getValue().getCodecName());
+        assertEquals(TIMEOUT, deliveryOptionsCaptor.getValue().getSendTimeout());
+        assertFalse(batchCaptor.getValue().isTransaction());
+        assertEquals(2, batchCaptor.getValue().getCommands().size());
+        assertEquals(RedisCommandType.GET, batchCaptor.getValue().getCommands().get(0).getType());
+        assertEquals(RedisCommandType.INCR, batchCaptor.getValue().getCommands().get(1).getType());
+
+        JsonObject error = new JsonObject().put("status", "error").put("message", "closed");
+        doReturn(new RedisBatchReply(Arrays.<Object>asList(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("value")), error)))
+                .when(message).body();
+        replyCaptor.getValue().handle(asyncResult);
+
+        assertEquals(new JsonObject().put("status", "success").put("data", "value"), get.result());
+        assertEquals(error, incr.result());
+    }
+
+    @Test
+    public void testFlushJson() {
+        RedisCommandPipeline jsonPipeline = new RedisClient(eventBus, "address", TIMEOUT).pipeline();
+        Future<JsonObject> get = jsonPipeline.get("key");
+        Future<JsonObject> incr = jsonPipeline.incr("counter");
+        jsonPipeline.flush();
+
+        JsonObject expected = new JsonObject().put("commands", new JsonArray()
+                .add(new JsonObject().put("command", "GET").put("arguments", new JsonArray().add("key")))
+                .add(new JsonObject().put("command", "INCR").put("arguments", new JsonArray().add("counter"))));
+        verify(eventBus, times(1)).send(eq("address"), eq(expected), deliveryOptionsCaptor.capture(), replyCaptor.capture());
+        assertNull(deliveryOptionsCaptor.getValue().getCodecName());
+
+        JsonObject getResponse = new JsonObject().put("status", "success").put("data", "value");
+        JsonObject incrResponse = new JsonObject().put("status", "success").put("data", 1);
+        doReturn(new JsonObject().put("status", "success").put("data", new JsonArray().add(getResponse).add(incrResponse)))
+                .when(message).body();
+        replyCaptor.getValue().handle(asyncResult);
+
+        assertEquals(getResponse, get.result());
+        assertEquals(incrResponse, incr.result());
+    }
+
+    @Test
+    public void testFlushJsonRejected() {
+        RedisCommandPipeline jsonPipeline = new RedisClient(eventBus, "address", TIMEOUT).pipeline();
+        Future<JsonObject> get = jsonPipeline.get("key");
+        Future<JsonObject> incr = jsonPipeline.incr("counter");
+        jsonPipeline.flush();
+
+        verify(eventBus, times(1)).send(eq("address"), any(), any(DeliveryOptions.class), replyCaptor.capture());
+        JsonObject error = new JsonObject().put("status", "error").put("message", "No Redis connection available");
+        doReturn(error).when(message).body();
+        replyCaptor.getValue().handle(asyncResult);
+
+        assertEquals(error, get.result());
+        assertEquals(error, incr.result());
+    }
+
+    @Test
+    public void testFlushSingleCommand() {
+        Future<JsonObject> incr = pipeline.incr("counter");
+        pipeline.flush();
+
+        verify(eventBus, times(1)).send(eq("address"), batchCaptor.capture(), any(DeliveryOptions.class), replyCaptor.capture());
+        doReturn(new RedisReply(RedisResponseType.INTEGER_REPLY, 2L)).when(message).body();
+        replyCaptor.getValue().handle(asyncResult);
+
+        assertEquals(new JsonObject().put("status", "success").put("data", 2L), incr.result());
+    }
+
+    @Test
+    public void testFlushTimeout() {
+        Future<JsonObject> get = pipeline.get("key");
+        Future<JsonObject> incr = pipeline.incr("counter");
+        pipeline.flush();
+
+        verify(eventBus, times(1)).send(eq("address"), any(), any(DeliveryOptions.class), replyCaptor.capture());
+        doReturn(false).when(asyncResult).succeeded();
+        doReturn(true).when(asyncResult).failed();
+        doReturn(new ReplyException(ReplyFailure.TIMEOUT)).when(asyncResult).cause();
+        replyCaptor.getValue().handle(asyncResult);
+
+        assertTrue(get.failed());
+        assertTrue(incr.failed());
+        assertTrue(incr.cause() instanceof RedisCommandException);
+    }
+
+    @Test
+    public void testDiscard() {
+        pipeline.get("key");
+        pipeline.discard();
+        pipeline.flush();
+
+        verify(eventBus, never()).send(eq("address"), any(), any(DeliveryOptions.class), any());
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisCommandSplitter</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisCommandSplitterTest {
+    private static final Function<Object, Object> FIRST_LETTER = key -> key.toString().charAt(0);
+
+    private final Future<RedisReply> response = Future.future();
+
+    @Test
+    public void testSplitMgetInKeyOrder() {
+        List<RedisCommand> split = RedisCommandSplitter.split(command(RedisCommandType.MGET, "a1", "b1", "a2", "b2"), FIRST_LETTER);
+
+        assertEquals(2, split.size());
+        assertEquals(Arrays.<Object>asList("a1", "a2"), split.get(0).getArgumentValues());
+        assertEquals(Arrays.<Object>asList("b1", "b2"), split.get(1).getArgumentValues());
+
+        split.get(1).setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.asList(Buffer.buffer("3"), null)));
+        assertFalse(response.isComplete());
+        split.get(0).setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.asList(Buffer.buffer("1"), Buffer.buffer("2"))));
+
+        assertEquals(RedisResponseType.MULTI_BULK_REPLY, response.result().getType());
+        assertEquals(Arrays.asList(Buffer.buffer("1"), Buffer.buffer("3"), Buffer.buffer("2"), null), response.result().getValue());
+    }
+
+    @Test
+    public void testMgetFailureReportedPerKey() {
+        List<RedisCommand> split = RedisCommandSplitter.split(command(RedisCommandType.MGET, "a1", "b1"), FIRST_LETTER);
+
+        split.get(0).setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.asList(Buffer.buffer("1"))));
+        split.get(1).setResponse(new JsonObject().put("status", "error").put("message", "Socket closed unexpectedly"));
+
+        List<?> values = (List<?>) response.result().getValue();
+        assertEquals(Buffer.buffer("1"), values.get(0));
+        assertTrue(((RedisReply) values.get(1)).isError());
+        assertEquals("Socket closed unexpectedly", ((RedisReply) values.get(1)).getValue());
+        assertEquals(new JsonObject().put("status", "fail").put("data", "Socket closed unexpectedly"),
+                response.result().toJson().getJsonArray("data").getJsonObject(1));
+    }
+
+    @Test
+    public void testSplitMset() {
+        List<RedisCommand> split = RedisCommandSplitter.split(command(RedisCommandType.MSET, "a1", "x", "b1", "y", "a2", "z"), FIRST_LETTER);
+
+        assertEquals(Arrays.<Object>asList("a1", "x", "a2", "z"), split.get(0).getArgumentValues());
+        assertEquals(Arrays.<Object>asList("b1", "y"), split.get(1).getArgumentValues());
+
+        split.get(0).setReply(new RedisReply(RedisResponseType.STATUS_CODE, "OK"));
+        split.get(1).setReply(new RedisReply(RedisResponseType.STATUS_CODE, "OK"));
+        assertEquals(RedisResponseType.STATUS_CODE, response.result().getType());
+    }
+
+    @Test
+    public void testSplitDelAddsCounts() {
+        List<RedisCommand> split = RedisCommandSplitter.split(command(RedisCommandType.DEL, "a1", "b1", "a2"), FIRST_LETTER);
+
+        split.get(0).setReply(new RedisReply(RedisResponseType.INTEGER_REPLY, 2L));
+        split.get(1).setReply(new RedisReply(RedisResponseType.INTEGER_REPLY, 1L));
+        assertEquals(3L, response.result().getValue());
+    }
+
+    @Test
+    public void testExistsFailureNamesKeys() {
+        List<RedisCommand> split = RedisCommandSplitter.split(command(RedisCommandType.EXISTS, "a1", "b1", "b2"), FIRST_LETTER);
+
+        split.get(0).setReply(new RedisReply(RedisResponseType.INTEGER_REPLY, 1L));
+        split.get(1).setReply(new RedisReply(RedisResponseType.ERROR, "CLUSTERDOWN The cluster is down"));
+
+        assertTrue(response.result().isError());
+        assertEquals("CLUSTERDOWN The cluster is down (failed keys: b1, b2)", response.result().getValue());
+    }
+
+    @Test
+    public void testNotSplit() {
+        assertNull(RedisCommandSplitter.split(command(RedisCommandType.MGET, "a1", "a2"), FIRST_LETTER));
+        assertNull(RedisCommandSplitter.split(command(RedisCommandType.MSETNX, "a1", "x", "b1", "y"), FIRST_LETTER));
+    }
+
+    private RedisCommand command(RedisCommandType type, Object... arguments) {
+        RedisCommand command = new RedisCommand(type, Arrays.asList(arguments));
+        command.replyResponse(response);
+        return command;
+    }
+}
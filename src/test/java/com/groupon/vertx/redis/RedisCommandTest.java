@@ -15,10 +15,14 @@
  */
 package com.groupon.vertx.redis;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.util.Arrays;
+
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.junit.Test;
@@ -79,6 +83,69 @@ public class RedisCommandTest {
         assertEquals("Arguments don't match", command.getArguments().get(1), "12345");
     }
 
+    @Test
+    public void testBinaryArgumentsRoundTrip() throws Exception {
+        byte[] value = new byte[]{0, (byte) 0xff, '\r', '\n'};
+        RedisCommand command = new RedisCommand(RedisCommandType.SET, Arrays.asList(Buffer.buffer("somekey"), value));
+
+        JsonObject json = command.toJson();
+        assertEquals("Binary positions don't match", new JsonArray().add(0).add(1), json.getJsonArray("binaryArguments"));
+
+        RedisCommand decoded = new RedisCommand(new JsonObject(json.encode()));
+
+        assertEquals("Command type doesn't match", RedisCommandType.SET, decoded.getType());
+        assertEquals("Wrong number of arguments", 2, decoded.getArgumentValues().size());
+        assertArrayEquals("Arguments don't match", "somekey".getBytes("UTF-8"), (byte[]) decoded.getArgumentValues().get(0));
+        assertArrayEquals("Arguments don't match", value, (byte[]) decoded.getArgumentValues().get(1));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testStringArgumentsOfBinaryCommand() throws Exception {
+        RedisCommand command = new RedisCommand(RedisCommandType.SET,
+                Arrays.<Object>asList(Buffer.buffer("somekey"), "12345".getBytes("UTF-8")));
+
+        assertEquals("Arguments don't match", Arrays.asList("somekey", "12345"), command.getArguments());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBinaryArgumentOutOfRange() throws Exception {
+        new RedisCommand(new JsonObject("{\"command\":\"GET\",\"arguments\":[\"a2V5\"],\"binaryArguments\":[1]}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeBinaryArgument() throws Exception {
+        new RedisCommand(new JsonObject("{\"command\":\"GET\",\"arguments\":[\"a2V5\"],\"binaryArguments\":[-1]}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonIntegerBinaryArgument() throws Exception {
+        new RedisCommand(new JsonObject("{\"command\":\"GET\",\"arguments\":[\"a2V5\"],\"binaryArguments\":[\"0\"]}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBase64BinaryArgument() throws Exception {
+        new RedisCommand(new JsonObject("{\"command\":\"GET\",\"arguments\":[\"not base64!\"],\"binaryArguments\":[0]}"));
+    }
+
+    @Test
+    public void testGetKeys() throws Exception {
+        assertEquals("Keys don't match", Arrays.asList("a", "b"),
+                new RedisCommand(RedisCommandType.RENAME, Arrays.asList("a", "b")).getKeys());
+        assertEquals("Keys don't match", Arrays.asList("a", "c"),
+                new RedisCommand(RedisCommandType.MSET, Arrays.asList("a", "b", "c", "d")).getKeys());
+        assertEquals("Keys don't match", Arrays.asList("a", "b"),
+                new RedisCommand(RedisCommandType.BLPOP, Arrays.asList("a", "b", "0")).getKeys());
+        assertEquals("Keys don't match", Arrays.asList("dest", "a", "b"),
+                new RedisCommand(RedisCommandType.ZUNIONSTORE, Arrays.asList("dest", "2", "a", "b", "WEIGHTS", "1", "2")).getKeys());
+        assertEquals("Keys don't match", Arrays.asList("a", "dest"),
+                new RedisCommand(RedisCommandType.SORT_WITH_STORE, Arrays.asList("a", "ALPHA", "STORE", "dest")).getKeys());
+        assertEquals("Keys don't match", Arrays.asList("dest", "a"),
+                new RedisCommand(RedisCommandType.BITOP, Arrays.asList("AND", "dest", "a")).getKeys());
+        assertEquals("Keys don't match", Arrays.asList(),
+                new RedisCommand(RedisCommandType.FLUSHALL, null).getKeys());
+    }
+
     @Test
     public void testNullCommandJson() {
         try {
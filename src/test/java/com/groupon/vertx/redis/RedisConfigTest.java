@@ -16,8 +16,12 @@
 package com.groupon.vertx.redis;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.json.JsonObject;
 import org.junit.Test;
 
 /**
@@ -37,4 +41,127 @@ public class RedisConfigTest {
         assertEquals("Port doesn't match", 1, redisConfig.getPort());
         assertEquals("EventBusAddress doesn't match", "eventAddress", redisConfig.getEventBusAddress());
     }
+
+    @Test
+    public void testLoadFlushConfig() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\","
+                + "\"coalesceWrites\":true,\"flushDelay\":1,\"flushMaxBytes\":1024,\"flushMaxCommands\":16}"));
+
+        assertTrue("CoalesceWrites doesn't match", redisConfig.isCoalesceWrites());
+        assertEquals("FlushDelay doesn't match", 1, redisConfig.getFlushDelay());
+        assertEquals("FlushMaxBytes doesn't match", 1024, redisConfig.getFlushMaxBytes());
+        assertEquals("FlushMaxCommands doesn't match", 16, redisConfig.getFlushMaxCommands());
+    }
+
+    @Test
+    public void testLoadWriteQueueConfig() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"writeQueueMaxSize\":4096}"));
+
+        assertEquals("WriteQueueMaxSize doesn't match", 4096, redisConfig.getWriteQueueMaxSize());
+    }
+
+    @Test
+    public void testLoadTrackingConfig() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\","
+                + "\"trackingMode\":\"bcast\",\"trackingPrefixes\":[\"user:\"]}"));
+
+        assertEquals("TrackingMode doesn't match", "bcast", redisConfig.getTrackingMode());
+        assertTrue("TrackingBroadcast doesn't match", redisConfig.isTrackingBroadcast());
+        assertEquals("TrackingPrefixes doesn't match", Collections.singletonList("user:"), redisConfig.getTrackingPrefixes());
+        assertEquals("InvalidationAddress doesn't match", "eventAddress.invalidate", redisConfig.getInvalidationAddress());
+    }
+
+    @Test(expected = Exception.class)
+    public void testTrackingPrefixesRequireBroadcast() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\","
+                + "\"trackingMode\":\"default\",\"trackingPrefixes\":[\"user:\"]}"));
+    }
+
+    @Test
+    public void testLoadProtocol() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"protocol\":3}"));
+
+        assertEquals("Protocol doesn't match", 3, redisConfig.getProtocol());
+        assertTrue("Resp3 doesn't match", redisConfig.isResp3());
+    }
+
+    @Test(expected = Exception.class)
+    public void testInvalidProtocol() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"protocol\":4}"));
+    }
+
+    @Test
+    public void testLoadCluster() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"cluster\":true}"));
+
+        assertTrue("Cluster doesn't match", redisConfig.isCluster());
+    }
+
+    @Test(expected = Exception.class)
+    public void testClusterTracking() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"cluster\":true,\"trackingMode\":\"default\"}"));
+    }
+
+    @Test
+    public void testLoadShards() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"eventBusAddress\":\"eventAddress\",\"shards\":"
+                + "[{\"host\":\"foo\"},{\"host\":\"bar\",\"port\":6380,\"weight\":2}]}"));
+
+        assertEquals("Shards don't match", 2, redisConfig.getShards().size());
+        assertEquals("Shard doesn't match", "foo:6379", redisConfig.getShards().get(0).toString());
+        assertEquals("Weight doesn't match", 1, redisConfig.getShards().get(0).getWeight());
+        assertEquals("Shard doesn't match", "bar:6380", redisConfig.getShards().get(1).toString());
+        assertEquals("Weight doesn't match", 2, redisConfig.getShards().get(1).getWeight());
+    }
+
+    @Test(expected = Exception.class)
+    public void testInvalidShardWeight() throws Exception {
+        new RedisConfig(new JsonObject("{\"eventBusAddress\":\"eventAddress\",\"shards\":[{\"host\":\"foo\",\"weight\":0}]}"));
+    }
+
+    @Test
+    public void testLoadReplicas() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"replicas\":"
+                + "[{\"host\":\"bar\",\"port\":6380}],\"readPolicy\":\"leastPending\"}"));
+
+        assertEquals("Replicas don't match", 1, redisConfig.getReplicas().size());
+        assertEquals("Replica doesn't match", "bar:6380", redisConfig.getReplicas().get(0).toString());
+        assertEquals("Read policy doesn't match", "leastPending", redisConfig.getReadPolicy());
+    }
+
+    @Test(expected = Exception.class)
+    public void testInvalidReadPolicy() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"readPolicy\":\"random\"}"));
+    }
+
+    @Test
+    public void testLoadSentinels() throws Exception {
+        RedisConfig redisConfig = new RedisConfig(new JsonObject("{\"eventBusAddress\":\"eventAddress\",\"masterName\":\"mymaster\","
+                + "\"sentinels\":[{\"host\":\"foo\"},{\"host\":\"bar\",\"port\":26380}]}"));
+
+        assertEquals("Sentinels don't match", 2, redisConfig.getSentinels().size());
+        assertEquals("Sentinel doesn't match", "foo:26379", redisConfig.getSentinels().get(0).toString());
+        assertEquals("Sentinel doesn't match", "bar:26380", redisConfig.getSentinels().get(1).toString());
+        assertEquals("Master name doesn't match", "mymaster", redisConfig.getMasterName());
+    }
+
+    @Test(expected = Exception.class)
+    public void testSentinelsRequireMasterName() throws Exception {
+        new RedisConfig(new JsonObject("{\"eventBusAddress\":\"eventAddress\",\"sentinels\":[{\"host\":\"foo\"}]}"));
+    }
+
+    @Test(expected = Exception.class)
+    public void testClusterShards() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"cluster\":true,\"shards\":[{\"host\":\"foo\"}]}"));
+    }
+
+    @Test(expected = Exception.class)
+    public void testInvalidTrackingMode() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"trackingMode\":\"optin\"}"));
+    }
+
+    @Test(expected = Exception.class)
+    public void testInvalidFlushConfig() throws Exception {
+        new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"eventAddress\",\"flushMaxCommands\":0}"));
+    }
 }
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisConnectionPool</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisConnectionPoolTest {
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private EventBus eventBus;
+
+    @Mock
+    private MessageConsumer<Object> consumer;
+
+    @Mock
+    private RedisCommandHandler first;
+
+    @Mock
+    private RedisCommandHandler second;
+
+    @Mock
+    private Message<JsonObject> message;
+
+    @Mock
+    private NetClient netClient;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> fullCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> drainCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<RedisCommand>> commandsCaptor;
+
+    private RedisConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        doReturn(eventBus).when(vertx).eventBus();
+        doReturn(consumer).when(eventBus).consumer(anyString(), any());
+
+        pool = new RedisConnectionPool(vertx, "address");
+    }
+
+    @Test
+    public void testConsumerRegisteredOnce() {
+        pool.add(first);
+        pool.add(second);
+
+        assertEquals("Unexpected pool size", 2, pool.size());
+        verify(eventBus, times(1)).consumer(eq("address"), eq(pool));
+
+        pool.remove(first);
+        verify(consumer, never()).unregister();
+
+        pool.remove(second);
+        verify(consumer, times(1)).unregister();
+        assertEquals("Unexpected pool size", 0, pool.size());
+    }
+
+    @Test
+    public void testRoutesToFewestPending() {
+        doReturn(5).when(first).getPendingCommands();
+        doReturn(2).when(second).getPendingCommands();
+        pool.add(first);
+        pool.add(second);
+
+        pool.handle(message);
+
+        verify(second, times(1)).handle(message);
+        verify(first, never()).handle(message);
+    }
+
+    @Test
+    public void testSkipsFullWriteQueue() {
+        doReturn(5).when(first).getPendingCommands();
+        doReturn(2).when(second).getPendingCommands();
+        doReturn(true).when(second).writeQueueFull();
+        pool.add(first);
+        pool.add(second);
+
+        pool.handle(message);
+
+        verify(first, times(1)).handle(message);
+        verify(second, never()).handle(message);
+    }
+
+    @Test
+    public void testRoutesBatch() {
+        RedisCommandBatch batch = new RedisCommandBatch(Collections.<RedisCommand>emptyList(), false);
+        doReturn(batch).when(message).body();
+        pool.add(first);
+
+        pool.handle(message);
+
+        verify(first, times(1)).handleBatch(message, batch);
+        verify(first, never()).handle(message);
+    }
+
+    @Test
+    public void testNoConnections() {
+        pool.handle(message);
+
+        verify(message, times(1)).reply(new JsonObject().put("status", "error").put("message", "No Redis connection available"));
+    }
+
+    @Test
+    public void testPauseWhenAllFull() {
+        pool.add(first);
+        pool.add(second);
+        verify(first, times(1)).writeQueueHandlers(fullCaptor.capture(), drainCaptor.capture());
+
+        doReturn(true).when(first).writeQueueFull();
+        fullCaptor.getValue().handle(null);
+        verify(consumer, never()).pause();
+
+        doReturn(true).when(second).writeQueueFull();
+        fullCaptor.getValue().handle(null);
+        verify(consumer, times(1)).pause();
+
+        doReturn(false).when(first).writeQueueFull();
+        drainCaptor.getValue().handle(null);
+        verify(consumer, times(1)).resume();
+    }
+
+    @Test
+    public void testTracking() {
+        pool.add(first);
+        pool.enableTracking(Arrays.<Object>asList("ON", "REDIRECT", "42"));
+        pool.add(second);
+
+        verify(first, times(2)).sendCommand(commandsCaptor.capture());
+        verify(second, times(1)).sendCommand(commandsCaptor.capture());
+        List<List<RedisCommand>> sent = commandsCaptor.getAllValues();
+        assertEquals(RedisCommandType.CLIENT_TRACKING, sent.get(0).get(0).getType());
+        assertEquals(Collections.singletonList("OFF"), sent.get(0).get(0).getArgumentValues());
+        assertEquals(Arrays.<Object>asList("ON", "REDIRECT", "42"), sent.get(1).get(0).getArgumentValues());
+        assertEquals(Arrays.<Object>asList("ON", "REDIRECT", "42"), sent.get(2).get(0).getArgumentValues());
+
+        pool.disableTracking();
+        verify(first, times(3)).sendCommand(any());
+        verify(second, times(2)).sendCommand(any());
+    }
+
+    @Test
+    public void testQueuedWhileConnecting() throws Exception {
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"port\":1234,\"eventBusAddress\":\"address\",\"poolSize\":2}"));
+        pool.connect(config, netClient, "foo", 1234);
+        verify(netClient, times(2)).connect(eq(1234), eq("foo"), any());
+
+        RedisCommand command = new RedisCommand(RedisCommandType.GET, Collections.singletonList("key"));
+        Future<JsonObject> response = Future.future();
+        command.commandResponse(response);
+        pool.sendCommand(Collections.singletonList(command));
+        assertFalse("Response completed", response.isComplete());
+
+        pool.add(first);
+        verify(first, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected command", RedisCommandType.GET, commandsCaptor.getValue().get(0).getType());
+    }
+}
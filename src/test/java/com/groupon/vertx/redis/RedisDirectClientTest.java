@@ -0,0 +1,219 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.SharedData;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisDirectClient</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisDirectClientTest {
+    private static final long TIMEOUT = 1000;
+
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private Context callerContext;
+
+    @Mock
+    private Context poolContext;
+
+    @Mock
+    private RedisConnectionPool pool;
+
+    @Mock
+    private SharedData sharedData;
+
+    @Mock
+    private LocalMap<Object, Object> pools;
+
+    @Mock
+    private Handler<AsyncResult<JsonObject>> handler;
+
+    @Captor
+    private ArgumentCaptor<List<RedisCommand>> commandsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> contextCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Long>> timerCaptor;
+
+    @Captor
+    private ArgumentCaptor<AsyncResult<JsonObject>> resultCaptor;
+
+    private RedisDirectClient client;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        doReturn(callerContext).when(vertx).getOrCreateContext();
+        doReturn(callerContext).when(pool).getContext();
+        doReturn(5L).when(vertx).setTimer(anyLong(), any());
+
+        client = new RedisDirectClient(vertx, pool, TIMEOUT);
+    }
+
+    @Test
+    public void testGet() {
+        client.get("key").setHandler(handler);
+
+        verify(pool, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand command = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected command", RedisCommandType.GET, command.getType());
+        assertEquals("Unexpected arguments", Collections.singletonList("key"), command.getArgumentValues());
+
+        command.setResponse(new JsonObject().put("status", "success").put("data", "value"));
+        verify(callerContext, times(1)).runOnContext(contextCaptor.capture());
+        contextCaptor.getValue().handle(null);
+
+        verify(handler, times(1)).handle(resultCaptor.capture());
+        assertTrue(resultCaptor.getValue().succeeded());
+        assertEquals(new JsonObject().put("status", "success").put("data", "value"), resultCaptor.getValue().result());
+        verify(vertx, times(1)).cancelTimer(5L);
+    }
+
+    @Test
+    public void testSendFromOtherContext() {
+        doReturn(poolContext).when(pool).getContext();
+
+        client.get("key").setHandler(handler);
+
+        verify(pool, never()).sendCommand(any());
+        verify(poolContext, times(1)).runOnContext(contextCaptor.capture());
+
+        contextCaptor.getValue().handle(null);
+        verify(pool, times(1)).sendCommand(any());
+    }
+
+    @Test
+    public void testTimeout() {
+        client.get("key").setHandler(handler);
+
+        verify(vertx, times(1)).setTimer(eq(TIMEOUT), timerCaptor.capture());
+        timerCaptor.getValue().handle(5L);
+
+        verify(handler, times(1)).handle(resultCaptor.capture());
+        assertTrue(resultCaptor.getValue().failed());
+        assertTrue(resultCaptor.getValue().cause() instanceof RedisCommandException);
+    }
+
+    @Test
+    public void testTyped() {
+        Future<Long> result = client.typed().incr("key");
+
+        verify(pool, times(1)).sendCommand(commandsCaptor.capture());
+        RedisCommand command = commandsCaptor.getValue().get(0);
+        assertEquals("Unexpected command", RedisCommandType.INCR, command.getType());
+
+        command.setReply(new RedisReply(RedisResponseType.INTEGER_REPLY, 7L));
+        verify(callerContext, times(1)).runOnContext(contextCaptor.capture());
+        contextCaptor.getValue().handle(null);
+
+        assertEquals(Long.valueOf(7), result.result());
+        verify(vertx, times(1)).cancelTimer(5L);
+    }
+
+    @Test
+    public void testTypedNoConnection() {
+        Future<Long> result = client.typed().incr("key");
+
+        verify(pool, times(1)).sendCommand(commandsCaptor.capture());
+        commandsCaptor.getValue().get(0).setResponse(new JsonObject().put("status", "error").put("message", "No Redis connection available"));
+        verify(callerContext, times(1)).runOnContext(contextCaptor.capture());
+        contextCaptor.getValue().handle(null);
+
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof RedisCommandException);
+    }
+
+    @Test
+    public void testPipeline() {
+        RedisCommandPipeline pipeline = client.pipeline();
+        Future<JsonObject> get = pipeline.get("key");
+        Future<JsonObject> incr = pipeline.incr("counter");
+        pipeline.flush();
+
+        verify(pool, times(1)).sendCommand(commandsCaptor.capture());
+        List<RedisCommand> commands = commandsCaptor.getValue();
+        assertEquals("Unexpected commands", 2, commands.size());
+
+        commands.get(1).setResponse(new JsonObject().put("status", "success").put("data", 1L));
+        commands.get(0).setResponse(new JsonObject().put("status", "success").put("data", "value"));
+        verify(callerContext, times(2)).runOnContext(contextCaptor.capture());
+        for (Handler<Void> handler : contextCaptor.getAllValues()) {
+            handler.handle(null);
+        }
+
+        assertEquals(new JsonObject().put("status", "success").put("data", "value"), get.result());
+        assertEquals(new JsonObject().put("status", "success").put("data", 1L), incr.result());
+    }
+
+    @Test
+    public void testMulti() {
+        RedisCommandTransaction transaction = client.multi();
+        transaction.set("key", "value");
+        transaction.exec().setHandler(handler);
+
+        verify(pool, times(1)).sendCommand(commandsCaptor.capture());
+        List<RedisCommand> commands = commandsCaptor.getValue();
+        assertEquals("Unexpected commands", 3, commands.size());
+        assertEquals(RedisCommandType.MULTI, commands.get(0).getType());
+        assertEquals(RedisCommandType.SET, commands.get(1).getType());
+        assertEquals(Arrays.<Object>asList("key", "value"), commands.get(1).getArgumentValues());
+        assertEquals(RedisCommandType.EXEC, commands.get(2).getType());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoPoolRegistered() {
+        doReturn(sharedData).when(vertx).sharedData();
+        doReturn(pools).when(sharedData).getLocalMap(anyString());
+
+        new RedisDirectClient(vertx, "address", TIMEOUT);
+    }
+}
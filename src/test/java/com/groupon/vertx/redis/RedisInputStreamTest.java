@@ -24,10 +24,15 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import io.netty.buffer.ByteBuf;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
@@ -47,22 +52,22 @@ import org.junit.Test;
 @SuppressWarnings("unchecked")
 public class RedisInputStreamTest {
     private ConcurrentLinkedQueue<RedisCommand> pendingCommands = null;
-    private Field bufferPosition = null;
-    private Field expectedLines = null;
-    private Field completedLines = null;
+    private Field line = null;
+    private Field multiBulkReplies = null;
+    private Field state = null;
 
     @Before
     public void setUp() throws Exception {
         pendingCommands = new ConcurrentLinkedQueue<>();
 
-        bufferPosition = RedisInputStream.class.getDeclaredField("bufferPosition");
-        bufferPosition.setAccessible(true);
+        line = RedisInputStream.class.getDeclaredField("line");
+        line.setAccessible(true);
 
-        expectedLines = RedisInputStream.class.getDeclaredField("expectedLines");
-        expectedLines.setAccessible(true);
+        multiBulkReplies = RedisInputStream.class.getDeclaredField("multiBulkReplies");
+        multiBulkReplies.setAccessible(true);
 
-        completedLines = RedisInputStream.class.getDeclaredField("completedLines");
-        completedLines.setAccessible(true);
+        state = RedisInputStream.class.getDeclaredField("state");
+        state.setAccessible(true);
     }
 
     @After
@@ -70,8 +75,9 @@ public class RedisInputStreamTest {
         pendingCommands.clear();
         pendingCommands = null;
 
-        bufferPosition.setAccessible(false);
-        expectedLines.setAccessible(false);
+        line.setAccessible(false);
+        multiBulkReplies.setAccessible(false);
+        state.setAccessible(false);
     }
 
     @Test
@@ -81,9 +87,9 @@ public class RedisInputStreamTest {
         try {
             input.processBuffer(Buffer.buffer());
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -96,9 +102,9 @@ public class RedisInputStreamTest {
         try {
             input.processBuffer(null);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -113,9 +119,9 @@ public class RedisInputStreamTest {
             buff.appendByte((byte) 'a');
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 1, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 1, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -148,9 +154,9 @@ public class RedisInputStreamTest {
             buff.appendString("+OK\r\n");
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -183,9 +189,9 @@ public class RedisInputStreamTest {
             buff.appendString(":123456\r\n");
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -218,9 +224,9 @@ public class RedisInputStreamTest {
             buff.appendString("-error here\r\n");
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -253,9 +259,9 @@ public class RedisInputStreamTest {
             buff.appendString("$6\r\nfoobar\r\n");
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -293,9 +299,9 @@ public class RedisInputStreamTest {
             buff.appendString("*2\r\n$3\r\nfoo\r\n$3\r\nbar\r\n");
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -339,9 +345,9 @@ public class RedisInputStreamTest {
         buff.appendString("+OK\r\n+QUEUED\r\n*1\r\n*2\r\n$3\r\nfoo\r\n$3\r\nbar\r\n");
         input.processBuffer(buff);
 
-        assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-        assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-        assertEquals("Invalid completed line count", 0, ((Collection<byte[]>) completedLines.get(input)).size());
+        assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+        assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+        assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
     }
 
     @Test
@@ -365,9 +371,9 @@ public class RedisInputStreamTest {
             buff.appendString("*2\r\n$3\r\nfoo\r\n$3\r\n");
             input.processBuffer(buff);
 
-            assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-            assertEquals("Invalid expected lines", 1, expectedLines.getInt(input));
-            assertEquals("Invalid completed line count", 4, ((Collection<byte[]>) completedLines.get(input)).size());
+            assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+            assertEquals("Invalid open multi-bulk replies", 1, ((Collection<Object>) multiBulkReplies.get(input)).size());
+            assertEquals("Invalid parser state", "BULK", state.get(input).toString());
         } catch (Exception ex) {
             assertNull("Unexpected exception: " + ex.getMessage(), ex);
         }
@@ -397,15 +403,213 @@ public class RedisInputStreamTest {
             fail("Exception did not occur");
         } catch (Exception ex) {
             try {
-                assertEquals("Invalid buffer position", 0, bufferPosition.getInt(input));
-                assertEquals("Invalid expected lines", 0, expectedLines.getInt(input));
-                assertEquals("Invalid completed line count", 1, ((Collection<byte[]>) completedLines.get(input)).size());
+                assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+                assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+                assertEquals("Invalid parser state", "BULK_TERMINATOR", state.get(input).toString());
             } catch (Exception exc) {
                 assertNull("Unexpected runtime exception", exc);
             }
         }
     }
 
+    @Test
+    public void testProcessBulkLineWithCrlfBuffer() throws Exception {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+
+        RedisCommand command = createCommand(RedisCommandType.GET, new Object[]{"keyname"});
+
+        Future<JsonObject> future = Future.future();
+        command.commandResponse(future);
+
+        pendingCommands.add(command);
+
+        Buffer buff = Buffer.buffer();
+        buff.appendString("$8\r\nfoo\r\nbar\r\n");
+        input.processBuffer(buff);
+
+        assertTrue("Command not completed", future.isComplete());
+        assertEquals("Invalid status", "success", future.result().getString("status"));
+        assertEquals("Invalid data", "foo\r\nbar", future.result().getString("data"));
+        assertEquals("Invalid partial line length", 0, ((ByteBuf) line.get(input)).readableBytes());
+        assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
+    }
+
+    @Test
+    public void testProcessLargeBulkLineSplitBuffer() throws Exception {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+
+        RedisCommand command = createCommand(RedisCommandType.GET, new Object[]{"keyname"});
+        RedisCommand nextCommand = createCommand(RedisCommandType.INCR, new Object[]{"keyname"});
+
+        Future<JsonObject> future = Future.future();
+        command.commandResponse(future);
+        Future<JsonObject> nextFuture = Future.future();
+        nextCommand.commandResponse(nextFuture);
+
+        pendingCommands.add(command);
+        pendingCommands.add(nextCommand);
+
+        StringBuilder value = new StringBuilder();
+        while (value.length() < 100000) {
+            value.append("value\r\n");
+        }
+
+        byte[] reply = ("$" + value.length() + "\r\n" + value + "\r\n:1\r\n").getBytes("UTF-8");
+        for (int offset = 0; offset < reply.length; offset += 1000) {
+            input.processBuffer(Buffer.buffer().appendBytes(reply, offset, Math.min(1000, reply.length - offset)));
+        }
+
+        assertTrue("Command not completed", future.isComplete());
+        assertEquals("Invalid data", value.toString(), future.result().getString("data"));
+        assertTrue("Next command not completed", nextFuture.isComplete());
+        assertEquals("Invalid data", 1, nextFuture.result().getInteger("data").intValue());
+        assertEquals("Invalid parser state", "HEADER", state.get(input).toString());
+    }
+
+    @Test
+    public void testProcessMultiLineByteByByteBuffer() throws Exception {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+
+        RedisCommand command = createCommand(RedisCommandType.MGET, new Object[]{"foo", "bar", "baz"});
+
+        Future<JsonObject> future = Future.future();
+        command.commandResponse(future);
+
+        pendingCommands.add(command);
+
+        byte[] reply = "*3\r\n$3\r\nfoo\r\n$-1\r\n$0\r\n\r\n".getBytes("UTF-8");
+        for (byte b : reply) {
+            input.processBuffer(Buffer.buffer().appendByte(b));
+        }
+
+        assertTrue("Command not completed", future.isComplete());
+        JsonArray data = future.result().getJsonArray("data");
+        assertEquals("Wrong number of results", 3, data.size());
+        assertEquals("Invalid data", "foo", data.getValue(0));
+        assertNull("Invalid data", data.getValue(1));
+        assertEquals("Invalid data", "", data.getValue(2));
+        assertEquals("Invalid open multi-bulk replies", 0, ((Collection<Object>) multiBulkReplies.get(input)).size());
+    }
+
+    @Test
+    public void testProcessMultiLineReplyBuffer() throws Exception {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+
+        RedisCommand command = createCommand(RedisCommandType.MGET, new Object[]{"foo", "bar"});
+
+        Future<RedisReply> future = Future.future();
+        command.replyResponse(future);
+
+        pendingCommands.add(command);
+
+        byte[] binary = new byte[]{(byte) 0x1f, (byte) 0x8b, (byte) 0xff, '\r', '\n', 0};
+        Buffer buff = Buffer.buffer();
+        buff.appendString("*2\r\n$6\r\n").appendBytes(binary).appendString("\r\n$-1\r\n");
+        input.processBuffer(buff);
+
+        assertTrue("Command not completed", future.isComplete());
+        RedisReply reply = future.result();
+        assertEquals("Invalid type", RedisResponseType.MULTI_BULK_REPLY, reply.getType());
+        List<Object> data = (List<Object>) reply.getValue();
+        assertEquals("Wrong number of results", 2, data.size());
+        assertEquals("Invalid data", Buffer.buffer(binary), data.get(0));
+        assertNull("Invalid data", data.get(1));
+    }
+
+    @Test
+    public void testProcessLongIntegerBuffer() throws Exception {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+
+        RedisCommand command = createCommand(RedisCommandType.INCR, new Object[]{"foo"});
+        RedisCommand nextCommand = createCommand(RedisCommandType.DECR, new Object[]{"bar"});
+
+        Future<RedisReply> future = Future.future();
+        command.replyResponse(future);
+        Future<RedisReply> nextFuture = Future.future();
+        nextCommand.replyResponse(nextFuture);
+
+        pendingCommands.add(command);
+        pendingCommands.add(nextCommand);
+
+        input.processBuffer(Buffer.buffer(":9223372036854775807\r\n:-9223372036854775808\r\n"));
+
+        assertEquals("Invalid data", Long.MAX_VALUE, future.result().getValue());
+        assertEquals("Invalid data", Long.MIN_VALUE, nextFuture.result().getValue());
+    }
+
+    @Test
+    public void testProcessInvalidIntegerBuffer() throws Exception {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+
+        for (String reply : new String[]{":12a\r\n", ":-\r\n", ":9223372036854775808\r\n", "*2147483648\r\n"}) {
+            pendingCommands.add(createCommand(RedisCommandType.INCR, new Object[]{"foo"}));
+            try {
+                input.processBuffer(Buffer.buffer(reply));
+                fail("Exception did not occur for " + reply);
+            } catch (RedisCommandException ex) {
+                assertEquals("Invalid response found", ex.getMessage());
+            }
+            pendingCommands.clear();
+        }
+    }
+
+    @Test
+    public void testProcessPushBuffer() {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+        List<RedisReply> pushed = new ArrayList<>();
+        input.pushHandler(pushed::add);
+
+        input.processBuffer(Buffer.buffer("*3\r\n$7\r\nmessage\r\n$20\r\n__redis__:invalidate\r\n*1\r\n$3\r\nfoo\r\n"));
+
+        assertEquals("Invalid number of replies", 1, pushed.size());
+        List<Object> message = (List<Object>) pushed.get(0).getValue();
+        assertEquals("Invalid data", Buffer.buffer("message"), message.get(0));
+        assertEquals("Invalid data", Arrays.asList(Buffer.buffer("foo")), message.get(2));
+    }
+
+    @Test
+    public void testProcessResp3Buffer() {
+        RedisInputStream input = new RedisInputStream(pendingCommands);
+        List<RedisReply> pushed = new ArrayList<>();
+        input.pushHandler(pushed::add);
+        Future<RedisReply> hgetall = addReplyCommand(RedisCommandType.HGETALL, "foo");
+        Future<RedisReply> zscore = addReplyCommand(RedisCommandType.ZSCORE, "foo", "a");
+        Future<RedisReply> exists = addReplyCommand(RedisCommandType.EXISTS, "foo");
+        Future<RedisReply> get = addReplyCommand(RedisCommandType.GET, "foo");
+        Future<RedisReply> smembers = addReplyCommand(RedisCommandType.SMEMBERS, "foo");
+        Future<RedisReply> echo = addReplyCommand(RedisCommandType.ECHO, "foo");
+        Future<RedisReply> set = addReplyCommand(RedisCommandType.SET, "foo", "bar");
+
+        input.processBuffer(Buffer.buffer("%2\r\n$1\r\na\r\n,1.5\r\n$1\r\nb\r\n(12345678901234567890\r\n"
+                + ">2\r\n$10\r\ninvalidate\r\n*1\r\n$3\r\nfoo\r\n"
+                + ",inf\r\n#t\r\n_\r\n|1\r\n+ttl\r\n:3\r\n~1\r\n$1\r\nx\r\n=7\r\ntxt:foo\r\n!11\r\nSYNTAX nope\r\n"));
+
+        Map<Object, Object> map = (Map<Object, Object>) hgetall.result().getValue();
+        assertEquals("Invalid type", RedisResponseType.MAP, hgetall.result().getType());
+        assertEquals("Invalid data", 1.5, map.get(Buffer.buffer("a")));
+        assertEquals("Invalid data", new BigInteger("12345678901234567890"), map.get(Buffer.buffer("b")));
+        assertEquals("Invalid data", Double.POSITIVE_INFINITY, zscore.result().getValue());
+        assertEquals("Invalid data", Boolean.TRUE, exists.result().getValue());
+        assertEquals("Invalid type", RedisResponseType.NULL, get.result().getType());
+        assertNull("Invalid data", get.result().getValue());
+        assertEquals("Invalid data", Arrays.asList(Buffer.buffer("x")), smembers.result().getValue());
+        assertEquals("Invalid data", Buffer.buffer("foo"), echo.result().getValue());
+        assertTrue("Not an error", set.result().isError());
+        assertEquals("Invalid data", "SYNTAX nope", set.result().getValue());
+
+        assertEquals("Invalid number of pushes", 1, pushed.size());
+        assertEquals("Invalid type", RedisResponseType.PUSH, pushed.get(0).getType());
+        assertTrue("Commands still pending", pendingCommands.isEmpty());
+    }
+
+    private Future<RedisReply> addReplyCommand(RedisCommandType type, Object... arguments) {
+        RedisCommand command = new RedisCommand(type, Arrays.asList(arguments));
+        Future<RedisReply> reply = Future.future();
+        command.replyResponse(reply);
+        pendingCommands.add(command);
+        return reply;
+    }
+
     private RedisCommand createCommand(RedisCommandType type, Object[] arguments) {
         JsonObject commandJson = new JsonObject();
         commandJson.put("command", type.getCommand());
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetSocket;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisInvalidationHandler</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisInvalidationHandlerTest {
+    private static final JsonObject INVALIDATE_ALL = new JsonObject().putNull("keys");
+
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private EventBus eventBus;
+
+    @Mock
+    private NetSocket netSocket;
+
+    @Mock
+    private RedisConnectionPool pool;
+
+    @Captor
+    private ArgumentCaptor<Handler<Buffer>> dataCaptor;
+
+    private RedisInvalidationHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        doReturn(eventBus).when(vertx).eventBus();
+
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\","
+                + "\"trackingMode\":\"bcast\",\"trackingPrefixes\":[\"user:\"]}"));
+        handler = new RedisInvalidationHandler(netSocket, vertx, config, pool);
+        verify(netSocket, times(1)).handler(dataCaptor.capture());
+    }
+
+    @Test
+    public void testStart() {
+        handler.start();
+        verify(netSocket, times(1)).write(Buffer.buffer("*2\r\n$6\r\nCLIENT\r\n$2\r\nID\r\n"));
+
+        dataCaptor.getValue().handle(Buffer.buffer(":42\r\n"));
+        verify(netSocket, times(1)).write(Buffer.buffer("*2\r\n$9\r\nSUBSCRIBE\r\n$20\r\n__redis__:invalidate\r\n"));
+        verify(pool, never()).enableTracking(any());
+
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$9\r\nsubscribe\r\n$20\r\n__redis__:invalidate\r\n:1\r\n"));
+        verify(pool, times(1)).enableTracking(Arrays.<Object>asList("ON", "REDIRECT", "42", "BCAST", "PREFIX", "user:"));
+        verify(eventBus, times(1)).publish("address.invalidate", INVALIDATE_ALL);
+    }
+
+    @Test
+    public void testInvalidation() {
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$7\r\nmessage\r\n$20\r\n__redis__:invalidate\r\n*2\r\n$6\r\nuser:1\r\n$6\r\nuser:2\r\n"));
+        verify(eventBus, times(1)).publish("address.invalidate", new JsonObject().put("keys", new JsonArray().add("user:1".getBytes()).add("user:2".getBytes())));
+
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$7\r\nmessage\r\n$20\r\n__redis__:invalidate\r\n*-1\r\n"));
+        verify(eventBus, times(1)).publish("address.invalidate", INVALIDATE_ALL);
+    }
+
+    @Test
+    public void testBinaryKeyInvalidation() {
+        byte[] key = new byte[]{'k', (byte) 0xff, (byte) 0xfe};
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$7\r\nmessage\r\n$20\r\n__redis__:invalidate\r\n*1\r\n$3\r\n")
+                .appendBytes(key).appendString("\r\n"));
+
+        verify(eventBus, times(1)).publish("address.invalidate", new JsonObject().put("keys", new JsonArray().add(key)));
+    }
+
+    @Test
+    public void testFailedStart() {
+        handler.start();
+        dataCaptor.getValue().handle(Buffer.buffer("-ERR unknown command\r\n"));
+
+        verify(pool, times(1)).disableTracking();
+        verify(eventBus, times(1)).publish("address.invalidate", INVALIDATE_ALL);
+        verify(netSocket, times(1)).close();
+    }
+
+    @Test
+    public void testFinish() {
+        handler.finish();
+        handler.finish();
+
+        verify(pool, times(1)).disableTracking();
+        verify(eventBus, times(1)).publish(eq("address.invalidate"), eq(INVALIDATE_ALL));
+        verify(netSocket, times(1)).close();
+    }
+
+    @Test
+    public void testResp3Push() throws Exception {
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\","
+                + "\"protocol\":3,\"trackingMode\":\"default\"}"));
+
+        RedisInvalidationHandler.handlePush(vertx, config, new RedisReply(RedisResponseType.PUSH,
+                Arrays.asList(Buffer.buffer("invalidate"), Arrays.asList(Buffer.buffer("key")))));
+        verify(eventBus, times(1)).publish("address.invalidate", new JsonObject().put("keys", new JsonArray().add("key".getBytes())));
+
+        RedisInvalidationHandler.handlePush(vertx, config, new RedisReply(RedisResponseType.PUSH,
+                Arrays.asList(Buffer.buffer("message"), Buffer.buffer("news"))));
+        verify(eventBus, times(1)).publish(any(), any());
+        assertEquals(Arrays.<Object>asList("ON"), RedisInvalidationHandler.getTrackingArguments(config, null));
+    }
+}
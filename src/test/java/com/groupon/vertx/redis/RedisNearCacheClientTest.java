@@ -0,0 +1,174 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisNearCacheClient</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisNearCacheClientTest {
+    private static final JsonObject RESPONSE = new JsonObject().put("status", "success").put("data", "value");
+    private final List<RedisCommand> sent = new ArrayList<>();
+    private final List<Future<JsonObject>> responses = new ArrayList<>();
+    private RedisNearCache cache;
+    private RedisNearCacheClient client;
+
+    @Before
+    public void setUp() {
+        cache = new RedisNearCache(100, 0, 60000);
+        client = new RedisNearCacheClient(new RedisBaseClient(null, "address", 0) {
+            @Override
+            protected Future<JsonObject> sendCommand(RedisCommand command) {
+                Future<JsonObject> response = Future.future();
+                sent.add(command);
+                responses.add(response);
+                return response;
+            }
+        }, cache);
+    }
+
+    @Test
+    public void testReadCached() {
+        Future<JsonObject> first = client.get("key");
+        responses.get(0).complete(RESPONSE);
+        Future<JsonObject> second = client.get("key");
+
+        assertEquals(1, sent.size());
+        assertEquals(RESPONSE, second.result());
+        assertNotSame(first.result(), second.result());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testErrorNotCached() {
+        client.hget("key", "field");
+        responses.get(0).complete(new JsonObject().put("status", "error").put("message", "failure"));
+        client.hget("key", "field");
+
+        assertEquals(2, sent.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWriteInvalidates() {
+        client.get("key");
+        responses.get(0).complete(RESPONSE);
+
+        client.set("key", "other");
+        client.get("key");
+
+        assertEquals(3, sent.size());
+        assertEquals(RedisCommandType.SET, sent.get(1).getType());
+    }
+
+    @Test
+    public void testReadDuringWriteNotCached() {
+        client.get("key");
+        client.del("key");
+        responses.get(0).complete(RESPONSE);
+        responses.get(1).complete(new JsonObject().put("status", "success").put("data", 1L));
+        client.get("key");
+
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testWriteInvalidatesOnlyKeys() {
+        client.get("key");
+        client.get("value");
+        client.get("other");
+        responses.get(0).complete(RESPONSE);
+        responses.get(1).complete(RESPONSE);
+        responses.get(2).complete(RESPONSE);
+
+        client.set("key", "value");
+        assertEquals(2, cache.size());
+
+        client.mset(Collections.singletonMap("other", "value"));
+        assertEquals(1, cache.size());
+
+        client.del("value");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testRenameInvalidatesDestination() {
+        client.get("b");
+        responses.get(0).complete(RESPONSE);
+
+        client.rename("a", "b");
+        client.get("b");
+
+        assertEquals(0, cache.size());
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testRpoplpushInvalidatesDestination() {
+        client.llen("destination");
+        responses.get(0).complete(new JsonObject().put("status", "success").put("data", 1L));
+
+        client.rpoplpush("source", "destination");
+        client.llen("destination");
+
+        assertEquals(0, cache.size());
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testReadOfOtherKeyDuringWriteCached() {
+        client.get("key");
+        client.set("other", "value");
+        responses.get(0).complete(RESPONSE);
+        client.get("key");
+
+        assertEquals(2, sent.size());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testFlushInvalidatesAll() {
+        client.get("key");
+        responses.get(0).complete(RESPONSE);
+        client.flushall();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testUncachedReadPassesThrough() {
+        client.ttl("key");
+        responses.get(0).complete(new JsonObject().put("status", "success").put("data", 10L));
+        client.ttl("key");
+
+        assertEquals(2, sent.size());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests for <code>RedisNearCache</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisNearCacheTest {
+    private static final JsonObject RESPONSE = new JsonObject().put("status", "success").put("data", "value");
+    private long now;
+    private RedisNearCache cache;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        cache = new RedisNearCache(2, 0, key -> "short".equals(key) ? 10 : 100, () -> now);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        assertNull(cache.get(get("key")));
+        cache.put(get("key"), RESPONSE, cache.getGeneration());
+
+        assertEquals(RESPONSE, cache.get(get("key")));
+        assertEquals(RESPONSE, cache.get(new RedisCommand(RedisCommandType.GET, Collections.<Object>singletonList(Buffer.buffer("key")))));
+        assertNull(cache.get(hget("key", "field")));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testExpiresPerKey() {
+        cache.put(get("short"), RESPONSE, cache.getGeneration());
+        cache.put(get("long"), RESPONSE, cache.getGeneration());
+
+        now += 50;
+        assertNull(cache.get(get("short")));
+        assertEquals(RESPONSE, cache.get(get("long")));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        cache.put(get("first"), RESPONSE, cache.getGeneration());
+        cache.put(get("second"), RESPONSE, cache.getGeneration());
+        cache.get(get("first"));
+        cache.put(get("third"), RESPONSE, cache.getGeneration());
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(get("second")));
+        assertEquals(RESPONSE, cache.get(get("first")));
+    }
+
+    @Test
+    public void testEvictsOverMaxBytes() {
+        cache = new RedisNearCache(0, 40, 100);
+        cache.put(get("first"), RESPONSE, cache.getGeneration());
+        assertEquals(22, cache.getBytes());
+
+        cache.put(get("second"), RESPONSE, cache.getGeneration());
+        assertEquals(1, cache.size());
+        assertEquals(22, cache.getBytes());
+        assertNull(cache.get(get("first")));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put(get("key"), RESPONSE, cache.getGeneration());
+        cache.put(hget("key", "field"), RESPONSE, cache.getGeneration());
+        assertEquals(2, cache.size());
+
+        cache.invalidate("key".getBytes());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertNull(cache.get(get("key")));
+    }
+
+    @Test
+    public void testStaleReadNotCached() {
+        long generation = cache.getGeneration();
+        cache.invalidate("key");
+        cache.put(get("key"), RESPONSE, generation);
+        assertEquals(0, cache.size());
+
+        cache.put(get("key"), RESPONSE, cache.getGeneration());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testOtherKeyInvalidated() {
+        long generation = cache.getGeneration();
+        cache.invalidate("other");
+        cache.put(get("key"), RESPONSE, generation);
+
+        assertEquals(1, cache.size());
+
+        cache.invalidateAll();
+        cache.put(get("other"), RESPONSE, generation);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListen() {
+        EventBus eventBus = mock(EventBus.class);
+        Message<JsonObject> message = mock(Message.class);
+        ArgumentCaptor<Handler<Message<JsonObject>>> handlerCaptor = ArgumentCaptor.forClass(Handler.class);
+        cache.put(get("key"), RESPONSE, cache.getGeneration());
+        cache.put(get("other"), RESPONSE, cache.getGeneration());
+
+        cache.listen(eventBus, "address.invalidate");
+        verify(eventBus).consumer(eq("address.invalidate"), handlerCaptor.capture());
+
+        when(message.body()).thenReturn(new JsonObject().put("keys", new JsonArray().add("key".getBytes())));
+        handlerCaptor.getValue().handle(message);
+        assertEquals(1, cache.size());
+
+        when(message.body()).thenReturn(new JsonObject().putNull("keys"));
+        handlerCaptor.getValue().handle(message);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListenBinaryKey() {
+        EventBus eventBus = mock(EventBus.class);
+        Message<JsonObject> message = mock(Message.class);
+        ArgumentCaptor<Handler<Message<JsonObject>>> handlerCaptor = ArgumentCaptor.forClass(Handler.class);
+        byte[] key = new byte[]{'k', (byte) 0xff, (byte) 0xfe};
+        cache.put(new RedisCommand(RedisCommandType.GET, Collections.<Object>singletonList(key)), RESPONSE, cache.getGeneration());
+        cache.put(get("k\ufffd\ufffd"), RESPONSE, cache.getGeneration());
+
+        cache.listen(eventBus, "address.invalidate");
+        verify(eventBus).consumer(eq("address.invalidate"), handlerCaptor.capture());
+
+        when(message.body()).thenReturn(new JsonObject().put("keys", new JsonArray().add(key)));
+        handlerCaptor.getValue().handle(message);
+        assertEquals(1, cache.size());
+        assertNull(cache.get(new RedisCommand(RedisCommandType.GET, Collections.<Object>singletonList(Buffer.buffer(key)))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimits() {
+        new RedisNearCache(-1, 0, 100);
+    }
+
+    private static RedisCommand get(String key) {
+        return new RedisCommand(RedisCommandType.GET, Collections.<Object>singletonList(key));
+    }
+
+    private static RedisCommand hget(String key, String field) {
+        return new RedisCommand(RedisCommandType.HGET, Arrays.<Object>asList(key, field));
+    }
+}
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.verify;
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
 
+import io.netty.buffer.ByteBuf;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetSocket;
 import org.junit.After;
@@ -67,8 +68,8 @@ public class RedisOutputStreamTest {
         try {
             output.write("awes".getBytes(ENCODING));
 
-            assertEquals("Unexpected buffer size", 4, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("awes"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 4, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("awes"), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -79,13 +80,12 @@ public class RedisOutputStreamTest {
     @Test
     public void testWriteOutsideBuffer() {
         Buffer buff = Buffer.buffer();
-        buff.appendString("aweso");
+        buff.appendString("awesome");
 
         try {
             output.write("awesome".getBytes(ENCODING));
 
-            assertEquals("Unexpected buffer size", 2, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("me"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 0, ((ByteBuf) buffer.get(output)).readableBytes());
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -93,13 +93,79 @@ public class RedisOutputStreamTest {
         verify(socket, times(1)).write(buff);
     }
 
+    @Test
+    public void testWriteAfterBufferedData() {
+        try {
+            output.write("foo".getBytes(ENCODING));
+            output.write(Buffer.buffer("bar"));
+
+            assertEquals("Unexpected buffer size", 3, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("bar"), Buffer.buffer((ByteBuf) buffer.get(output)));
+        } catch (Exception ex) {
+            assertNull("Unexpected exception", ex);
+        }
+
+        verify(socket, times(1)).write(Buffer.buffer().appendString("foo"));
+    }
+
+    @Test
+    public void testWriteString() {
+        String value = "h\u00e9\u20ac\ud83d\ude00";
+        int length = RedisOutputStream.utf8Length(value);
+
+        assertEquals("Unexpected UTF-8 length", value.getBytes(ENCODING).length, length);
+
+        output = new RedisOutputStream(socket, 100);
+        output.write(value, length);
+        output.write("ascii", RedisOutputStream.utf8Length("ascii"));
+        output.flush();
+
+        verify(socket, times(1)).write(Buffer.buffer().appendString(value + "ascii"));
+    }
+
+    @Test
+    public void testWriteUnpairedSurrogates() {
+        output = new RedisOutputStream(socket, 100);
+        Buffer expected = Buffer.buffer();
+        for (String value : new String[]{"a\uD800b", "\uDC00", "\uD800\u00e9"}) {
+            int length = RedisOutputStream.utf8Length(value);
+            byte[] bytes = value.getBytes(ENCODING);
+            assertEquals("Unexpected UTF-8 length", bytes.length, length);
+
+            output.write((byte) '$');
+            output.write(length);
+            output.writeCrlf();
+            output.write(value, length);
+            output.writeCrlf();
+            expected.appendString("$" + bytes.length + "\r\n").appendBytes(bytes).appendString("\r\n");
+        }
+        output.flush();
+
+        verify(socket, times(1)).write(expected);
+    }
+
+    @Test
+    public void testReserveKeepsCommandTogether() {
+        output.write("ab".getBytes(ENCODING));
+        output.reserve(RedisOutputStream.bulkLength(6));
+        output.write((byte) '$');
+        output.write(6);
+        output.writeCrlf();
+        output.write("foobar".getBytes(ENCODING));
+        output.writeCrlf();
+        output.flush();
+
+        verify(socket, times(1)).write(Buffer.buffer().appendString("ab"));
+        verify(socket, times(1)).write(Buffer.buffer().appendString("$6\r\nfoobar\r\n"));
+    }
+
     @Test
     public void testWriteCrlfInsideBuffer() {
         output.writeCrlf();
 
         try {
-            assertEquals("Unexpected buffer size", 2, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("\r\n"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 2, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("\r\n"), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -113,8 +179,8 @@ public class RedisOutputStreamTest {
             output.write("some".getBytes(ENCODING));
             output.writeCrlf();
 
-            assertEquals("Unexpected buffer size", 2, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("\r\n"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 2, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("\r\n"), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -128,8 +194,8 @@ public class RedisOutputStreamTest {
             output.write("Hi".getBytes(ENCODING));
             output.flush();
 
-            assertEquals("Unexpected buffer size", 0, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer(), buffer.get(output));
+            assertEquals("Unexpected buffer size", 0, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer(), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -142,8 +208,8 @@ public class RedisOutputStreamTest {
         output.write(1234);
 
         try {
-            assertEquals("Unexpected buffer size", 4, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("1234"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 4, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("1234"), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -157,8 +223,8 @@ public class RedisOutputStreamTest {
             output.write("foo".getBytes(ENCODING));
             output.write(1234);
 
-            assertEquals("Unexpected buffer size", 4, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("1234"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 4, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("1234"), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -171,8 +237,8 @@ public class RedisOutputStreamTest {
         output.write((byte) 'a');
 
         try {
-            assertEquals("Unexpected buffer size", 1, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("a"), buffer.get(output));
+            assertEquals("Unexpected buffer size", 1, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer().appendString("a"), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
@@ -189,8 +255,8 @@ public class RedisOutputStreamTest {
         output.write((byte) 'e');
 
         try {
-            assertEquals("Unexpected buffer size", 0, ((Buffer) buffer.get(output)).length());
-            assertEquals("Buffer doesn't match", Buffer.buffer(), buffer.get(output));
+            assertEquals("Unexpected buffer size", 0, ((ByteBuf) buffer.get(output)).readableBytes());
+            assertEquals("Buffer doesn't match", Buffer.buffer(), Buffer.buffer((ByteBuf) buffer.get(output)));
         } catch (Exception ex) {
             assertNull("Unexpected exception", ex);
         }
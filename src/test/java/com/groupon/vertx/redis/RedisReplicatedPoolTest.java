@@ -0,0 +1,183 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisReplicatedPool</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisReplicatedPoolTest {
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private NetClient netClient;
+
+    @Mock
+    private EventBus eventBus;
+
+    @Mock
+    private RedisCommandHandler primary;
+
+    @Mock
+    private RedisCommandHandler first;
+
+    @Mock
+    private RedisCommandHandler second;
+
+    @Captor
+    private ArgumentCaptor<List<RedisCommand>> commandsCaptor;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testStartConnectsReplicas() throws Exception {
+        doReturn(eventBus).when(vertx).eventBus();
+        RedisReplicatedPool replicatedPool = createPool("replicasFirst");
+        replicatedPool.start();
+
+        verify(netClient, times(1)).connect(eq(6379), eq("primary"), any());
+        verify(netClient, times(1)).connect(eq(6379), eq("a"), any());
+        verify(netClient, times(1)).connect(eq(6380), eq("b"), any());
+        verify(eventBus, times(1)).consumer("address", replicatedPool);
+        assertEquals("Unexpected connections", 1, replicatedPool.size());
+    }
+
+    @Test
+    public void testReadsSentToReplica() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("replicasFirst");
+        replicatedPool.sendCommand(Arrays.asList(command(RedisCommandType.GET, "foo"), command(RedisCommandType.HGETALL, "hash")));
+
+        verify(first, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected reads", 2, commandsCaptor.getValue().size());
+        verify(primary, never()).sendCommand(any());
+        verify(second, never()).sendCommand(any());
+    }
+
+    @Test
+    public void testMessageWithWriteSentToPrimary() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("replicasFirst");
+        replicatedPool.sendCommand(Arrays.asList(command(RedisCommandType.SET, "foo", "bar"), command(RedisCommandType.GET, "foo"),
+                command(RedisCommandType.HGETALL, "hash")));
+
+        verify(primary, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected commands", 3, commandsCaptor.getValue().size());
+        assertEquals("Unexpected order", RedisCommandType.SET, commandsCaptor.getValue().get(0).getType());
+        assertEquals("Unexpected order", RedisCommandType.GET, commandsCaptor.getValue().get(1).getType());
+        verify(first, never()).sendCommand(any());
+        verify(second, never()).sendCommand(any());
+    }
+
+    @Test
+    public void testSortSentToPrimary() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("replicasFirst");
+        replicatedPool.sendCommand(Arrays.asList(command(RedisCommandType.SORT, "list", "ALPHA")));
+
+        verify(primary, times(1)).sendCommand(any());
+        verify(first, never()).sendCommand(any());
+        verify(second, never()).sendCommand(any());
+    }
+
+    @Test
+    public void testReplicasFirst() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("replicasFirst");
+        doReturn(5).when(first).getPendingCommands();
+        doReturn(2).when(second).getPendingCommands();
+        assertSame("Unexpected pool", replicatedPool.getReplicas().get(1), replicatedPool.getReadPool());
+
+        replicatedPool.getReplicas().get(0).remove(first);
+        replicatedPool.getReplicas().get(1).remove(second);
+        assertSame("Primary not used", replicatedPool.getPrimary(), replicatedPool.getReadPool());
+    }
+
+    @Test
+    public void testLeastPending() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("leastPending");
+        doReturn(5).when(first).getPendingCommands();
+        doReturn(2).when(second).getPendingCommands();
+        doReturn(2).when(primary).getPendingCommands();
+        assertSame("Unexpected pool", replicatedPool.getReplicas().get(1), replicatedPool.getReadPool());
+
+        doReturn(1).when(primary).getPendingCommands();
+        assertSame("Unexpected pool", replicatedPool.getPrimary(), replicatedPool.getReadPool());
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("roundRobin");
+        assertSame("Unexpected pool", replicatedPool.getReplicas().get(1), replicatedPool.getReadPool());
+        assertSame("Unexpected pool", replicatedPool.getPrimary(), replicatedPool.getReadPool());
+        assertSame("Unexpected pool", replicatedPool.getReplicas().get(0), replicatedPool.getReadPool());
+
+        replicatedPool.getReplicas().get(1).remove(second);
+        assertSame("Unexpected pool", replicatedPool.getPrimary(), replicatedPool.getReadPool());
+        assertSame("Unexpected pool", replicatedPool.getReplicas().get(0), replicatedPool.getReadPool());
+    }
+
+    @Test
+    public void testTransactionSentToPrimary() throws Exception {
+        RedisReplicatedPool replicatedPool = createPool("replicasFirst");
+        replicatedPool.sendCommand(Arrays.asList(new RedisCommand(RedisCommandType.MULTI, null), command(RedisCommandType.GET, "foo"),
+                command(RedisCommandType.INCR, "counter"), new RedisCommand(RedisCommandType.EXEC, null)));
+
+        verify(primary, times(1)).sendCommand(commandsCaptor.capture());
+        assertEquals("Unexpected commands", 4, commandsCaptor.getValue().size());
+        verify(first, never()).sendCommand(any());
+        verify(second, never()).sendCommand(any());
+    }
+
+    private RedisReplicatedPool createPool(String readPolicy) throws Exception {
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"primary\",\"eventBusAddress\":\"address\",\"replicas\":"
+                + "[{\"host\":\"a\"},{\"host\":\"b\",\"port\":6380}],\"readPolicy\":\"" + readPolicy + "\"}"));
+        RedisReplicatedPool replicatedPool = new RedisReplicatedPool(vertx, config, netClient);
+        replicatedPool.getPrimary().add(primary);
+        replicatedPool.getReplicas().get(0).add(first);
+        replicatedPool.getReplicas().get(1).add(second);
+        return replicatedPool;
+    }
+
+    private static RedisCommand command(RedisCommandType type, Object... arguments) {
+        return new RedisCommand(type, Arrays.asList(arguments));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.buffer.Buffer;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisReplyCodec</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisReplyCodecTest {
+    private final RedisReplyCodec codec = new RedisReplyCodec();
+
+    @Test
+    public void testTransformPassesReference() {
+        RedisReply reply = new RedisReply(RedisResponseType.STATUS_CODE, "OK");
+
+        assertSame("Reply should not be copied", reply, codec.transform(reply));
+    }
+
+    @Test
+    public void testStatusRoundTrip() {
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.STATUS_CODE, "OK"));
+
+        assertEquals(RedisResponseType.STATUS_CODE, decoded.getType());
+        assertEquals("OK", decoded.getValue());
+    }
+
+    @Test
+    public void testErrorRoundTrip() {
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.ERROR, "ERR bad"));
+
+        assertEquals(RedisResponseType.ERROR, decoded.getType());
+        assertEquals("ERR bad", decoded.getValue());
+    }
+
+    @Test
+    public void testNestedErrorRoundTrip() {
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.MULTI_BULK_REPLY,
+                Arrays.asList(Buffer.buffer("foo"), new RedisReply(RedisResponseType.ERROR, "ERR bad"))));
+
+        List<?> values = (List<?>) decoded.getValue();
+        assertEquals(Buffer.buffer("foo"), values.get(0));
+        assertEquals(RedisResponseType.ERROR, ((RedisReply) values.get(1)).getType());
+        assertEquals("ERR bad", ((RedisReply) values.get(1)).getValue());
+    }
+
+    @Test
+    public void testNilBulkRoundTrip() {
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.BULK_REPLY, null));
+
+        assertEquals(RedisResponseType.BULK_REPLY, decoded.getType());
+        assertNull(decoded.getValue());
+    }
+
+    @Test
+    public void testMultiBulkRoundTrip() {
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.MULTI_BULK_REPLY,
+                Arrays.asList(Buffer.buffer("foo\r\n"), null, 42L, Arrays.asList(Buffer.buffer("bar"), "OK"))));
+
+        assertEquals(RedisResponseType.MULTI_BULK_REPLY, decoded.getType());
+        List<?> values = (List<?>) decoded.getValue();
+        assertEquals(Buffer.buffer("foo\r\n"), values.get(0));
+        assertNull(values.get(1));
+        assertEquals(42L, values.get(2));
+        assertEquals(Arrays.asList(Buffer.buffer("bar"), "OK"), values.get(3));
+    }
+
+    @Test
+    public void testIntegerRoundTrip() {
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.INTEGER_REPLY, 1L << 40));
+
+        assertEquals(RedisResponseType.INTEGER_REPLY, decoded.getType());
+        assertEquals(1L << 40, decoded.getValue());
+    }
+
+    @Test
+    public void testResp3RoundTrip() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put(Buffer.buffer("field"), Buffer.buffer("value"));
+        map.put(Buffer.buffer("score"), 1.5);
+        RedisReply decoded = roundTrip(new RedisReply(RedisResponseType.MAP, map));
+
+        assertEquals(RedisResponseType.MAP, decoded.getType());
+        assertEquals(map, decoded.getValue());
+
+        List<Object> values = Arrays.asList(true, new BigInteger("123456789012345678901234567890"), Double.POSITIVE_INFINITY);
+        decoded = roundTrip(new RedisReply(RedisResponseType.SET, values));
+        assertEquals(RedisResponseType.SET, decoded.getType());
+        assertEquals(values, decoded.getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMarker() {
+        Buffer wire = Buffer.buffer("xx");
+        codec.encodeToWire(wire, new RedisReply(RedisResponseType.STATUS_CODE, "OK"));
+        wire.setByte(2, (byte) 'x');
+
+        codec.decodeFromWire(2, wire);
+    }
+
+    private RedisReply roundTrip(RedisReply reply) {
+        Buffer wire = Buffer.buffer("xx");
+        codec.encodeToWire(wire, reply);
+        return codec.decodeFromWire(2, wire);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisReply</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisReplyTest {
+    @Test
+    public void testBulkReplyToJson() {
+        RedisReply reply = new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("foobar"));
+
+        assertEquals("Invalid json", new JsonObject().put("status", "success").put("data", "foobar"), reply.toJson());
+    }
+
+    @Test
+    public void testNilReplyToJson() {
+        RedisReply reply = new RedisReply(RedisResponseType.BULK_REPLY, null);
+
+        assertEquals("Invalid json", new JsonObject().put("status", "success").putNull("data"), reply.toJson());
+    }
+
+    @Test
+    public void testErrorReplyToJson() {
+        RedisReply reply = new RedisReply(RedisResponseType.ERROR, "ERR bad");
+
+        assertTrue("Not an error", reply.isError());
+        assertEquals("Invalid json", new JsonObject().put("status", "fail").put("data", "ERR bad"), reply.toJson());
+    }
+
+    @Test
+    public void testMultiBulkReplyToJson() {
+        RedisReply reply = new RedisReply(RedisResponseType.MULTI_BULK_REPLY,
+                Arrays.asList(Buffer.buffer("foo"), null, 1, Arrays.asList(Buffer.buffer("bar"))));
+
+        JsonArray expected = new JsonArray().add("foo").addNull().add(1).add(new JsonArray().add("bar"));
+        assertEquals("Invalid json", new JsonObject().put("status", "success").put("data", expected), reply.toJson());
+    }
+
+    @Test
+    public void testResp3ReplyToJson() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put(Buffer.buffer("field"), Buffer.buffer("value"));
+        RedisReply reply = new RedisReply(RedisResponseType.MULTI_BULK_REPLY,
+                Arrays.asList(map, 1.5, 3.0, Double.NEGATIVE_INFINITY, true, new BigInteger("123456789012345678901234567890")));
+
+        JsonArray expected = new JsonArray().add(new JsonArray().add("field").add("value")).add("1.5").add("3").add("-inf")
+                .add(1L).add("123456789012345678901234567890");
+        assertEquals("Invalid json", new JsonObject().put("status", "success").put("data", expected), reply.toJson());
+    }
+
+    @Test
+    public void testDoubleExponentToJson() {
+        RedisReply reply = new RedisReply(RedisResponseType.MULTI_BULK_REPLY,
+                Arrays.asList(1e20, 1e-5, -1.5e-7, 1.2345e18, 12345.678, 0.0001, Double.NaN));
+
+        JsonArray expected = new JsonArray().add("1e+20").add("1e-05").add("-1.5e-07").add("1.2345e+18").add("12345.678")
+                .add("0.0001").add("nan");
+        assertEquals("Invalid json", new JsonObject().put("status", "success").put("data", expected), reply.toJson());
+    }
+
+    @Test
+    public void testBulkErrorReplyToJson() {
+        RedisReply reply = new RedisReply(RedisResponseType.BULK_ERROR, "SYNTAX invalid");
+
+        assertTrue("Not an error", reply.isError());
+        assertEquals("Invalid json", new JsonObject().put("status", "fail").put("data", "SYNTAX invalid"), reply.toJson());
+    }
+}
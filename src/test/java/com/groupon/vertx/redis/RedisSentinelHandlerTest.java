@@ -0,0 +1,175 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetSocket;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisSentinelHandler</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisSentinelHandlerTest {
+    private static final Buffer GET_MASTER = Buffer.buffer("*3\r\n$8\r\nSENTINEL\r\n$23\r\nGET-MASTER-ADDR-BY-NAME\r\n$8\r\nmymaster\r\n");
+    private static final Buffer SUBSCRIBE = Buffer.buffer("*2\r\n$9\r\nSUBSCRIBE\r\n$14\r\n+switch-master\r\n");
+
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private NetClient netClient;
+
+    @Mock
+    private NetSocket netSocket;
+
+    @Mock
+    private RedisConnectionPool pool;
+
+    @Captor
+    private ArgumentCaptor<Handler<AsyncResult<NetSocket>>> connectCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Buffer>> dataCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> closeCaptor;
+
+    private RedisConfig config;
+
+    private RedisSentinelHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        config = new RedisConfig(new JsonObject("{\"eventBusAddress\":\"address\",\"masterName\":\"mymaster\","
+                + "\"sentinels\":[{\"host\":\"s1\"},{\"host\":\"s2\",\"port\":26380}]}"));
+        handler = new RedisSentinelHandler(vertx, config, netClient, pool);
+    }
+
+    @Test
+    public void testResolvesPrimary() {
+        connect();
+
+        verify(pool, times(1)).close();
+        verify(pool, times(1)).connect(config, netClient, "10.0.0.1", 6379);
+        verify(netSocket, times(1)).write(SUBSCRIBE);
+        assertEquals("Unexpected primary", "10.0.0.1:6379", handler.getPrimary().toString());
+    }
+
+    @Test
+    public void testSwitchMaster() {
+        connect();
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$9\r\nsubscribe\r\n$14\r\n+switch-master\r\n:1\r\n"));
+
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$7\r\nmessage\r\n$14\r\n+switch-master\r\n"
+                + "$33\r\nother 10.0.0.1 6379 10.0.0.3 6379\r\n"));
+        verify(pool, never()).connect(any(), any(), eq("10.0.0.3"), anyInt());
+
+        dataCaptor.getValue().handle(Buffer.buffer("*3\r\n$7\r\nmessage\r\n$14\r\n+switch-master\r\n"
+                + "$36\r\nmymaster 10.0.0.1 6379 10.0.0.2 6380\r\n"));
+        verify(pool, times(2)).close();
+        verify(pool, times(1)).connect(config, netClient, "10.0.0.2", 6380);
+        assertEquals("Unexpected primary", "10.0.0.2:6380", handler.getPrimary().toString());
+    }
+
+    @Test
+    public void testReconnectsToNextSentinel() {
+        connect();
+
+        verify(netSocket, times(1)).closeHandler(closeCaptor.capture());
+        closeCaptor.getValue().handle(null);
+        verify(vertx, times(1)).setTimer(eq(50L), any());
+
+        handler.handle(2L);
+        verify(netClient, times(1)).connect(eq(26380), eq("s2"), connectCaptor.capture());
+        connectCaptor.getValue().handle(Future.succeededFuture(netSocket));
+        verify(netSocket, times(2)).handler(dataCaptor.capture());
+        dataCaptor.getValue().handle(Buffer.buffer("*2\r\n$8\r\n10.0.0.1\r\n$4\r\n6379\r\n"));
+
+        verify(pool, times(1)).connect(any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    public void testUnknownMaster() {
+        handler.handle(1L);
+        verify(netClient, times(1)).connect(eq(26379), eq("s1"), connectCaptor.capture());
+        connectCaptor.getValue().handle(Future.succeededFuture(netSocket));
+        verify(netSocket, times(1)).handler(dataCaptor.capture());
+
+        dataCaptor.getValue().handle(Buffer.buffer("*-1\r\n"));
+        verify(netSocket, times(1)).close();
+        verify(pool, never()).connect(any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    public void testSentinelFailed() {
+        handler.handle(1L);
+        verify(netClient, times(1)).connect(eq(26379), eq("s1"), connectCaptor.capture());
+        connectCaptor.getValue().handle(Future.failedFuture(new Exception("Failed")));
+
+        verify(vertx, times(1)).setTimer(eq(50L), any());
+        handler.handle(2L);
+        verify(netClient, times(1)).connect(eq(26380), eq("s2"), any());
+    }
+
+    @Test
+    public void testClose() {
+        connect();
+        handler.close();
+        verify(netSocket, times(1)).close();
+
+        verify(netSocket, times(1)).closeHandler(closeCaptor.capture());
+        closeCaptor.getValue().handle(null);
+        verify(vertx, never()).setTimer(anyLong(), any());
+
+        handler.handle(2L);
+        verify(netClient, times(1)).connect(anyInt(), anyString(), any());
+    }
+
+    private void connect() {
+        handler.handle(1L);
+        verify(netClient, times(1)).connect(eq(26379), eq("s1"), connectCaptor.capture());
+        connectCaptor.getValue().handle(Future.succeededFuture(netSocket));
+
+        verify(netSocket, times(1)).write(GET_MASTER);
+        verify(netSocket, times(1)).handler(dataCaptor.capture());
+        dataCaptor.getValue().handle(Buffer.buffer("*2\r\n$8\r\n10.0.0.1\r\n$4\r\n6379\r\n"));
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.NetClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests for <code>RedisShardedPool</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisShardedPoolTest {
+    private static final int KEYS = 3000;
+
+    @Mock
+    private Vertx vertx;
+
+    @Mock
+    private NetClient netClient;
+
+    @Mock
+    private EventBus eventBus;
+
+    @Mock
+    private RedisCommandHandler first;
+
+    @Mock
+    private RedisCommandHandler second;
+
+    @Mock
+    private RedisCommandHandler third;
+
+    @Captor
+    private ArgumentCaptor<List<RedisCommand>> commandsCaptor;
+
+    private RedisShardedPool shardedPool;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+
+        RedisConfig config = new RedisConfig(new JsonObject("{\"eventBusAddress\":\"address\",\"shards\":"
+                + "[{\"host\":\"a\"},{\"host\":\"b\",\"port\":6380},{\"host\":\"c\",\"weight\":2}]}"));
+        shardedPool = new RedisShardedPool(vertx, config, netClient);
+        shardedPool.getShards().get(0).add(first);
+        shardedPool.getShards().get(1).add(second);
+        shardedPool.getShards().get(2).add(third);
+    }
+
+    @Test
+    public void testStartConnectsShards() {
+        doReturn(eventBus).when(vertx).eventBus();
+        shardedPool.start();
+
+        verify(netClient, times(1)).connect(eq(6379), eq("a"), any());
+        verify(netClient, times(1)).connect(eq(6380), eq("b"), any());
+        verify(netClient, times(1)).connect(eq(6379), eq("c"), any());
+        verify(eventBus, times(1)).consumer("address", shardedPool);
+        assertEquals("Unexpected connected shards", 3, shardedPool.size());
+    }
+
+    @Test
+    public void testDistributesByWeight() {
+        Map<RedisConnectionPool, Integer> counts = new IdentityHashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(shardedPool.getShard("key" + i), 1, Integer::sum);
+        }
+
+        List<RedisConnectionPool> shards = shardedPool.getShards();
+        assertEquals("Unexpected shards", 3, counts.size());
+        assertTrue("Weighted shard too small", counts.get(shards.get(2)) > counts.get(shards.get(0)));
+        assertTrue("Weighted shard too small", counts.get(shards.get(2)) > counts.get(shards.get(1)));
+        assertSame("Unexpected shard", shardedPool.getShard("key1"), shardedPool.getShard("key1".getBytes()));
+    }
+
+    @Test
+    public void testHashTag() {
+        assertSame("Unexpected shard", shardedPool.getShard("user1000"), shardedPool.getShard("{user1000}.following"));
+        assertSame("Unexpected shard", shardedPool.getShard("{user1000}.followers"), shardedPool.getShard(Buffer.buffer("{user1000}.following")));
+    }
+
+    @Test
+    public void testLostShardKeysMove() {
+        List<RedisConnectionPool> before = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            before.add(shardedPool.getShard("key" + i));
+        }
+
+        RedisConnectionPool lost = shardedPool.getShards().get(1);
+        lost.remove(second);
+        assertEquals("Unexpected connected shards", 2, shardedPool.size());
+
+        for (int i = 0; i < KEYS; i++) {
+            RedisConnectionPool shard = shardedPool.getShard("key" + i);
+            if (before.get(i) == lost) {
+                assertNotSame("Key not moved", lost, shard);
+            } else {
+                assertSame("Key moved", before.get(i), shard);
+            }
+        }
+
+        lost.add(second);
+        for (int i = 0; i < KEYS; i++) {
+            assertSame("Key not moved back", before.get(i), shardedPool.getShard("key" + i));
+        }
+    }
+
+    @Test
+    public void testSplitsMgetByShard() {
+        List<Object> keys = new ArrayList<>(Collections.singletonList("key0"));
+        for (int i = 1; shardedPool.getShard(keys.get(0)) == shardedPool.getShard(keys.get(keys.size() - 1)); i++) {
+            keys.add("key" + i);
+        }
+        RedisCommand command = new RedisCommand(RedisCommandType.MGET, keys);
+        Future<RedisReply> response = Future.future();
+        command.replyResponse(response);
+
+        shardedPool.sendCommand(Collections.singletonList(command));
+
+        List<RedisCommand> sent = new ArrayList<>();
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            if (handlerOwns(handler, keys)) {
+                verify(handler, times(1)).sendCommand(commandsCaptor.capture());
+                sent.add(commandsCaptor.getValue().get(0));
+            } else {
+                verify(handler, never()).sendCommand(any());
+            }
+        }
+        assertEquals("Command not split", 2, sent.size());
+
+        for (RedisCommand split : sent) {
+            List<Object> values = new ArrayList<>();
+            for (Object key : split.getArgumentValues()) {
+                values.add(Buffer.buffer("value-" + key));
+            }
+            split.setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, values));
+        }
+
+        List<Object> expected = new ArrayList<>();
+        for (Object key : keys) {
+            expected.add(Buffer.buffer("value-" + key));
+        }
+        assertEquals("Unexpected reply", expected, response.result().getValue());
+    }
+
+    @Test
+    public void testTransactionSentToOneShard() {
+        shardedPool.sendCommand(Arrays.asList(new RedisCommand(RedisCommandType.MULTI, null), command("{user1000}.following"),
+                command("{user1000}.followers"), new RedisCommand(RedisCommandType.EXEC, null)));
+
+        int sent = 0;
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            if (handlerOwns(handler, Collections.singletonList("user1000"))) {
+                verify(handler, times(1)).sendCommand(commandsCaptor.capture());
+                assertEquals("Unexpected commands", 4, commandsCaptor.getValue().size());
+                sent++;
+            } else {
+                verify(handler, never()).sendCommand(any());
+            }
+        }
+        assertEquals("Transaction not sent to one shard", 1, sent);
+    }
+
+    @Test
+    public void testCrossShardTransactionFails() {
+        String other = keyOnOtherShard("foo");
+        List<RedisCommand> commands = Arrays.asList(new RedisCommand(RedisCommandType.MULTI, null), command("foo"),
+                new RedisCommand(RedisCommandType.DEL, Arrays.asList("foo", other)), new RedisCommand(RedisCommandType.EXEC, null));
+        List<Future<JsonObject>> responses = new ArrayList<>();
+        for (RedisCommand command : commands) {
+            Future<JsonObject> response = Future.future();
+            command.commandResponse(response);
+            responses.add(response);
+        }
+        shardedPool.sendCommand(commands);
+
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            verify(handler, never()).sendCommand(any());
+        }
+        for (Future<JsonObject> response : responses) {
+            assertEquals("Unexpected status", "error", response.result().getString("status"));
+            assertEquals("Unexpected message", "Transaction keys are on several shards", response.result().getString("message"));
+        }
+    }
+
+    @Test
+    public void testCrossShardRenameInTransactionFails() {
+        List<RedisCommand> commands = Arrays.asList(new RedisCommand(RedisCommandType.MULTI, null),
+                new RedisCommand(RedisCommandType.RENAME, Arrays.asList("foo", keyOnOtherShard("foo"))),
+                new RedisCommand(RedisCommandType.EXEC, null));
+        Future<JsonObject> response = Future.future();
+        commands.get(1).commandResponse(response);
+        for (RedisCommand command : Arrays.asList(commands.get(0), commands.get(2))) {
+            command.commandResponse(Future.<JsonObject>future());
+        }
+        shardedPool.sendCommand(commands);
+
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            verify(handler, never()).sendCommand(any());
+        }
+        assertEquals("Unexpected message", "Transaction keys are on several shards", response.result().getString("message"));
+    }
+
+    @Test
+    public void testCrossShardRenameFails() {
+        RedisCommand rename = new RedisCommand(RedisCommandType.RENAME, Arrays.asList("foo", keyOnOtherShard("foo")));
+        Future<JsonObject> response = Future.future();
+        rename.commandResponse(response);
+        shardedPool.sendCommand(Collections.singletonList(rename));
+
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            verify(handler, never()).sendCommand(any());
+        }
+        assertEquals("Unexpected status", "error", response.result().getString("status"));
+        assertEquals("Unexpected message", "Command keys are on several shards", response.result().getString("message"));
+    }
+
+    @Test
+    public void testFlushallSentToEveryShard() {
+        RedisCommand flush = new RedisCommand(RedisCommandType.FLUSHALL, null);
+        Future<RedisReply> response = Future.future();
+        flush.replyResponse(response);
+        shardedPool.sendCommand(Collections.singletonList(flush));
+
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            verify(handler, times(1)).sendCommand(commandsCaptor.capture());
+            RedisCommand copy = commandsCaptor.getValue().get(0);
+            assertEquals("Unexpected command", RedisCommandType.FLUSHALL, copy.getType());
+            assertFalse("Response completed early", response.isComplete());
+            copy.setReply(new RedisReply(RedisResponseType.STATUS_CODE, "OK"));
+        }
+        assertEquals("Unexpected reply", "OK", response.result().getValue());
+    }
+
+    @Test
+    public void testKeysMergedFromEveryShard() {
+        RedisCommand keys = new RedisCommand(RedisCommandType.KEYS, Collections.singletonList("*"));
+        Future<RedisReply> response = Future.future();
+        keys.replyResponse(response);
+        shardedPool.sendCommand(Collections.singletonList(keys));
+
+        List<Object> expected = new ArrayList<>();
+        for (RedisCommandHandler handler : Arrays.asList(first, second, third)) {
+            verify(handler, times(1)).sendCommand(commandsCaptor.capture());
+            Buffer key = Buffer.buffer("key-" + expected.size());
+            expected.add(key);
+            commandsCaptor.getValue().get(0).setReply(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Collections.singletonList(key)));
+        }
+        assertEquals("Unexpected reply", expected, response.result().getValue());
+    }
+
+    private String keyOnOtherShard(String key) {
+        String other = "key0";
+        for (int i = 1; shardedPool.getShard(other) == shardedPool.getShard(key); i++) {
+            other = "key" + i;
+        }
+        return other;
+    }
+
+    private boolean handlerOwns(RedisCommandHandler handler, List<Object> keys) {
+        int index = Arrays.asList(first, second, third).indexOf(handler);
+        for (Object key : keys) {
+            if (shardedPool.getShard(key) == shardedPool.getShards().get(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RedisCommand command(String key) {
+        return new RedisCommand(RedisCommandType.GET, Collections.singletonList(key));
+    }
+}
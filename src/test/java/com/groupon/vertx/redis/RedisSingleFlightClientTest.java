@@ -0,0 +1,99 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisSingleFlightClient</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisSingleFlightClientTest {
+    private final List<RedisCommand> sent = new ArrayList<>();
+    private final List<Future<JsonObject>> responses = new ArrayList<>();
+    private RedisSingleFlightClient client;
+
+    @Before
+    public void setUp() {
+        client = new RedisSingleFlightClient(new RedisBaseClient(null, "address", 0) {
+            @Override
+            protected Future<JsonObject> sendCommand(RedisCommand command) {
+                Future<JsonObject> response = Future.future();
+                sent.add(command);
+                responses.add(response);
+                return response;
+            }
+        });
+    }
+
+    @Test
+    public void testIdenticalReadsShareCommand() {
+        Future<JsonObject> first = client.get("key");
+        Future<JsonObject> second = client.get("key");
+        Future<JsonObject> other = client.get("other");
+
+        assertEquals(2, sent.size());
+
+        JsonObject response = new JsonObject().put("status", "success").put("data", "value");
+        responses.get(0).complete(response);
+        assertEquals(response, first.result());
+        assertEquals(response, second.result());
+        assertNotSame(first.result(), second.result());
+        assertFalse(other.isComplete());
+
+        client.get("key");
+        assertEquals(3, sent.size());
+    }
+
+    @Test
+    public void testBinaryArguments() {
+        client.get(Buffer.buffer("key"));
+        client.get(Buffer.buffer("key"));
+
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testWritesAreNotShared() {
+        client.incr("key");
+        client.incr("key");
+
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testFailureShared() {
+        Future<JsonObject> first = client.hget("key", "field");
+        Future<JsonObject> second = client.hget("key", "field");
+
+        RedisCommandException exception = new RedisCommandException("timeout");
+        responses.get(0).fail(exception);
+        assertEquals(exception, first.cause());
+        assertEquals(exception, second.cause());
+    }
+}
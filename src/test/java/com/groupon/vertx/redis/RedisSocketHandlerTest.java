@@ -19,6 +19,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -26,8 +27,10 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetSocket;
 import org.junit.Before;
@@ -99,6 +102,8 @@ public class RedisSocketHandlerTest {
         verify(netSocket, times(1)).exceptionHandler(closeCaptorThrowable.capture());
 
         verify(eventBus, times(1)).consumer(eq("address"), any());
+
+        verify(netSocket, times(1)).drainHandler(any());
     }
 
     @Test
@@ -130,6 +135,26 @@ public class RedisSocketHandlerTest {
         verify(netSocket, times(1)).close();
     }
 
+    @Test
+    public void testInvalidationSocket() throws Exception {
+        RedisConfig config = new RedisConfig(new JsonObject("{\"host\":\"foo\",\"port\":1234,\"eventBusAddress\":\"tracked\",\"trackingMode\":\"default\"}"));
+        RedisSocketHandler handler = new RedisSocketHandler(vertx, config, netClient, new RedisConnectionPool(vertx, "tracked"), true);
+
+        handler.handle(1L);
+        verify(netClient, times(1)).connect(eq(1234), eq("foo"), handlerCaptor.capture());
+        handlerCaptor.getValue().handle(Future.succeededFuture(netSocket));
+
+        verify(netSocket, times(1)).write(Buffer.buffer("*2\r\n$6\r\nCLIENT\r\n$2\r\nID\r\n"));
+        verify(eventBus, never()).consumer(eq("tracked"), any());
+
+        verify(netSocket, times(1)).closeHandler(closeCaptorVoid.capture());
+        closeCaptorVoid.getValue().handle(null);
+
+        verify(eventBus, times(1)).publish(eq("tracked.invalidate"), any());
+        verify(netSocket, times(1)).close();
+        verify(vertx, times(1)).setTimer(eq(50L), any());
+    }
+
     @Test
     public void testSocketFailed() {
         asyncResultHandler.handle(Future.failedFuture(new Exception("Failed")));
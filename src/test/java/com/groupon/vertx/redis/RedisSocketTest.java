@@ -15,7 +15,11 @@
  */
 package com.groupon.vertx.redis;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -25,6 +29,7 @@ import java.util.Collections;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -52,6 +57,19 @@ public class RedisSocketTest extends TestCase {
     @Mock
     private RedisInputStream inputStream;
 
+    @Mock
+    private Vertx vertx;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> contextCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Long>> timerCaptor;
+
+    @Captor
+    private ArgumentCaptor<Handler<Void>> drainCaptor;
+
+
     @Captor
     private ArgumentCaptor<Handler<Buffer>> handlerCaptor;
 
@@ -143,6 +161,122 @@ public class RedisSocketTest extends TestCase {
         verify(netSocket, times(1)).write(Buffer.buffer().appendString("*4\r\n$6\r\nZRANGE\r\n$7\r\nzsetkey\r\n$1\r\n0\r\n$2\r\n-1\r\n"));
     }
 
+    @Test
+    public void testSendCommandBinary() {
+        RedisCommand command = new RedisCommand(RedisCommandType.SET, Arrays.asList("somekey", Buffer.buffer("a\r\nb")));
+
+        redisSocket.sendCommand(Collections.<RedisCommand>singletonList(command));
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*3\r\n$3\r\nSET\r\n$7\r\nsomekey\r\n$4\r\na\r\nb\r\n"));
+    }
+
+    @Test
+    public void testSendCommandWithSubcommand() {
+        RedisCommand command = new RedisCommand(RedisCommandType.OBJECT_IDLETIME, Collections.singletonList("somekey"));
+
+        redisSocket.sendCommand(Collections.<RedisCommand>singletonList(command));
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*3\r\n$6\r\nOBJECT\r\n$8\r\nIDLETIME\r\n$7\r\nsomekey\r\n"));
+    }
+
+    @Test
+    public void testHelloOnConnect() throws Exception {
+        new RedisSocket(netSocket, vertx, new RedisConfig(new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\",\"protocol\":3}")));
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*2\r\n$5\r\nHELLO\r\n$1\r\n3\r\n"));
+    }
+
+    @Test
+    public void testSendClientSubcommand() {
+        RedisCommand command = new RedisCommand(RedisCommandType.CLIENT_TRACKING, Arrays.asList("ON", "BCAST"));
+
+        redisSocket.sendCommand(Collections.<RedisCommand>singletonList(command));
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*4\r\n$6\r\nCLIENT\r\n$8\r\nTRACKING\r\n$2\r\nON\r\n$5\r\nBCAST\r\n"));
+    }
+
+    @Test
+    public void testSendCommandCoalesced() throws Exception {
+        RedisSocket coalescingSocket = new RedisSocket(netSocket, vertx, new RedisConfig(
+                new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\",\"coalesceWrites\":true}")));
+
+        coalescingSocket.sendCommand(Collections.singletonList(createCommand(RedisCommandType.GET, new Object[]{"a"})));
+        coalescingSocket.sendCommand(Collections.singletonList(createCommand(RedisCommandType.GET, new Object[]{"b"})));
+
+        verify(netSocket, never()).write(any(Buffer.class));
+        verify(vertx, times(1)).runOnContext(contextCaptor.capture());
+
+        contextCaptor.getValue().handle(null);
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*2\r\n$3\r\nGET\r\n$1\r\na\r\n*2\r\n$3\r\nGET\r\n$1\r\nb\r\n"));
+    }
+
+    @Test
+    public void testSendCommandCoalescedWithDelay() throws Exception {
+        RedisSocket coalescingSocket = new RedisSocket(netSocket, vertx, new RedisConfig(
+                new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\",\"coalesceWrites\":true,\"flushDelay\":2}")));
+
+        coalescingSocket.sendCommand(Collections.singletonList(createCommand(RedisCommandType.PING, new Object[]{})));
+
+        verify(netSocket, never()).write(any(Buffer.class));
+        verify(vertx, times(1)).setTimer(eq(2L), timerCaptor.capture());
+
+        timerCaptor.getValue().handle(1L);
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*1\r\n$4\r\nPING\r\n"));
+    }
+
+    @Test
+    public void testSendCommandCoalescedCommandLimit() throws Exception {
+        RedisSocket coalescingSocket = new RedisSocket(netSocket, vertx, new RedisConfig(
+                new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\",\"coalesceWrites\":true,\"flushMaxCommands\":2}")));
+
+        coalescingSocket.sendCommand(Arrays.asList(createCommand(RedisCommandType.PING, new Object[]{}),
+                createCommand(RedisCommandType.PING, new Object[]{})));
+
+        verify(netSocket, times(1)).write(Buffer.buffer().appendString("*1\r\n$4\r\nPING\r\n*1\r\n$4\r\nPING\r\n"));
+        verify(vertx, never()).runOnContext(any());
+    }
+
+    @Test
+    public void testWriteQueueMaxSize() throws Exception {
+        new RedisSocket(netSocket, vertx, new RedisConfig(
+                new JsonObject("{\"host\":\"foo\",\"eventBusAddress\":\"address\",\"writeQueueMaxSize\":4096}")));
+
+        verify(netSocket, times(1)).setWriteQueueMaxSize(4096);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriteQueueHandlers() {
+        Handler<Void> fullHandler = mock(Handler.class);
+        Handler<Void> drainHandler = mock(Handler.class);
+        redisSocket.writeQueueFullHandler(fullHandler);
+        redisSocket.drainHandler(drainHandler);
+        verify(netSocket, times(1)).drainHandler(drainCaptor.capture());
+
+        redisSocket.sendCommand(Collections.singletonList(createCommand(RedisCommandType.PING, new Object[]{})));
+        verify(fullHandler, never()).handle(any());
+
+        doReturn(true).when(netSocket).writeQueueFull();
+        redisSocket.sendCommand(Collections.singletonList(createCommand(RedisCommandType.PING, new Object[]{})));
+        verify(fullHandler, times(1)).handle(any());
+        assertTrue("Write queue should be full", redisSocket.writeQueueFull());
+
+        drainCaptor.getValue().handle(null);
+        verify(drainHandler, times(1)).handle(any());
+    }
+
+    @Test
+    public void testPendingCommands() {
+        doReturn(1L).when(inputStream).getCompletedCommands();
+
+        redisSocket.sendCommand(Arrays.asList(createCommand(RedisCommandType.PING, new Object[]{}),
+                createCommand(RedisCommandType.PING, new Object[]{})));
+
+        assertEquals("Unexpected pending commands", 1, redisSocket.getPendingCommands());
+    }
+
     @Test
     public void testClose() {
         RedisCommand command = mock(RedisCommand.class);
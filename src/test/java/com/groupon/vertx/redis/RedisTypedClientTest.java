@@ -0,0 +1,205 @@
+/**
+ * Copyright 2014 Groupon.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.groupon.vertx.redis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for <code>RedisTypedClient</code>.
+ *
+ * @since 3.2.0
+ */
+public class RedisTypedClientTest {
+    private RedisCommand command;
+    private Future<RedisReply> reply;
+    private RedisTypedClient client;
+
+    @Before
+    public void setUp() {
+        client = new RedisTypedClient(sent -> {
+            command = sent;
+            reply = Future.future();
+            return reply;
+        });
+    }
+
+    @Test
+    public void testIncr() {
+        Future<Long> result = client.incr("key");
+        assertEquals(RedisCommandType.INCR, command.getType());
+        assertEquals(Collections.singletonList("key"), command.getArgumentValues());
+
+        reply.complete(new RedisReply(RedisResponseType.INTEGER_REPLY, 5L));
+        assertEquals(Long.valueOf(5), result.result());
+    }
+
+    @Test
+    public void testExists() {
+        Future<Boolean> result = client.exists("key");
+
+        reply.complete(new RedisReply(RedisResponseType.INTEGER_REPLY, 0L));
+        assertFalse(result.result());
+    }
+
+    @Test
+    public void testGet() {
+        Future<Buffer> result = client.get(Buffer.buffer("key"));
+        assertEquals(Collections.singletonList(Buffer.buffer("key")), command.getArgumentValues());
+
+        reply.complete(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("value")));
+        assertEquals(Buffer.buffer("value"), result.result());
+    }
+
+    @Test
+    public void testGetStringMissing() {
+        Future<String> result = client.getString("key");
+
+        reply.complete(new RedisReply(RedisResponseType.BULK_REPLY, null));
+        assertTrue(result.succeeded());
+        assertNull(result.result());
+    }
+
+    @Test
+    public void testSet() {
+        Future<String> result = client.set("key", "value");
+        assertEquals(Arrays.asList("key", "value"), command.getArgumentValues());
+
+        reply.complete(new RedisReply(RedisResponseType.STATUS_CODE, "OK"));
+        assertEquals("OK", result.result());
+    }
+
+    @Test
+    public void testHgetall() {
+        Future<Map<String, Buffer>> result = client.hgetall("key");
+
+        reply.complete(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.<Object>asList(
+                Buffer.buffer("b"), Buffer.buffer("2"), Buffer.buffer("a"), Buffer.buffer("1"))));
+        assertEquals(Arrays.asList("b", "a"), Arrays.asList(result.result().keySet().toArray()));
+        assertEquals(Buffer.buffer("1"), result.result().get("a"));
+    }
+
+    @Test
+    public void testHgetallMap() {
+        Future<Map<String, Buffer>> result = client.hgetall("key");
+
+        Map<Object, Object> fields = new LinkedHashMap<>();
+        fields.put(Buffer.buffer("b"), Buffer.buffer("2"));
+        fields.put(Buffer.buffer("a"), Buffer.buffer("1"));
+        reply.complete(new RedisReply(RedisResponseType.MAP, fields));
+        assertEquals(Arrays.asList("b", "a"), Arrays.asList(result.result().keySet().toArray()));
+        assertEquals(Buffer.buffer("2"), result.result().get("b"));
+    }
+
+    @Test
+    public void testLrange() {
+        Future<List<Buffer>> result = client.lrange("key", 0, -1);
+        assertEquals(Arrays.asList("key", "0", "-1"), command.getArgumentValues());
+
+        reply.complete(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.<Object>asList(Buffer.buffer("a"), null)));
+        assertEquals(Arrays.asList(Buffer.buffer("a"), null), result.result());
+    }
+
+    @Test
+    public void testZrangewithscores() {
+        Future<List<RedisScoredMember>> result = client.zrangewithscores("key", 0, 1);
+        assertEquals(Arrays.asList("key", "0", "1", "WITHSCORES"), command.getArgumentValues());
+
+        reply.complete(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.<Object>asList(
+                Buffer.buffer("a"), Buffer.buffer("1.5"), Buffer.buffer("b"), Buffer.buffer("inf"))));
+        assertEquals(2, result.result().size());
+        assertEquals(Buffer.buffer("a"), result.result().get(0).getMember());
+        assertEquals(1.5, result.result().get(0).getScore(), 0);
+        assertEquals(Double.POSITIVE_INFINITY, result.result().get(1).getScore(), 0);
+    }
+
+    @Test
+    public void testZrangewithscoresPairs() {
+        Future<List<RedisScoredMember>> result = client.zrangewithscores("key", 0, 1);
+
+        reply.complete(new RedisReply(RedisResponseType.MULTI_BULK_REPLY, Arrays.<Object>asList(
+                Arrays.asList(Buffer.buffer("a"), 1.5), Arrays.asList(Buffer.buffer("b"), Double.NEGATIVE_INFINITY))));
+        assertEquals(2, result.result().size());
+        assertEquals(Buffer.buffer("b"), result.result().get(1).getMember());
+        assertEquals(1.5, result.result().get(0).getScore(), 0);
+        assertEquals(Double.NEGATIVE_INFINITY, result.result().get(1).getScore(), 0);
+    }
+
+    @Test
+    public void testZscoreDouble() {
+        Future<Double> result = client.zscore("key", "member");
+
+        reply.complete(new RedisReply(RedisResponseType.DOUBLE, 2.5));
+        assertEquals(Double.valueOf(2.5), result.result());
+    }
+
+    @Test
+    public void testExistsBoolean() {
+        Future<Boolean> result = client.exists("key");
+
+        reply.complete(new RedisReply(RedisResponseType.BOOLEAN, true));
+        assertTrue(result.result());
+    }
+
+    @Test
+    public void testZscore() {
+        Future<Double> result = client.zscore("key", "member");
+
+        reply.complete(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("-2")));
+        assertEquals(Double.valueOf(-2), result.result());
+    }
+
+    @Test
+    public void testErrorReply() {
+        Future<Long> result = client.incr("key");
+
+        reply.complete(new RedisReply(RedisResponseType.ERROR, "ERR value is not an integer or out of range"));
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof RedisCommandException);
+        assertEquals("ERR value is not an integer or out of range", result.cause().getMessage());
+    }
+
+    @Test
+    public void testUnexpectedReply() {
+        Future<Long> result = client.incr("key");
+
+        reply.complete(new RedisReply(RedisResponseType.BULK_REPLY, Buffer.buffer("value")));
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof RedisCommandException);
+    }
+
+    @Test
+    public void testSendFailure() {
+        Future<Long> result = client.incr("key");
+
+        RedisCommandException exception = new RedisCommandException("closed");
+        reply.fail(exception);
+        assertEquals(exception, result.cause());
+    }
+}
@@ -16,6 +16,7 @@
 package com.groupon.vertx.redis;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
@@ -29,6 +30,8 @@ import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.NetClient;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.SharedData;
 import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
@@ -59,6 +62,12 @@ public class RedisVerticleTest extends TestCase {
     @Mock
     private Future<Void> startFuture;
 
+    @Mock
+    private SharedData sharedData;
+
+    @Mock
+    private LocalMap<Object, Object> pools;
+
     private RedisVerticle verticle;
 
     @Before
@@ -68,6 +77,8 @@ public class RedisVerticleTest extends TestCase {
         when(vertx.eventBus()).thenReturn(eventBus);
         when(vertx.createNetClient()).thenReturn(netClient);
         doReturn(context).when(vertx).getOrCreateContext();
+        doReturn(sharedData).when(vertx).sharedData();
+        doReturn(pools).when(sharedData).getLocalMap(anyString());
 
         verticle = new RedisVerticle();
         verticle.init(vertx, context);
@@ -91,6 +102,7 @@ public class RedisVerticleTest extends TestCase {
         verify(context, times(1)).config();
         verify(vertx, times(1)).createNetClient();
         verify(netClient, times(1)).connect(eq(1234), eq("foo"), any());
+        verify(pools, times(1)).put(eq("address"), any(RedisConnectionPool.class));
     }
 
     @Test